@@ -19,6 +19,17 @@ let categoriesCache = { ts: 0, data: null };
 // Her kategori için en son yapılan scrape'de kaç ürün bulunduğu
 let categoryCountsCache = {}; // { [key: string]: number }
 
+// Delta sync durumu: her tam scrape bir önceki ile karşılaştırılır,
+// değişen/eklenen ürünler ve silinenler katalog versiyonu ile işaretlenir.
+// ETag "<epoch>-<version>"; servis yeniden başlarsa epoch değişir ve client tam liste alır.
+const CATALOG_EPOCH = Date.now().toString(36);
+const MAX_TOMBSTONES = 10000;
+let catalogVersion = 0;
+let oldestDeltaVersion = 0; // bundan eski versiyonlar için delta verilemez
+const catalogItems = new Map(); // key -> { product, fingerprint, version }
+let tombstones = []; // { key, version }
+let fullScrapeInFlight = null;
+
 // Menüde görünmesini istediğin ana kategoriler (PATH'LERİ SİTEDEN KONTROL ET!)
 const MANUAL_MENU_CATEGORIES = [
   {
@@ -270,7 +281,7 @@ function normalizeProducts(raw) {
 function dedupeByUrl(products) {
   const map = new Map();
   for (const p of products) {
-    const key = p.url || `${p.name}-${p.image_url}`;
+    const key = productKey(p);
     if (!map.has(key)) {
       map.set(key, p);
     } else {
@@ -290,6 +301,81 @@ function dedupeByUrl(products) {
   return Array.from(map.values());
 }
 
+// Ürün anahtarı: URL, yoksa "isim-görsel"; eksik alanlar boş string sayılır ("null"/"undefined" değil).
+// Backend'deki ProductIdentity.crawlerKey ile birebir aynı olmalı; silinen ürünler bu anahtarla bildirilir.
+function productKey(p) {
+  return p.url || `${p.name || ""}-${p.image_url || ""}`;
+}
+
+function currentEtag() {
+  return `"${CATALOG_EPOCH}-${catalogVersion}"`;
+}
+
+/**
+ * Yeni tam scrape sonucunu önceki ile karşılaştırır.
+ * Bir şey değiştiyse katalog versiyonu artar; değişmeyen ürünlerin versiyonu aynı kalır.
+ */
+function applyFullScrape(products) {
+  const next = catalogVersion + 1;
+  const seen = new Set();
+  let changed = false;
+
+  for (const p of products) {
+    const key = productKey(p);
+    const fingerprint = JSON.stringify(p);
+    seen.add(key);
+    const existing = catalogItems.get(key);
+    if (!existing || existing.fingerprint !== fingerprint) {
+      catalogItems.set(key, { product: p, fingerprint, version: next });
+      changed = true;
+    }
+  }
+
+  for (const key of catalogItems.keys()) {
+    if (!seen.has(key)) {
+      catalogItems.delete(key);
+      tombstones.push({ key, version: next });
+      changed = true;
+    }
+  }
+
+  if (tombstones.length > MAX_TOMBSTONES) {
+    const dropped = tombstones.splice(0, tombstones.length - MAX_TOMBSTONES);
+    oldestDeltaVersion = dropped[dropped.length - 1].version;
+  }
+
+  if (changed) catalogVersion = next;
+}
+
+// '"epoch-version"' -> version; başka epoch veya bozuk değer -> null
+function parseSince(value) {
+  if (!value) return null;
+  const m = value.toString().replace(/^W\//, "").replace(/"/g, "").match(/^([a-z0-9]+)-(\d+)$/);
+  if (!m || m[1] !== CATALOG_EPOCH) return null;
+  const version = parseInt(m[2], 10);
+  if (version > catalogVersion || version < oldestDeltaVersion) return null;
+  return version;
+}
+
+function changesSince(version) {
+  if (version === null) {
+    return {
+      etag: currentEtag(),
+      full: true,
+      upserts: Array.from(catalogItems.values(), (i) => i.product),
+      removed: [],
+    };
+  }
+  const upserts = [];
+  for (const item of catalogItems.values()) {
+    if (item.version > version) upserts.push(item.product);
+  }
+  const removed = tombstones
+      .filter((t) => t.version > version && !catalogItems.has(t.key))
+      .map((t) => t.key);
+  return { etag: currentEtag(), full: false, upserts, removed };
+}
+
 /**
  * /products?categories=sale,xyz
  * - key slug'ına göre filtre çalışır
@@ -328,20 +414,17 @@ app.get("/categories", async (req, res) => {
   }
 });
 
-app.get("/products", async (req, res) => {
-  const now = Date.now();
-
-  if (productsCache.data && now - productsCache.ts < PRODUCTS_TTL_MS) {
-    return res.json(productsCache.data);
-  }
-
+/**
+ * Verilen kategorileri tek tarayıcı oturumunda scrape eder.
+ */
+async function scrapeProducts(query) {
   let browser;
   try {
     browser = await chromium.launch({ headless: true });
     const page = await browser.newPage();
 
     const allCategories = await getCategories(page);
-    const requested = filterCategories(allCategories, req.query);
+    const requested = filterCategories(allCategories, query);
 
     const allRaw = [];
     const perCategoryCount = new Map();
@@ -363,15 +446,71 @@ app.get("/products", async (req, res) => {
     categoryCountsCache = Object.fromEntries(perCategoryCount);
 
     const normalized = normalizeProducts(allRaw);
-    const deduped = dedupeByUrl(normalized);
+    return dedupeByUrl(normalized);
+  } finally {
+    if (browser) await browser.close();
+  }
+}
+
+/**
+ * Tüm ürünler (5 dk cache'li). Aynı anda gelen istekler tek scrape'i paylaşır.
+ */
+function getAllProducts() {
+  const now = Date.now();
+  if (productsCache.data && now - productsCache.ts < PRODUCTS_TTL_MS) {
+    return Promise.resolve(productsCache.data);
+  }
+  if (!fullScrapeInFlight) {
+    fullScrapeInFlight = scrapeProducts({})
+        .then((products) => {
+          productsCache = { ts: Date.now(), data: products };
+          applyFullScrape(products);
+          return products;
+        })
+        .finally(() => {
+          fullScrapeInFlight = null;
+        });
+  }
+  return fullScrapeInFlight;
+}
+
+app.get("/products", async (req, res) => {
+  try {
+    // Kategori filtreli istekler tam listeyi (ve delta durumunu) ezmesin
+    if ((req.query.categories || "").toString().trim()) {
+      return res.json(await scrapeProducts(req.query));
+    }
 
-    productsCache = { ts: Date.now(), data: deduped };
-    res.json(deduped);
+    const products = await getAllProducts();
+    res.set("ETag", currentEtag());
+    if (req.fresh) {
+      return res.status(304).end();
+    }
+    res.json(products);
+  } catch (err) {
+    console.error(err);
+    res.status(500).json({ error: "Failed to scrape products" });
+  }
+});
+
+/**
+ * Delta sync: /products/changes?since=<etag> (veya If-None-Match)
+ * - Değişiklik yoksa 304
+ * - Varsa sadece eklenen/değişen ürünler ve silinenlerin anahtarları
+ * - since tanınmıyorsa (ilk istek, servis yeniden başladı, çok eski) full=true ile tüm liste
+ */
+app.get("/products/changes", async (req, res) => {
+  try {
+    await getAllProducts();
+    const since = req.query.since || req.get("If-None-Match");
+    res.set("ETag", currentEtag());
+    if (since && since.toString().replace(/^W\//, "") === currentEtag()) {
+      return res.status(304).end();
+    }
+    res.json(changesSince(parseSince(since)));
   } catch (err) {
     console.error(err);
     res.status(500).json({ error: "Failed to scrape products" });
-  } finally {
-    if (browser) await browser.close();
   }
 });
 
@@ -0,0 +1,124 @@
+package com.megagastro.poster.benchmark;
+
+import com.megagastro.poster.client.CrawlerGuard;
+import com.megagastro.poster.dto.RemoteCategoryDto;
+import com.megagastro.poster.metrics.PosterMetrics;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.repository.CatalogSnapshotStore;
+import com.megagastro.poster.repository.CustomProductRepository;
+import com.megagastro.poster.repository.CustomProductStore;
+import com.megagastro.poster.repository.PriceHistoryStore;
+import com.megagastro.poster.service.CatalogService;
+import com.megagastro.poster.service.CategoryService;
+import com.megagastro.poster.service.ProductSearchService;
+import com.megagastro.poster.service.ProductService;
+import com.megagastro.poster.service.RemoteProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Servisleri Spring context'i olmadan, uygulamadaki gibi birbirine bağlar.
+ * Crawler yerine sabit katalog dönen bir RemoteProductService kullanılır; disk store'ları
+ * geçici dizinde açılır ve close() ile silinir.
+ */
+final class CatalogFixture implements AutoCloseable {
+
+    final ProductService productService;
+    final CategoryService categoryService;
+
+    private final CustomProductStore customStore;
+    private final Path dataDir;
+
+    CatalogFixture(List<Product> remoteProducts, List<RemoteCategoryDto> remoteCategories, int customProducts) {
+        try {
+            dataDir = Files.createTempDirectory("poster-bench");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        PosterMetrics metrics = new PosterMetrics(new SimpleMeterRegistry());
+        RemoteProductService remote = new StubRemoteProductService(remoteProducts, remoteCategories, metrics);
+        CatalogSnapshotStore snapshotStore = new CatalogSnapshotStore("");
+        customStore = new CustomProductStore(dataDir.resolve("custom-products").toString());
+        CustomProductRepository customRepository = new CustomProductRepository(event -> { }, customStore, snapshotStore);
+        for (Product p : GermanCatalog.products(customProducts, 7)) {
+            // Custom ürünlerin bir kısmı crawler'da olmayan kategorilerde
+            p.setId(null);
+            if (p.getName().length() % 4 == 0) p.setCategory("Hausmarke " + p.getCategory());
+            customRepository.save(p);
+        }
+
+        CatalogService catalogService = new CatalogService(remote, customRepository, snapshotStore,
+                new ConcurrentMapCacheManager());
+        ProductSearchService searchService = new ProductSearchService(catalogService, customRepository);
+        productService = new ProductService(catalogService, remote, searchService, customRepository, metrics);
+        categoryService = new CategoryService(remote, customRepository);
+    }
+
+    @Override
+    public void close() {
+        customStore.close();
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Crawler'a gitmeden sabit listeleri döner (uygulamadaki cache'lenmiş hal ile aynı).
+     */
+    private static final class StubRemoteProductService extends RemoteProductService {
+
+        private final List<Product> products;
+        private final List<RemoteCategoryDto> categories;
+
+        StubRemoteProductService(List<Product> products, List<RemoteCategoryDto> categories, PosterMetrics metrics) {
+            super(WebClient.create("http://127.0.0.1:9"), new CrawlerGuard(1, Duration.ZERO, 5, Duration.ofSeconds(30)),
+                    new PriceHistoryStore(""), metrics, Executors.newSingleThreadExecutor(),
+                    new ConcurrentMapCacheManager(), Duration.ofSeconds(20), Duration.ZERO);
+            this.products = List.copyOf(products);
+            this.categories = List.copyOf(categories);
+        }
+
+        @Override
+        public List<Product> fetchRemoteProducts() {
+            return products;
+        }
+
+        @Override
+        public List<Product> fetchRemoteProducts(String categories) {
+            Predicate<String> matcher = ProductService.categoryMatcher(List.of(categories.split(",")));
+            return products.stream().filter(p -> p.getCategory() != null && matcher.test(p.getCategory())).toList();
+        }
+
+        @Override
+        public List<RemoteCategoryDto> fetchRemoteCategories() {
+            return categories;
+        }
+
+        @Override
+        public Mono<List<Product>> fetchRemoteProductsReactive() {
+            return Mono.just(products);
+        }
+
+        @Override
+        public Mono<List<RemoteCategoryDto>> fetchRemoteCategoriesReactive() {
+            return Mono.just(categories);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.megagastro.poster.benchmark;
+
+import com.megagastro.poster.dto.CategoryDto;
+import com.megagastro.poster.util.TextNormalizer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CategoryService.getAllCategories (crawler kategorileri + custom ürün kategorileri, slug üretimi)
+ * ve tek başına slugify.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CategoryBenchmark {
+
+    @Param({"100", "2000"})
+    public int customProducts;
+
+    private CatalogFixture fixture;
+    private String[] names;
+
+    @Setup
+    public void setUp() {
+        fixture = new CatalogFixture(List.of(), GermanCatalog.categories(), customProducts);
+        names = GermanCatalog.categories().stream().map(c -> c.name()).toArray(String[]::new);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public List<CategoryDto> getAllCategories() {
+        return fixture.categoryService.getAllCategories();
+    }
+
+    @Benchmark
+    public void slugifyCategoryNames(Blackhole bh) {
+        for (String name : names) {
+            bh.consume(TextNormalizer.slugify(name));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.megagastro.poster.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.megagastro.poster.dto.RemoteCategoryDto;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.model.ProductSource;
+import com.megagastro.poster.util.ProductIdentity;
+import com.megagastro.poster.util.TextNormalizer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Benchmark'lar için gerçekçi Almanca gastro katalogu üretir (sabit seed, her çalıştırmada aynı).
+ * İsimler marka + ürün tipi + özellik + ölçüden oluşur; crawler'daki gibi umlaut, "&", "/" ve
+ * birleşik ("A | B") kategoriler içerir.
+ */
+final class GermanCatalog {
+
+    static final String[] CATEGORIES = {
+            "Kühltechnik", "Spültechnik", "Kochgeräte", "Backöfen & Zubehör", "Kaffeemaschinen",
+            "Gastronorm-Behälter", "Küchenutensilien", "Getränke-Zubehör", "Schneidemaschinen",
+            "Grills & Bräter", "Eismaschinen", "Wärmetechnik", "Fritteusen", "Vakuumierer",
+            "Buffet & Präsentation", "Hygiene & Reinigung", "Möbel für Gastronomie", "Pizzaöfen"
+    };
+
+    private static final String[] BRANDS = {
+            "Bartscher", "Saro", "Royal Catering", "Stalgast", "Hendi", "GGM Gastro", "Casselin",
+            "Klarstein", "Gastro-Inox", "Krups", "WMF", "Rational"
+    };
+
+    private static final String[] TYPES = {
+            "Kühlschrank", "Tiefkühlschrank", "Getränkekühlschrank", "Gläserspülmaschine",
+            "Geschirrspülmaschine", "Induktionskochfeld", "Gasherd", "Heißluftofen", "Kombidämpfer",
+            "Kaffeevollautomat", "Siebträgermaschine", "Gastronormbehälter", "Schneidebrett",
+            "Kochmesser", "Aufschnittmaschine", "Kontaktgrill", "Lavasteingrill", "Softeismaschine",
+            "Wärmebrücke", "Bain-Marie", "Elektro-Fritteuse", "Kammervakuumierer", "Chafing Dish",
+            "Arbeitstisch", "Wandregal", "Pizzaofen", "Salamander", "Planetenrührmaschine"
+    };
+
+    private static final String[] FEATURES = {
+            "Edelstahl", "Umluft", "mit Glastür", "digital", "mit Ablaufpumpe", "2 Zonen", "Doppelkorb",
+            "Steinplatte", "höhenverstellbar", "Chrom-Nickel", "mit Timer", "stapelbar", "Premium",
+            "Eco", "Pro", "kompakt"
+    };
+
+    private static final String[] SIZES = {
+            "GN 1/1", "GN 1/2", "GN 2/3", "65 mm", "150 mm", "60 L", "140 L", "400 L", "3,5 kW",
+            "230 V", "400 V", "Ø 30 cm", "120 x 70 cm", "5 L", "12 L"
+    };
+
+    private GermanCatalog() {
+    }
+
+    static List<Product> products(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = name(random, i);
+            String url = url(name, i, random);
+            String imageUrl = "https://www.mega-gastro.de/media/image/" + (100000 + i) + ".jpg";
+            double original = price(random);
+            boolean discounted = random.nextInt(100) < 55;
+            double current = discounted ? round(original * (0.6 + random.nextDouble() * 0.38)) : original;
+            int discount = discounted ? (int) Math.round((1 - current / original) * 100) : 0;
+            products.add(Product.builder()
+                    .id(ProductIdentity.remoteId(url, name, imageUrl))
+                    .name(name)
+                    .url(url)
+                    .imageUrl(imageUrl)
+                    .priceCurrent(current)
+                    .priceOriginal(original)
+                    .discountPct(discount)
+                    .category(category(random))
+                    .source(ProductSource.REMOTE)
+                    .build());
+        }
+        return products;
+    }
+
+    static List<RemoteCategoryDto> categories() {
+        List<RemoteCategoryDto> categories = new ArrayList<>();
+        for (String name : CATEGORIES) {
+            // Crawler bazı kategorilerde key göndermez; slug o zaman sunucuda üretilir
+            String key = name.length() % 3 == 0 ? null : TextNormalizer.slugify(name);
+            categories.add(new RemoteCategoryDto(key, name, "/" + TextNormalizer.slugify(name)));
+            for (String type : TYPES) {
+                if (Math.floorMod(type.hashCode() ^ name.hashCode(), 4) != 0) continue;
+                String sub = name + " / " + type;
+                categories.add(new RemoteCategoryDto(null, sub, "/" + TextNormalizer.slugify(sub)));
+            }
+        }
+        return categories;
+    }
+
+    /**
+     * Crawler'ın /products cevabıyla aynı biçimde JSON (snake_case alanlar).
+     */
+    static byte[] crawlerJson(List<Product> products) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(products.size() * 320);
+        try (JsonGenerator json = new JsonFactory().createGenerator(out)) {
+            json.writeStartArray();
+            for (Product p : products) {
+                json.writeStartObject();
+                json.writeStringField("name", p.getName());
+                json.writeStringField("url", p.getUrl());
+                json.writeStringField("image_url", p.getImageUrl());
+                json.writeNumberField("price_current", p.getPriceCurrent());
+                json.writeNumberField("price_original", p.getPriceOriginal());
+                json.writeNumberField("discount_pct", p.getDiscountPct());
+                json.writeStringField("category", p.getCategory());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Kullanıcıların arama kutusuna yazdıklarına benzer sorgular (kısmi kelime, umlautsuz yazım).
+     */
+    static String[] queries() {
+        return new String[]{
+                "kühlschrank", "kuhl", "kaffee", "edelstahl gn", "bartscher fritt", "spülmaschine",
+                "gläser", "induktion", "pizza", "wärme", "saro 400", "vakuum", "messer", "chafing",
+                "grill stein", "umluft ofen"
+        };
+    }
+
+    private static String name(SplittableRandom random, int i) {
+        StringBuilder sb = new StringBuilder(64)
+                .append(BRANDS[random.nextInt(BRANDS.length)]).append(' ')
+                .append(TYPES[random.nextInt(TYPES.length)]);
+        if (random.nextBoolean()) sb.append(' ').append(FEATURES[random.nextInt(FEATURES.length)]);
+        if (random.nextInt(3) > 0) sb.append(", ").append(SIZES[random.nextInt(SIZES.length)]);
+        if (random.nextInt(10) == 0) sb.append(" & Zubehör");
+        return sb.append(" - Modell ").append(1000 + i % 9000).toString();
+    }
+
+    private static String url(String name, int i, SplittableRandom random) {
+        String url = "https://www.mega-gastro.de/" + TextNormalizer.slugify(name) + "-" + (100000 + i) + ".html";
+        // Crawler URL'leri bazen kampanya parametreleriyle gelir
+        return random.nextInt(20) == 0 ? url + "?utm_source=newsletter&utm_medium=email" : url;
+    }
+
+    private static String category(SplittableRandom random) {
+        String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+        if (random.nextInt(12) == 0) {
+            category = category + " | " + CATEGORIES[random.nextInt(CATEGORIES.length)];
+        }
+        return category;
+    }
+
+    private static double price(SplittableRandom random) {
+        // Çoğu ürün düşük fiyatlı, az sayıda büyük cihaz
+        double base = Math.exp(Math.log(4.99) + random.nextDouble() * (Math.log(4999) - Math.log(4.99)));
+        double euros = Math.floor(base);
+        double cents = random.nextBoolean() ? 0.99 : random.nextBoolean() ? 0.90 : 0.49;
+        return round(euros + cents);
+    }
+
+    private static double round(double value) {
+        return Double.parseDouble(String.format(Locale.ROOT, "%.2f", value));
+    }
+}
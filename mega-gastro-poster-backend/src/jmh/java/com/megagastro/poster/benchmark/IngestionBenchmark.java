@@ -0,0 +1,44 @@
+package com.megagastro.poster.benchmark;
+
+import com.megagastro.poster.client.RemoteProductReader;
+import com.megagastro.poster.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Crawler JSON'unun Product listesine çevrilmesi (akış okuma, ID türetme, kategori paylaşımı).
+ * Ağ hariç; cevap bellekteki byte'lardan okunur.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngestionBenchmark {
+
+    @Param({"1000", "10000"})
+    public int catalogSize;
+
+    private byte[] response;
+    private RemoteProductReader reader;
+
+    @Setup
+    public void setUp() {
+        response = GermanCatalog.crawlerJson(GermanCatalog.products(catalogSize, 42));
+        // Uygulamada reader servis ömrü boyunca yaşar; kategori adları yenilemeler arasında paylaşılır
+        reader = new RemoteProductReader();
+    }
+
+    @Benchmark
+    public List<Product> readProducts() throws IOException {
+        List<Product> products = new ArrayList<>(catalogSize);
+        reader.readArray(new ByteArrayInputStream(response), products::add);
+        return products;
+    }
+}
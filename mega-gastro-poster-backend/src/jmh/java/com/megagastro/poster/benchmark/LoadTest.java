@@ -0,0 +1,280 @@
+package com.megagastro.poster.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * /api/products ve /api/products/search için eşzamanlı yük testi (JMH değil, çalışan uygulamaya karşı).
+ * --concurrency kadar isteği sürekli uçuşta tutar; her saniye uçuştaki istekleri, tamamlanan ve
+ * başarısız istekleri ve ayrı bir bağlantıdan ölçülen /actuator/health gecikmesini yazar.
+ *
+ * --stub-port verilirse yavaş bir crawler stub'ı da açılır (/products her çağrıda --stub-delay bekler).
+ * Uygulama bu stub'a ve kısa bir cache süresine bakacak şekilde açılırsa cache her dolduğunda
+ * tüm istekler crawler'ı bekler. Platform thread modunda Tomcat'in thread'leri bu bekleyişle dolar
+ * ve health isteği de sıraya girer; virtual thread modunda bekleyen istekler thread tutmaz.
+ *
+ * --stub-fail-rate ve --stub-hang-rate stub'ın çağrıların bu oranında 500 dönmesini ya da hiç cevap
+ * vermemesini sağlar (/products ve /categories). Crawler zaman aşımı, bulkhead ve circuit breaker bununla
+ * denenir: devre açıldıktan sonra API gecikmesi crawler'dan bağımsız kalmalı, istekler son katalogla cevaplanmalıdır.
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec@load-test -Dload.args="--concurrency 4000 --stub-port 4100"
+ * mvn -Pbenchmarks test-compile exec:exec@load-test -Dload.args="--stub-port 4100 --stub-fail-rate 0.3 --stub-hang-rate 0.2"
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final int MAX_LATENCY_MS = 120_000;
+
+    private final URI target;
+    private final int concurrency;
+    private final Duration duration;
+    private final HttpClient client;
+    private final String[] queries = GermanCatalog.queries();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLongArray latencies = new AtomicLongArray(MAX_LATENCY_MS + 1);
+    private final AtomicLongArray healthLatencies = new AtomicLongArray(MAX_LATENCY_MS + 1);
+    private final AtomicLong lastHealthMillis = new AtomicLong();
+    private final AtomicLong maxHealthMillis = new AtomicLong();
+
+    private LoadTest(URI target, int concurrency, Duration duration) {
+        this.target = target;
+        this.concurrency = concurrency;
+        this.duration = duration;
+        // HTTP/1.1: her uçuştaki istek kendi bağlantısını kullanır, sunucuda gerçekten eşzamanlıdır
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newFixedThreadPool(4, daemon("load-client-")))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI target = URI.create("http://localhost:8080");
+        int concurrency = 2000;
+        Duration duration = Duration.ofSeconds(30);
+        int stubPort = 0;
+        Duration stubDelay = Duration.ofSeconds(3);
+        int stubProducts = 5000;
+        double stubFailRate = 0;
+        double stubHangRate = 0;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--target" -> target = URI.create(value);
+                case "--concurrency" -> concurrency = Integer.parseInt(value);
+                case "--duration" -> duration = Duration.parse(value);
+                case "--stub-port" -> stubPort = Integer.parseInt(value);
+                case "--stub-delay" -> stubDelay = Duration.parse(value);
+                case "--stub-products" -> stubProducts = Integer.parseInt(value);
+                case "--stub-fail-rate" -> stubFailRate = Double.parseDouble(value);
+                case "--stub-hang-rate" -> stubHangRate = Double.parseDouble(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        HttpServer stub = stubPort > 0
+                ? startCrawlerStub(stubPort, stubDelay, stubProducts, stubFailRate, stubHangRate)
+                : null;
+        try {
+            new LoadTest(target, concurrency, duration).run();
+        } finally {
+            if (stub != null) stub.stop(0);
+        }
+    }
+
+    private void run() throws InterruptedException {
+        System.out.printf(Locale.ROOT, "target=%s concurrency=%d duration=%s%n", target, concurrency, duration);
+        ScheduledExecutorService monitor = Executors.newScheduledThreadPool(2, daemon("load-monitor-"));
+        long start = System.nanoTime();
+        long[] lastCompleted = {0};
+        monitor.scheduleAtFixedRate(() -> {
+            long done = completed.get();
+            System.out.printf(Locale.ROOT, "t=%3ds in-flight=%5d max=%5d done/s=%7d failed=%d health=%dms%n",
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), inFlight.get(), maxInFlight.get(),
+                    done - lastCompleted[0], failed.get(), lastHealthMillis.get());
+            lastCompleted[0] = done;
+        }, 1, 1, TimeUnit.SECONDS);
+        monitor.scheduleWithFixedDelay(this::probeHealth, 0, 250, TimeUnit.MILLISECONDS);
+
+        Semaphore permits = new Semaphore(concurrency);
+        long deadline = start + duration.toNanos();
+        for (long n = 0; System.nanoTime() < deadline; n++) {
+            if (!permits.tryAcquire(100, TimeUnit.MILLISECONDS)) continue;
+            send(request(n), permits);
+        }
+        // Uçuştaki isteklerin bitmesini bekle
+        permits.tryAcquire(concurrency, 2, TimeUnit.MINUTES);
+        monitor.shutdownNow();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.ROOT, "%ncompleted=%d failed=%d throughput=%.0f req/s max-in-flight=%d%n",
+                completed.get(), failed.get(), completed.get() / seconds, maxInFlight.get());
+        System.out.printf(Locale.ROOT, "latency   p50=%dms p95=%dms p99=%dms max=%dms%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.95),
+                percentile(latencies, 0.99), percentile(latencies, 1.0));
+        System.out.printf(Locale.ROOT, "health    p50=%dms p99=%dms max=%dms%n",
+                percentile(healthLatencies, 0.50), percentile(healthLatencies, 0.99), maxHealthMillis.get());
+    }
+
+    /**
+     * Yarısı sayfalı ürün listesi, yarısı arama.
+     */
+    private HttpRequest request(long n) {
+        String path = n % 2 == 0
+                ? "/api/products?limit=50&fields=id,name,priceCurrent"
+                : "/api/products/search?limit=20&q=" + URLEncoder.encode(queries[(int) (n / 2 % queries.length)], StandardCharsets.UTF_8);
+        return HttpRequest.newBuilder(target.resolve(path)).timeout(Duration.ofMinutes(2)).GET().build();
+    }
+
+    private void send(HttpRequest request, Semaphore permits) {
+        int now = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(now, Math::max);
+        long started = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+            inFlight.decrementAndGet();
+            if (e == null && response.statusCode() == 200) {
+                completed.incrementAndGet();
+                record(latencies, started);
+            } else {
+                failed.incrementAndGet();
+            }
+            permits.release();
+        });
+    }
+
+    /**
+     * Yükten bağımsız ucuz bir istek; sunucunun yeni isteklere hâlâ cevap verip vermediğini gösterir.
+     */
+    private void probeHealth() {
+        HttpRequest request = HttpRequest.newBuilder(target.resolve("/actuator/health"))
+                .timeout(Duration.ofMinutes(2)).GET().build();
+        long started = System.nanoTime();
+        try {
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long millis = record(healthLatencies, started);
+        lastHealthMillis.set(millis);
+        maxHealthMillis.accumulateAndGet(millis, Math::max);
+    }
+
+    private static long record(AtomicLongArray histogram, long startedNanos) {
+        long millis = Math.min(MAX_LATENCY_MS, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos));
+        histogram.incrementAndGet((int) millis);
+        return millis;
+    }
+
+    private static long percentile(AtomicLongArray histogram, double p) {
+        long total = 0;
+        for (int i = 0; i < histogram.length(); i++) total += histogram.get(i);
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(total * p));
+        long seen = 0;
+        for (int i = 0; i < histogram.length(); i++) {
+            seen += histogram.get(i);
+            if (seen >= rank) return i;
+        }
+        return MAX_LATENCY_MS;
+    }
+
+    /**
+     * Crawler'ın /products ve /categories cevaplarını veren yavaş stub. Delta endpoint'i yok (404),
+     * böylece uygulama her yüklemede tam listeyi ister ve her seferinde gecikmeyi bekler.
+     * Çağrıların failRate'i 500 alır, hangRate'i stub kapanana kadar cevapsız kalır.
+     */
+    private static HttpServer startCrawlerStub(int port, Duration delay, int products,
+                                               double failRate, double hangRate) throws IOException {
+        byte[] productsJson = GermanCatalog.crawlerJson(GermanCatalog.products(products, 42));
+        byte[] categoriesJson = new ObjectMapper().writeValueAsBytes(GermanCatalog.categories());
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/products", exchange -> {
+            if (!"/products".equals(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            if (injectFault(exchange, failRate, hangRate)) return;
+            sleep(delay);
+            respond(exchange, productsJson);
+        });
+        server.createContext("/categories", exchange -> {
+            if (injectFault(exchange, failRate, hangRate)) return;
+            respond(exchange, categoriesJson);
+        });
+        server.setExecutor(Executors.newCachedThreadPool(daemon("crawler-stub-")));
+        server.start();
+        System.out.printf(Locale.ROOT, "crawler stub on port %d: %d products, %s delay, fail=%.2f hang=%.2f%n",
+                port, products, delay, failRate, hangRate);
+        return server;
+    }
+
+    /**
+     * Hata enjekte edildiyse true döner (cevap yazılmış ya da hiç yazılmayacak).
+     */
+    private static boolean injectFault(HttpExchange exchange, double failRate, double hangRate) throws IOException {
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < failRate) {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+            return true;
+        }
+        if (roll < failRate + hangRate) {
+            // Asılı kalan crawler: bağlantı açık kalır, cevap gelmez
+            sleep(Duration.ofMinutes(10));
+            exchange.close();
+            return true;
+        }
+        return false;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,122 @@
+package com.megagastro.poster.benchmark;
+
+import com.megagastro.poster.image.PosterImageCache;
+import com.megagastro.poster.metrics.PosterMetrics;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.render.PdfRenderEngine;
+import com.megagastro.poster.render.PosterHtmlRenderer;
+import com.megagastro.poster.service.PosterService;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 9 ürünlük posterin PDF'e çevrilmesi. Görseller yerel bir stub HTTP sunucusundan gelir ve
+ * uygulamadaki gibi render'dan önce cache'e alınır; ölçülen, ısınmış cache ile render süresidir.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfRenderBenchmark {
+
+    @Param({"false", "true"})
+    public boolean images;
+
+    private HttpServer imageServer;
+    private Path cacheDir;
+    private PosterImageCache imageCache;
+    private PdfRenderEngine renderEngine;
+    private String html;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] jpeg = productPhoto();
+        imageServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        imageServer.createContext("/media/image/", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "image/jpeg");
+            exchange.sendResponseHeaders(200, jpeg.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(jpeg);
+            }
+        });
+        imageServer.start();
+        String imageBase = "http://127.0.0.1:" + imageServer.getAddress().getPort() + "/media/image/";
+
+        cacheDir = Files.createTempDirectory("poster-bench-images");
+        imageCache = new PosterImageCache(WebClient.builder(), cacheDir.toString(), DataSize.ofMegabytes(64),
+                DataSize.ofMegabytes(64), 600, Duration.ofSeconds(10), Duration.ofSeconds(2), Duration.ofSeconds(4),
+                2, Duration.ofMillis(200), 4);
+        PosterMetrics metrics = new PosterMetrics(new SimpleMeterRegistry());
+        renderEngine = new PdfRenderEngine(imageCache, metrics, 1, 8, Duration.ofSeconds(60), "", "Arial");
+
+        List<Product> products = GermanCatalog.products(9, 42);
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setImageUrl(images ? imageBase + i + ".jpg" : null);
+        }
+        PosterService posterService = new PosterService(renderEngine, imageCache, null, new PosterHtmlRenderer(), metrics,
+                PosterHtmlBenchmark.emptyCatalog());
+        html = posterService.buildPosterHtml("Angebote der Woche", products, 9);
+        posterService.prefetchImages(products);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        renderEngine.shutdown();
+        imageCache.shutdown();
+        imageServer.stop(0);
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] renderPdf() {
+        return renderEngine.render(html);
+    }
+
+    /**
+     * Mağaza fotoğraflarına benzer boyutta (1200x900) JPEG; cache bunu 600px'e küçültür.
+     */
+    private static byte[] productPhoto() {
+        BufferedImage image = new BufferedImage(1200, 900, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setPaint(new GradientPaint(0, 0, new Color(0xECF0F1), 1200, 900, new Color(0x95A5A6)));
+            g.fillRect(0, 0, 1200, 900);
+            g.setColor(new Color(0xC0392B));
+            g.fillRoundRect(300, 200, 600, 500, 60, 60);
+        } finally {
+            g.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "jpg", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,55 @@
+package com.megagastro.poster.benchmark;
+
+import com.megagastro.poster.metrics.PosterMetrics;
+import com.megagastro.poster.model.PosterLayout;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.render.PosterHtmlRenderer;
+import com.megagastro.poster.repository.CatalogSnapshotStore;
+import com.megagastro.poster.service.CatalogService;
+import com.megagastro.poster.service.PosterService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Poster HTML'inin kurulması (seçim, kategori gruplama, şablon); PDF render'ı hariç.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PosterHtmlBenchmark {
+
+    @Param({"1", "4", "9"})
+    public int productCount;
+
+    @Param({"A4", "A4_LANDSCAPE"})
+    public PosterLayout layout;
+
+    private PosterService posterService;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        // buildPosterHtml render motoruna ve cache'lere dokunmaz
+        posterService = new PosterService(null, null, null, new PosterHtmlRenderer(),
+                new PosterMetrics(new SimpleMeterRegistry()), emptyCatalog());
+        products = GermanCatalog.products(productCount, 42);
+    }
+
+    @Benchmark
+    public String buildPosterHtml() {
+        return posterService.buildPosterHtml("Angebote der Woche", products, productCount, layout);
+    }
+
+    /**
+     * Snapshot'ı boş katalog; benchmark ürünleri için liste tablosu kurulur.
+     */
+    static CatalogService emptyCatalog() {
+        return new CatalogService(null, null, new CatalogSnapshotStore(""), null);
+    }
+}
@@ -0,0 +1,46 @@
+package com.megagastro.poster.benchmark;
+
+import com.megagastro.poster.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductService.searchProducts; index ısınmış (katalog değişmiyor), sorgular sırayla döner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    private CatalogFixture fixture;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        fixture = new CatalogFixture(GermanCatalog.products(catalogSize, 42), GermanCatalog.categories(), 200);
+        queries = GermanCatalog.queries();
+        // İlk arama remote index'i kurar; ölçüme girmesin
+        fixture.productService.searchProducts(queries[0]);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public List<Product> searchProducts() {
+        String query = queries[next];
+        next = (next + 1) % queries.length;
+        return fixture.productService.searchProducts(query);
+    }
+}
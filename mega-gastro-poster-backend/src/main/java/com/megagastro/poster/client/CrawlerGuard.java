@@ -0,0 +1,214 @@
+package com.megagastro.poster.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Crawler çağrılarının önündeki bulkhead ve circuit breaker.
+ * - Bulkhead: aynı anda en fazla max-concurrent çağrı crawler'a gider; max-wait içinde yer açılmazsa
+ *   çağrı reddedilir. Crawler her çağrıda Chromium açtığı için bu sınır crawler'ı da korur.
+ * - Circuit breaker: art arda failure-threshold başarısız çağrıdan (zaman aşımı, bağlantı hatası, 5xx)
+ *   sonra devre açılır ve open-duration boyunca crawler'a gidilmeden hemen CrawlerUnavailableException
+ *   fırlatılır. Süre dolunca tek bir deneme çağrısı geçer; başarılıysa devre kapanır, değilse yeniden açılır.
+ * 4xx cevaplar crawler'ın ayakta olduğunu gösterir, hata sayılmaz ve olduğu gibi fırlatılır.
+ * Reddedilen/başarısız çağrıda yedeğe (son cache'lenmiş katalog) düşmek çağıranın işidir.
+ */
+@Component
+public class CrawlerGuard implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(CrawlerGuard.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final Semaphore bulkhead;
+    private final Duration maxWait;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    // Devre durumu; geçişler kilit altında, çağrının kendisi kilit dışında yapılır
+    private final ReentrantLock lock = new ReentrantLock();
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong bulkheadRejected = new AtomicLong();
+    private final AtomicLong circuitRejected = new AtomicLong();
+
+    public CrawlerGuard(@Value("${crawler.bulkhead.max-concurrent:4}") int maxConcurrent,
+                        @Value("${crawler.bulkhead.max-wait:PT2S}") Duration maxWait,
+                        @Value("${crawler.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                        @Value("${crawler.circuit-breaker.open-duration:PT30S}") Duration openDuration) {
+        this.bulkhead = new Semaphore(Math.max(1, maxConcurrent), true);
+        this.maxWait = maxWait;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * call'ı bulkhead ve circuit breaker arkasında çalıştırır. Başarısız çağrılar
+     * CrawlerUnavailableException'a sarılır (4xx hariç).
+     */
+    public <T> T call(String operation, Supplier<T> call) {
+        boolean probe = acquirePermission(operation);
+        boolean permitted;
+        try {
+            permitted = bulkhead.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            releaseProbe(probe);
+            throw new CrawlerUnavailableException("Interrupted while waiting for a crawler call slot");
+        }
+        if (!permitted) {
+            releaseProbe(probe);
+            bulkheadRejected.incrementAndGet();
+            throw new CrawlerUnavailableException("Too many concurrent crawler calls, rejected " + operation);
+        }
+        try {
+            T result = call.get();
+            onSuccess();
+            return result;
+        } catch (WebClientResponseException e) {
+            if (e.getStatusCode().is4xxClientError()) {
+                onSuccess();
+                throw e;
+            }
+            onFailure(operation, e);
+            throw new CrawlerUnavailableException("Crawler " + operation + " failed: " + e.getStatusCode(), e);
+        } catch (CrawlerUnavailableException e) {
+            onFailure(operation, e);
+            throw e;
+        } catch (RuntimeException e) {
+            onFailure(operation, e);
+            throw new CrawlerUnavailableException("Crawler " + operation + " failed", e);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Devre şu an çağrıyı reddedecekse crawler'a gitmeden CrawlerUnavailableException fırlatır; durumu değiştirmez,
+     * açık kalma süresi dolduysa geçer ve deneme çağrısını call() alır. Cache yüklemesi başlatılmadan önce
+     * çağrılır: devre açıkken reddedilen çağrı cache'te başarısız yükleme olarak kalmaz.
+     */
+    public void checkCircuit(String operation) {
+        lock.lock();
+        try {
+            boolean rejects = (state == State.OPEN && System.nanoTime() - openedAt < openNanos)
+                    || (state == State.HALF_OPEN && probeInFlight);
+            if (!rejects) return;
+        } finally {
+            lock.unlock();
+        }
+        circuitRejected.incrementAndGet();
+        throw new CrawlerUnavailableException("Crawler circuit is open, skipped " + operation);
+    }
+
+    public State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Devre açıksa hemen reddeder. Açık kalma süresi dolduysa bu çağrı deneme çağrısı olur (true döner);
+     * deneme sürerken gelen diğer çağrılar yine reddedilir.
+     */
+    private boolean acquirePermission(String operation) {
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+            }
+            if (state == State.CLOSED) return false;
+            if (state == State.HALF_OPEN && !probeInFlight) {
+                probeInFlight = true;
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        circuitRejected.incrementAndGet();
+        throw new CrawlerUnavailableException("Crawler circuit is open, skipped " + operation);
+    }
+
+    private void releaseProbe(boolean probe) {
+        if (!probe) return;
+        lock.lock();
+        try {
+            probeInFlight = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onSuccess() {
+        succeeded.incrementAndGet();
+        lock.lock();
+        try {
+            if (state != State.CLOSED) log.info("Crawler call succeeded, closing circuit");
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            probeInFlight = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onFailure(String operation, RuntimeException e) {
+        failed.incrementAndGet();
+        lock.lock();
+        try {
+            consecutiveFailures++;
+            probeInFlight = false;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                log.warn("Crawler {} failed ({} consecutive failures), opening circuit for {} ms: {}",
+                        operation, consecutiveFailures, TimeUnit.NANOSECONDS.toMillis(openNanos), e.toString());
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("poster.crawler.circuit.state", this, g -> g.state().ordinal())
+                .description("Crawler circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(registry);
+        Gauge.builder("poster.crawler.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .description("Free crawler call slots")
+                .register(registry);
+        callCounter(registry, "success", succeeded);
+        callCounter(registry, "failure", failed);
+        callCounter(registry, "bulkhead_rejected", bulkheadRejected);
+        callCounter(registry, "circuit_rejected", circuitRejected);
+    }
+
+    private static void callCounter(MeterRegistry registry, String outcome, AtomicLong count) {
+        FunctionCounter.builder("poster.crawler.calls", count, AtomicLong::get)
+                .description("Crawler calls by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -0,0 +1,20 @@
+package com.megagastro.poster.client;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Crawler çağrısı yapılamadığında (devre açık, bulkhead dolu) ya da başarısız olduğunda
+ * (zaman aşımı, bağlantı hatası, 5xx) fırlatılır. Yedek veri yoksa istemci 503 alır.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class CrawlerUnavailableException extends RuntimeException {
+
+    public CrawlerUnavailableException(String message) {
+        super(message);
+    }
+
+    public CrawlerUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,163 @@
+package com.megagastro.poster.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.model.ProductSource;
+import com.megagastro.poster.util.ProductIdentity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Crawler JSON'unu akış halinde okuyup doğrudan Product'a çevirir.
+ * - Ara DTO listesi yok; her ürün okunduğu anda hedefe (katalog listesi/map) verilir
+ * - Kategori adları tek örnek olarak paylaşılır (binlerce ürün aynı birkaç adı taşır)
+ * - ID kanonik URL'den türetilir (ProductIdentity); fiyat değişince ID değişmez
+ */
+public final class RemoteProductReader {
+
+    private static final Logger log = LoggerFactory.getLogger(RemoteProductReader.class);
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    // Kategori sayısı küçük; yenilemeler arasında da aynı örnekler kullanılsın
+    private static final int MAX_INTERNED = 4096;
+
+    private final Map<String, String> categories = new ConcurrentHashMap<>();
+
+    /**
+     * Düz ürün dizisi ([{...}, ...]) okur.
+     */
+    public void readArray(InputStream in, Consumer<Product> sink) throws IOException {
+        try (JsonParser parser = JSON.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected JSON array of products");
+            }
+            readProducts(parser, sink);
+        }
+    }
+
+    /**
+     * /products/changes cevabı; upserts ürünleri geldikçe sink'e verilir.
+     */
+    public Changes readChanges(InputStream in, Consumer<Product> upserts, Consumer<String> removed) throws IOException {
+        String etag = null;
+        boolean full = false;
+        try (JsonParser parser = JSON.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected JSON object for product changes");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "etag" -> etag = parser.getValueAsString();
+                    case "full" -> full = parser.getValueAsBoolean();
+                    case "upserts" -> {
+                        if (value == JsonToken.START_ARRAY) readProducts(parser, upserts);
+                        else parser.skipChildren();
+                    }
+                    case "removed" -> {
+                        if (value == JsonToken.START_ARRAY) {
+                            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                                String key = parser.getValueAsString();
+                                if (key != null) removed.accept(key);
+                                else parser.skipChildren();
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return new Changes(etag, full);
+    }
+
+    public record Changes(String etag, boolean full) {
+    }
+
+    /**
+     * Dizinin sonuna kadar okur. null ya da nesne olmayan elemanlar atlanır; dizinin kalanı okunmaya devam eder.
+     */
+    private void readProducts(JsonParser parser, Consumer<Product> sink) throws IOException {
+        int skipped = 0;
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+            if (token == null) {
+                throw new IOException("Unexpected end of product array");
+            }
+            if (token == JsonToken.START_OBJECT) {
+                sink.accept(readProduct(parser));
+            } else {
+                parser.skipChildren();
+                skipped++;
+            }
+        }
+        if (skipped > 0) {
+            log.warn("Skipped {} null or non-object product entries in crawler response", skipped);
+        }
+    }
+
+    /**
+     * Alan adları Jackson tarafından kanonikleştirildiği için switch ek string üretmez.
+     * Normalizasyon eski mapToProduct ile aynıdır.
+     */
+    private Product readProduct(JsonParser parser) throws IOException {
+        String name = null;
+        String url = null;
+        String imageUrl = null;
+        String category = null;
+        double current = 0;
+        double original = 0;
+        int discount = 0;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "name" -> name = parser.getValueAsString();
+                case "url" -> url = parser.getValueAsString();
+                case "image_url" -> imageUrl = parser.getValueAsString();
+                case "price_current" -> current = parser.getValueAsDouble();
+                case "price_original" -> original = parser.getValueAsDouble();
+                case "discount_pct" -> discount = parser.getValueAsInt();
+                case "category" -> category = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (url == null) url = "";
+        if (name == null) name = "";
+
+        return Product.builder()
+                .id(ProductIdentity.remoteId(url, name, imageUrl))
+                .name(name)
+                .url(url)
+                .imageUrl(imageUrl)
+                .priceCurrent(current)
+                .priceOriginal(original > 0 ? original : current)
+                .discountPct(discount > 0 ? discount : 0)
+                .source(ProductSource.REMOTE)
+                .category(category != null && !category.isBlank() ? intern(categories, category) : "Diğer")
+                .build();
+    }
+
+    /**
+     * Tablo dolarsa yeni değerler paylaşılmadan kullanılır; sınırsız büyümesin.
+     */
+    private static String intern(Map<String, String> table, String value) {
+        String existing = table.get(value);
+        if (existing != null) return existing;
+        if (table.size() >= MAX_INTERNED) return value;
+        existing = table.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+}
@@ -1,27 +1,151 @@
 package com.megagastro.poster.config;
 
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.megagastro.poster.client.CrawlerGuard;
+import com.megagastro.poster.client.CrawlerUnavailableException;
+import com.megagastro.poster.service.RemoteProductService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Crawler cache'leri refresh-ahead çalışır:
+ * - refresh-after dolunca ilk erişim eski değeri hemen alır, yenileme arka planda yapılır
+ * - Aynı anahtar için aynı anda tek yükleme/yenileme olur (Caffeine single-flight)
+ * - Yenileme başarısız olursa eski değer expire-after dolana kadar servis edilir
+ * - Cache'ler async: aynı anahtarı isteyen istek thread'leri kilit değil future bekler
+ *   (virtual thread'ler carrier'a sabitlenmez)
+ * - İlk yükleme (cache'te değer yok, istek bekliyor) crawlerLoadExecutor'da, arka plan yenilemesi
+ *   crawlerRefreshExecutor'da yapılır; uzun süren yenilemeler soğuk yüklemeleri kuyrukta bekletmez
+ * - Crawler devresi açıkken yenileme başlatılmaz (iptal edilmiş sayılır), eski değer kalır
+ */
 @Configuration
 public class CacheConfig {
 
+    public static final String REMOTE_PRODUCTS = "remoteProducts";
+    public static final String REMOTE_CATEGORIES = "remoteCategories";
+
+    /**
+     * Crawler cache'lerinin arka plan yenilemeleri (bloklayan WebClient.block() çağrıları) burada çalışır.
+     * Virtual thread modunda (spring.threads.virtual.enabled, Java 21+) thread'ler virtual olur;
+     * havuz boyutu yine de aynı anda süren yenileme sayısını sınırlar.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService crawlerRefreshExecutor(@Value("${crawler.cache.refresh-threads:4}") int threads,
+                                                  Environment environment) {
+        return Executors.newFixedThreadPool(Math.max(1, threads), threadFactory("crawler-refresh-", environment));
+    }
+
+    /**
+     * Cache'te değeri olmayan anahtarların yüklemesi; bunları bekleyen istekler vardır.
+     * Virtual thread modunda her yükleme kendi virtual thread'inde çalışır, havuz yoktur.
+     * Platform modunda refresh havuzundan ayrı, load-threads'lik bir havuzdur.
+     * Crawler'a aynı anda giden çağrı sayısını her iki modda da CrawlerGuard'ın bulkhead'i sınırlar.
+     */
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager mgr = new CaffeineCacheManager(
-                "remoteProducts",
-                "remoteCategories"
-        );
+    public Executor crawlerLoadExecutor(@Value("${crawler.cache.load-threads:8}") int threads,
+                                        Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor("crawler-load-");
+        }
+        return Executors.newFixedThreadPool(Math.max(1, threads), threadFactory("crawler-load-", environment));
+    }
 
+    @Bean
+    public CacheManager cacheManager(ObjectProvider<RemoteProductService> remoteProductService,
+                                     CrawlerGuard crawlerGuard,
+                                     @Qualifier("crawlerLoadExecutor") Executor crawlerLoadExecutor,
+                                     @Qualifier("crawlerRefreshExecutor") ExecutorService crawlerRefreshExecutor,
+                                     @Value("${crawler.cache.products.refresh-after:PT5M}") Duration productsRefresh,
+                                     @Value("${crawler.cache.products.expire-after:PT1H}") Duration productsExpire,
+                                     @Value("${crawler.cache.categories.refresh-after:PT30M}") Duration categoriesRefresh,
+                                     @Value("${crawler.cache.categories.expire-after:PT12H}") Duration categoriesExpire) {
+        CaffeineCacheManager mgr = new CaffeineCacheManager();
+
+        // recordStats: isabet/ıskalama/yükleme istatistikleri actuator ile /actuator/prometheus'ta yayınlanır
         mgr.setCaffeine(Caffeine.newBuilder()
                 .expireAfterWrite(Duration.ofMinutes(5))
-                .maximumSize(1000));
+                .maximumSize(1000)
+                .recordStats());
+
+        // RemoteProductService cache proxy'si bu bean'e bağlı; döngü olmasın diye loader onu ilk yüklemede çözer
+        CacheLoader<Object, Object> productsLoader = key ->
+                remoteProductService.getObject().loadProducts(RemoteProductService.ALL_KEY.equals(key) ? null : (String) key);
+        CacheLoader<Object, Object> categoriesLoader = key ->
+                remoteProductService.getObject().loadCategories();
+
+        mgr.registerCustomCache(REMOTE_PRODUCTS, Caffeine.newBuilder()
+                .refreshAfterWrite(productsRefresh)
+                .expireAfterWrite(productsExpire)
+                .maximumSize(1000)
+                .executor(crawlerLoadExecutor)
+                .recordStats()
+                .buildAsync(reloadOn(crawlerRefreshExecutor, crawlerGuard, "products", productsLoader)));
+        mgr.registerCustomCache(REMOTE_CATEGORIES, Caffeine.newBuilder()
+                .refreshAfterWrite(categoriesRefresh)
+                .expireAfterWrite(categoriesExpire)
+                .maximumSize(10)
+                .executor(crawlerLoadExecutor)
+                .recordStats()
+                .buildAsync(reloadOn(crawlerRefreshExecutor, crawlerGuard, "categories", categoriesLoader)));
 
         return mgr;
     }
+
+    /**
+     * Yüklemeler cache'in executor'ında, yenilemeler refreshExecutor'da.
+     * Devre açıksa yenileme crawler'a gitmeden iptal edilmiş future döner: Caffeine iptali hata saymaz
+     * (loglamaz), eski değer expire-after dolana kadar kalır ve sonraki erişim yenilemeyi yeniden dener.
+     */
+    static AsyncCacheLoader<Object, Object> reloadOn(Executor refreshExecutor, CrawlerGuard crawlerGuard,
+                                                     String operation, CacheLoader<Object, Object> loader) {
+        return new AsyncCacheLoader<>() {
+            @Override
+            public CompletableFuture<?> asyncLoad(Object key, Executor executor) throws Exception {
+                return loader.asyncLoad(key, executor);
+            }
+
+            @Override
+            public CompletableFuture<?> asyncReload(Object key, Object oldValue, Executor executor)
+                    throws Exception {
+                try {
+                    crawlerGuard.checkCircuit(operation);
+                } catch (CrawlerUnavailableException e) {
+                    CompletableFuture<Object> skipped = new CompletableFuture<>();
+                    skipped.cancel(false);
+                    return skipped;
+                }
+                return loader.asyncReload(key, oldValue, refreshExecutor);
+            }
+        };
+    }
+
+    private static ThreadFactory threadFactory(String prefix, Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
 }
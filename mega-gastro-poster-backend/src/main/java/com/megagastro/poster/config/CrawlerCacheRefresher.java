@@ -0,0 +1,93 @@
+package com.megagastro.poster.config;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.megagastro.poster.client.CrawlerGuard;
+import com.megagastro.poster.client.CrawlerUnavailableException;
+import com.megagastro.poster.service.RemoteProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Sık kullanılan crawler anahtarlarını (tüm ürünler, kategori listesi) erişim beklemeden yeniler.
+ * Açılışta cache'ler arka planda doldurulur; böylece ilk istek de crawl beklemez.
+ * Diğer anahtarlar (kategori filtreli ürünler) erişildikçe refreshAfterWrite ile yenilenir.
+ */
+@Component
+public class CrawlerCacheRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(CrawlerCacheRefresher.class);
+
+    private final CacheManager cacheManager;
+    private final CrawlerGuard crawlerGuard;
+
+    public CrawlerCacheRefresher(CacheManager cacheManager, CrawlerGuard crawlerGuard) {
+        this.cacheManager = cacheManager;
+        this.crawlerGuard = crawlerGuard;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refreshProducts();
+        refreshCategories();
+    }
+
+    @Scheduled(fixedDelayString = "${crawler.cache.products.refresh-after:PT5M}",
+            initialDelayString = "${crawler.cache.products.refresh-after:PT5M}")
+    public void refreshProducts() {
+        refresh(CacheConfig.REMOTE_PRODUCTS, RemoteProductService.ALL_KEY, "products");
+    }
+
+    @Scheduled(fixedDelayString = "${crawler.cache.categories.refresh-after:PT30M}",
+            initialDelayString = "${crawler.cache.categories.refresh-after:PT30M}")
+    public void refreshCategories() {
+        // fetchRemoteCategories() parametresiz; Spring'in varsayılan anahtarı SimpleKey.EMPTY
+        refresh(CacheConfig.REMOTE_CATEGORIES, SimpleKey.EMPTY, "categories");
+    }
+
+    /**
+     * Değer varsa yenilenir; yenileme zaten sürüyorsa Caffeine aynı future'ı döner.
+     * Değer yoksa normal yükleme yapılır ki aynı anda gelen istekler bu yüklemeyi beklesin.
+     * Yükleme cache'in executor'ında yapılır; bu metot beklemez. Hata olursa eski değer cache'te kalır.
+     * Devre açıksa hiç başlatılmaz.
+     */
+    @SuppressWarnings("unchecked")
+    private void refresh(String cacheName, Object key, String operation) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (!(cache instanceof CaffeineCache caffeineCache)
+                || !(caffeineCache.getAsyncCache() instanceof AsyncLoadingCache<?, ?> asyncCache)) {
+            return;
+        }
+        try {
+            crawlerGuard.checkCircuit(operation);
+        } catch (CrawlerUnavailableException e) {
+            log.warn("Background refresh of {} skipped, serving cached value: {}", cacheName, e.getMessage());
+            return;
+        }
+        AsyncLoadingCache<Object, Object> loadingCache = (AsyncLoadingCache<Object, Object>) asyncCache;
+        CompletableFuture<Object> future = loadingCache.getIfPresent(key) != null
+                ? loadingCache.synchronous().refresh(key)
+                : loadingCache.get(key);
+        future.whenComplete((value, e) -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof CrawlerUnavailableException && cause.getCause() == null) {
+                // Devre açık ya da bulkhead dolu: crawler'a gidilmedi, stack trace bilgi taşımaz
+                log.warn("Background refresh of {} skipped, serving cached value: {}", cacheName, cause.getMessage());
+            } else if (cause != null) {
+                log.warn("Background refresh of {} failed, serving cached value", cacheName, cause);
+            } else {
+                log.debug("Refreshed {} ({})", cacheName, key);
+            }
+        });
+    }
+}
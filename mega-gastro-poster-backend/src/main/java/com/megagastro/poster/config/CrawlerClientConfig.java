@@ -0,0 +1,35 @@
+package com.megagastro.poster.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+
+/**
+ * Crawler'a giden tüm çağrıların ortak WebClient'ı.
+ * connect-timeout bağlantının kurulmasını, response-timeout cevabın gelmesini ve cevap okunurken
+ * iki paket arasındaki sessizliği sınırlar; crawler asılı kalırsa çağrı bu süre sonunda hata verir.
+ * Crawler cevabı ancak tarama bitince yazdığı için response-timeout tam bir taramadan uzun olmalıdır.
+ */
+@Configuration
+public class CrawlerClientConfig {
+
+    @Bean
+    public WebClient crawlerWebClient(WebClient.Builder webClientBuilder,
+                                      @Value("${crawler.base-url}") String crawlerBaseUrl,
+                                      @Value("${crawler.connect-timeout:PT3S}") Duration connectTimeout,
+                                      @Value("${crawler.response-timeout:PT2M}") Duration responseTimeout) {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout);
+        return webClientBuilder
+                .baseUrl(crawlerBaseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.megagastro.poster.config;
+
+import com.megagastro.poster.model.CatalogSnapshot;
+import com.megagastro.poster.render.PdfRenderEngine;
+import com.megagastro.poster.service.CatalogService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * /actuator/prometheus'ta yayınlanan gauge'lar. Aşama süreleri PosterMetrics'te, cache
+ * istatistikleri ise cache'lerin kendisinde (CacheManager cache'leri actuator tarafından) bağlanır.
+ * Gauge'lar sadece scrape anında okunur; crawler'a gitmez, son kurulan snapshot kullanılır.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder renderQueueMetrics(PdfRenderEngine renderEngine) {
+        return registry -> {
+            Gauge.builder("poster.render.queue.depth", renderEngine, PdfRenderEngine::queueDepth)
+                    .description("PDF renders waiting for a worker")
+                    .register(registry);
+            Gauge.builder("poster.render.active", renderEngine, PdfRenderEngine::activeRenders)
+                    .description("PDF renders in progress")
+                    .register(registry);
+            Gauge.builder("poster.render.workers", renderEngine, PdfRenderEngine::poolSize)
+                    .description("PDF render worker threads")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder catalogMetrics(CatalogService catalogService) {
+        return registry -> {
+            Gauge.builder("poster.catalog.products", catalogService, c -> c.lastSnapshot().remoteProducts().size())
+                    .description("Products in the current catalog snapshot")
+                    .tag("source", "remote")
+                    .register(registry);
+            Gauge.builder("poster.catalog.products", catalogService, c -> {
+                        CatalogSnapshot snapshot = c.lastSnapshot();
+                        return snapshot.size() - snapshot.remoteProducts().size();
+                    })
+                    .description("Products in the current catalog snapshot")
+                    .tag("source", "custom")
+                    .register(registry);
+            Gauge.builder("poster.catalog.categories", catalogService, c -> c.lastSnapshot().categories().size())
+                    .description("Distinct categories in the current catalog snapshot")
+                    .register(registry);
+            Gauge.builder("poster.catalog.version", catalogService, c -> c.lastSnapshot().version())
+                    .description("Version of the current catalog snapshot; increases on every rebuild")
+                    .register(registry);
+        };
+    }
+}
@@ -1,17 +1,32 @@
 package com.megagastro.poster.controller;
 
+import com.megagastro.poster.dto.BatchPosterRequest;
+import com.megagastro.poster.dto.BrochureRequest;
+import com.megagastro.poster.dto.DealSelectionRequest;
+import com.megagastro.poster.dto.PosterJobDto;
 import com.megagastro.poster.dto.PosterRequest;
+import com.megagastro.poster.model.PosterJob;
+import com.megagastro.poster.model.PosterJobStatus;
 import com.megagastro.poster.model.Product;
+import com.megagastro.poster.service.BatchPosterService;
+import com.megagastro.poster.service.DealSelectionService;
+import com.megagastro.poster.service.PosterJobService;
 import com.megagastro.poster.service.PosterService;
 import com.megagastro.poster.service.ProductService;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/poster")
@@ -20,34 +35,115 @@ public class PosterController {
 
     private final PosterService posterService;
     private final ProductService productService;
+    private final PosterJobService posterJobService;
+    private final BatchPosterService batchPosterService;
+    private final DealSelectionService dealSelectionService;
+    private final int maxBrochureProducts;
 
-    public PosterController(PosterService posterService, ProductService productService) {
+    public PosterController(PosterService posterService,
+                            ProductService productService,
+                            PosterJobService posterJobService,
+                            BatchPosterService batchPosterService,
+                            DealSelectionService dealSelectionService,
+                            @Value("${poster.brochure.max-products:1000}") int maxBrochureProducts) {
         this.posterService = posterService;
         this.productService = productService;
+        this.posterJobService = posterJobService;
+        this.batchPosterService = batchPosterService;
+        this.dealSelectionService = dealSelectionService;
+        this.maxBrochureProducts = maxBrochureProducts;
     }
 
     @PostMapping
     public ResponseEntity<byte[]> createPoster(@Valid @RequestBody PosterRequest request) {
-        List<Product> selectedProducts = request.getProductIds().stream()
-                .map(productService::findById)
-                .filter(java.util.Optional::isPresent)
-                .map(java.util.Optional::get)
-                .collect(Collectors.toList());
-
-        // Maksimum 9 ürün
-        int count = request.getCount() != null ? Math.min(request.getCount(), 9) : 9;
-        // Eğer productIds 9'dan fazlaysa, sadece ilk 9'unu al
-        if (selectedProducts.size() > 9) {
-            selectedProducts = selectedProducts.subList(0, 9);
-        }
-        String title = request.getTitle() != null ? request.getTitle() : "Haftanın Fırsatları";
+        List<Product> selectedProducts = productService.findAllById(request.getProductIds());
+
+        byte[] pdf = posterService.renderPoster(request, selectedProducts);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"poster.pdf\"")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(pdf);
+    }
 
-        String html = posterService.buildPosterHtml(title, selectedProducts, count);
-        byte[] pdf = posterService.renderPdf(html);
+    /**
+     * Ürünleri sunucu seçer (indirim, fiyat bandı, kategori kotası); istemci katalogu indirmez.
+     */
+    @PostMapping("/deals")
+    public ResponseEntity<byte[]> createDealsPoster(@Valid @RequestBody DealSelectionRequest request) {
+        byte[] pdf = dealSelectionService.renderPoster(request);
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"poster.pdf\"")
                 .contentType(MediaType.APPLICATION_PDF)
                 .body(pdf);
     }
+
+    /**
+     * Çok sayfalı broşür; PDF render edilirken doğrudan yanıt stream'ine yazılır.
+     */
+    @PostMapping("/brochure")
+    public ResponseEntity<StreamingResponseBody> createBrochure(@Valid @RequestBody BrochureRequest request) {
+        Map<String, Product> selected = new LinkedHashMap<>();
+        for (Product p : productService.findAllById(request.getProductIds())) {
+            selected.putIfAbsent(p.getId(), p);
+        }
+        for (Product p : productService.findByCategories(request.getCategories())) {
+            selected.putIfAbsent(p.getId(), p);
+        }
+        List<Product> products = selected.values().stream().limit(maxBrochureProducts).toList();
+
+        StreamingResponseBody body = out -> posterService.renderBrochure(request.getTitle(), products, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"brochure.pdf\"")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(body);
+    }
+
+    /**
+     * Birden fazla poster; paralel render edilir, her PDF bittiği anda ZIP yanıtına yazılır.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<StreamingResponseBody> createPosterBatch(@Valid @RequestBody BatchPosterRequest request) {
+        List<BatchPosterService.PreparedPoster> posters = batchPosterService.prepare(request);
+
+        StreamingResponseBody body = out -> batchPosterService.writeZip(posters, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"posters.zip\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<PosterJobDto> createPosterJob(@Valid @RequestBody PosterRequest request) {
+        PosterJob job = posterJobService.submit(request);
+        return ResponseEntity
+                .accepted()
+                .location(URI.create("/api/poster/jobs/" + job.getId()))
+                .body(PosterJobDto.from(job));
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<PosterJobDto> getPosterJob(@PathVariable("id") String id) {
+        return posterJobService.find(id)
+                .map(job -> ResponseEntity.ok(PosterJobDto.from(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/jobs/{id}/pdf")
+    public ResponseEntity<Resource> downloadPosterJob(@PathVariable("id") String id) {
+        PosterJob job = posterJobService.find(id).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getStatus() != PosterJobStatus.DONE) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return posterJobService.findResult(id)
+                .map(pdf -> ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"poster.pdf\"")
+                        .contentType(MediaType.APPLICATION_PDF)
+                        .body(pdf))
+                .orElse(ResponseEntity.status(HttpStatus.GONE).build());
+    }
 }
@@ -2,15 +2,33 @@ package com.megagastro.poster.controller;
 
 import com.megagastro.poster.dto.CategoryDto;
 import com.megagastro.poster.dto.CreateCustomProductRequest;
+import com.megagastro.poster.dto.DealSelectionRequest;
+import com.megagastro.poster.dto.PriceDropDto;
+import com.megagastro.poster.dto.PriceTrendDto;
+import com.megagastro.poster.dto.ProductListQuery;
+import com.megagastro.poster.dto.ProductPage;
+import com.megagastro.poster.model.CatalogSnapshot;
 import com.megagastro.poster.model.Product;
 import com.megagastro.poster.model.ProductSource;
 import com.megagastro.poster.service.CategoryService;
+import com.megagastro.poster.service.DealSelectionService;
+import com.megagastro.poster.service.PriceHistoryService;
+import com.megagastro.poster.service.ProductListingService;
+import com.megagastro.poster.service.ProductSearchService;
 import com.megagastro.poster.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -20,6 +38,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/products")
@@ -29,16 +48,110 @@ public class ProductController {
 
     private final ProductService productService;
     private final CategoryService categoryService;
+    private final PriceHistoryService priceHistoryService;
+    private final DealSelectionService dealSelectionService;
+    private final ProductListingService productListingService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/search")
-    public List<Product> search(@RequestParam("q") String query) { return productService.searchProducts(query); }
+    public List<Product> search(@RequestParam("q") String query,
+                                @RequestParam(value = "limit", defaultValue = "" + ProductSearchService.DEFAULT_LIMIT) int limit) {
+        return productService.searchProducts(query, limit);
+    }
 
+    /**
+     * Ürün listesi (JSON dizi). Parametresiz çağrı eskisi gibi tüm ürünleri döner.
+     * - category / source / minDiscount ile filtre, fields ile sadece istenen alanlar
+     * - limit verilirse imleçli sayfalama; sonraki sayfa Link ve X-Next-Cursor header'larında
+     * - ETag katalog versiyonundan gelir; katalog değişmediyse If-None-Match ile 304 döner
+     *
+     * Tomcat strong ETag'li yanıtları sıkıştırmadığı için gzip burada yapılır;
+     * gzip'li gövdenin ETag'i "-gzip" ekiyle ayrılır.
+     */
     @GetMapping
-    public List<Product> getAll() { return productService.getAllProducts();}
+    public ResponseEntity<StreamingResponseBody> getAll(@RequestParam(value = "category", required = false) List<String> categories,
+                                                        @RequestParam(value = "source", required = false) ProductSource source,
+                                                        @RequestParam(value = "minDiscount", required = false) Integer minDiscount,
+                                                        @RequestParam(value = "fields", required = false) List<String> fields,
+                                                        @RequestParam(value = "cursor", required = false) String cursor,
+                                                        @RequestParam(value = "limit", required = false) Integer limit,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                        WebRequest webRequest,
+                                                        HttpServletResponse servletResponse) {
+        CatalogSnapshot snapshot = productService.snapshot();
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = productService.etag(snapshot);
+        if (gzip) etag = etag.substring(0, etag.length() - 1) + "-gzip\"";
+        servletResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        ProductPage page;
+        try {
+            page = productListingService.list(snapshot,
+                    new ProductListQuery(categories, source, minDiscount, fields, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (page.nextCursor() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.nextCursor())
+                    .build().toUriString();
+            response.header("X-Next-Cursor", page.nextCursor())
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        if (!gzip) {
+            return response.body(out -> objectMapper.writeValue(out, page.items()));
+        }
+        StreamingResponseBody body = out -> {
+            try (GZIPOutputStream gz = new GZIPOutputStream(out, 8192)) {
+                objectMapper.writeValue(gz, page.items());
+            }
+        };
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body);
+    }
+
+    /**
+     * Accept-Encoding'de gzip var ve q=0 ile reddedilmemiş mi?
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) continue;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.matches("q=0(\\.0*)?")) return false;
+            }
+            return true;
+        }
+        return false;
+    }
 
     @GetMapping("/categories")
     public List<CategoryDto> categories(){ return categoryService.getAllCategories(); }
 
+    /**
+     * Poster için sunucu tarafında seçilen ürünler (önizleme); tüm listeyi indirmeye gerek kalmaz.
+     */
+    @PostMapping("/deals")
+    public List<Product> deals(@Valid @RequestBody DealSelectionRequest request) {
+        return dealSelectionService.select(request);
+    }
+
+    @GetMapping("/{id}/price-history")
+    public ResponseEntity<PriceTrendDto> priceHistory(@PathVariable("id") String id,
+                                                      @RequestParam(value = "days", defaultValue = "30") int days) {
+        return ResponseEntity.of(priceHistoryService.trend(id, days));
+    }
+
+    @GetMapping("/price-drops")
+    public List<PriceDropDto> priceDrops(@RequestParam(value = "days", defaultValue = "7") int days,
+                                         @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return priceHistoryService.biggestDrops(days, limit);
+    }
+
     @PostMapping
     public ResponseEntity<Product> createCustom(@Valid @RequestBody CreateCustomProductRequest request) {
         Product saved = productService.createCustomProduct(request);
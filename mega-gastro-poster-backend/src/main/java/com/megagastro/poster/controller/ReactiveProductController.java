@@ -0,0 +1,91 @@
+package com.megagastro.poster.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.megagastro.poster.dto.CategoryDto;
+import com.megagastro.poster.dto.ProductListQuery;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.model.ProductSource;
+import com.megagastro.poster.service.CategoryService;
+import com.megagastro.poster.service.ProductListingService;
+import com.megagastro.poster.service.ProductSearchService;
+import com.megagastro.poster.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Ürün, kategori ve arama için reaktif (Flux/Mono) endpoint'ler.
+ * Crawler listesi cache'ten bloklamadan alınır; cache boşsa yükleme crawler executor'ında yapılır ve
+ * istek thread'i bu sırada serbest kalır. Crawler listesi ve custom ürünler aynı anda istenir.
+ * Ürün listesi NDJSON olarak parça parça yazılır; liste bellekte toplanmadığı için bağlantı başına
+ * bellek katalog boyutundan bağımsızdır.
+ */
+@RestController
+@RequestMapping("/api/reactive/products")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class ReactiveProductController {
+
+    // Spring MVC her Flux elemanını ayrı yazıp flush eder; ürün başına flush yerine bu kadar ürün bir arada
+    private static final int NDJSON_CHUNK = 256;
+
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final ProductListingService productListingService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * GET /api/products ile aynı filtreler ve alan seçimi; sayfalama yerine akış.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<byte[]> products(@RequestParam(value = "category", required = false) List<String> categories,
+                                 @RequestParam(value = "source", required = false) ProductSource source,
+                                 @RequestParam(value = "minDiscount", required = false) Integer minDiscount,
+                                 @RequestParam(value = "fields", required = false) List<String> fields) {
+        ProductListQuery query = new ProductListQuery(categories, source, minDiscount, fields, null, null);
+        ObjectWriter writer = objectMapper.writer();
+        return productService.snapshotReactive()
+                .flatMapMany(snapshot -> productListingService.stream(snapshot, query))
+                .buffer(NDJSON_CHUNK)
+                .map(chunk -> ndjson(writer, chunk))
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e));
+    }
+
+    @GetMapping("/search")
+    public Mono<List<Product>> search(@RequestParam("q") String query,
+                                      @RequestParam(value = "limit", defaultValue = "" + ProductSearchService.DEFAULT_LIMIT) int limit) {
+        return productService.searchProductsReactive(query, limit);
+    }
+
+    @GetMapping("/categories")
+    public Mono<List<CategoryDto>> categories() {
+        return categoryService.getAllCategoriesReactive();
+    }
+
+    /**
+     * Ürünleri satır satır JSON'a çevirir. Son satırdan sonraki "\n"'i Spring her elemandan sonra kendisi yazar.
+     */
+    private static byte[] ndjson(ObjectWriter writer, List<Object> chunk) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(chunk.size() * 256);
+        try {
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) out.write('\n');
+                writer.writeValue(out, chunk.get(i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,51 @@
+package com.megagastro.poster.dto;
+
+import com.megagastro.poster.model.PosterLayout;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Toplu poster isteği: açıkça verilen poster listesi ve/veya her kategori için bir poster.
+ * allCategories seçilirse title kategori adının önüne eklenir, count tüm kategori posterlerine uygulanır.
+ * layout posterde ayrıca verilmediyse tüm posterlere uygulanır (boşsa A4).
+ */
+@Getter
+@Setter
+public class BatchPosterRequest {
+
+    @Valid
+    private List<Spec> posters;
+    private boolean allCategories;
+    private String title;
+    private Integer count;
+    private PosterLayout layout;
+
+    @AssertTrue(message = "posters or allCategories must be given")
+    public boolean isSelectionPresent() {
+        return allCategories || (posters != null && !posters.isEmpty());
+    }
+
+    /**
+     * Tek poster: ürün ID'leri (ilk 9'u, tekli poster ile aynı) veya kategoriler (en iyi fırsatlar seçilir).
+     */
+    @Getter
+    @Setter
+    public static class Spec {
+
+        private String fileName;
+        private String title;
+        private Integer count;
+        private PosterLayout layout;
+        private List<String> productIds;
+        private List<String> categories;
+
+        @AssertTrue(message = "productIds or categories must be given")
+        public boolean isSelectionPresent() {
+            return (productIds != null && !productIds.isEmpty()) || (categories != null && !categories.isEmpty());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.megagastro.poster.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Çok sayfalı broşür isteği: ya ürün ID'leri ya da kategori (isim veya key) listesi.
+ */
+@Getter
+@Setter
+public class BrochureRequest {
+
+    private List<String> productIds;
+    private List<String> categories;
+    private String title;
+
+    @AssertTrue(message = "productIds or categories must be given")
+    public boolean isSelectionPresent() {
+        return (productIds != null && !productIds.isEmpty()) || (categories != null && !categories.isEmpty());
+    }
+}
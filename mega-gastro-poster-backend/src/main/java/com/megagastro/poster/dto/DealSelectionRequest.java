@@ -0,0 +1,68 @@
+package com.megagastro.poster.dto;
+
+import com.megagastro.poster.model.PosterLayout;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Otomatik "en iyi fırsatlar" seçimi: ürünler sunucuda, tüm katalog üzerinden seçilir.
+ * Boş bırakılan kurallar uygulanmaz; kategori verilmezse tüm katalog kullanılır.
+ */
+@Getter
+@Setter
+public class DealSelectionRequest {
+
+    /**
+     * Kategori adları veya key'leri (slug).
+     */
+    private List<String> categories;
+
+    @Min(1)
+    @Max(9)
+    private Integer count;
+
+    @Min(0)
+    @Max(100)
+    private Integer minDiscount;
+
+    /**
+     * Fiyatın düşmesi gereken bantlar; herhangi birine düşmesi yeterli.
+     */
+    @Valid
+    private List<PriceBand> priceBands;
+
+    /**
+     * Aynı kategoriden en fazla kaç ürün seçilebilir.
+     */
+    @Min(1)
+    private Integer maxPerCategory;
+
+    private String title;
+
+    /**
+     * Sayfa düzeni; boşsa A4.
+     */
+    private PosterLayout layout;
+
+    @Getter
+    @Setter
+    public static class PriceBand {
+
+        @Min(0)
+        private Double min;
+
+        @Min(0)
+        private Double max;
+
+        @AssertTrue(message = "min must not be greater than max")
+        public boolean isOrdered() {
+            return min == null || max == null || min <= max;
+        }
+    }
+}
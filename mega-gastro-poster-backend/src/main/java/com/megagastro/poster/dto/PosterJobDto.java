@@ -0,0 +1,27 @@
+package com.megagastro.poster.dto;
+
+import com.megagastro.poster.model.PosterJob;
+import com.megagastro.poster.model.PosterJobStatus;
+
+import java.time.Instant;
+
+public record PosterJobDto(
+        String id,
+        PosterJobStatus status,
+        Instant createdAt,
+        Instant finishedAt,
+        long sizeBytes,
+        String error,
+        String pdfUrl
+) {
+    public static PosterJobDto from(PosterJob job) {
+        return new PosterJobDto(
+                job.getId(),
+                job.getStatus(),
+                job.getCreatedAt(),
+                job.getFinishedAt(),
+                job.getSizeBytes(),
+                job.getError(),
+                job.getStatus() == PosterJobStatus.DONE ? "/api/poster/jobs/" + job.getId() + "/pdf" : null);
+    }
+}
@@ -1,5 +1,6 @@
 package com.megagastro.poster.dto;
 
+import com.megagastro.poster.model.PosterLayout;
 import jakarta.validation.constraints.NotEmpty;
 
 import java.util.List;
@@ -13,6 +14,9 @@ public class PosterRequest {
 
     private Integer count;
 
+    // Boşsa A4
+    private PosterLayout layout;
+
     public List<String> getProductIds() {
         return productIds;
     }
@@ -36,6 +40,14 @@ public class PosterRequest {
     public void setCount(Integer count) {
         this.count = count;
     }
+
+    public PosterLayout getLayout() {
+        return layout;
+    }
+
+    public void setLayout(PosterLayout layout) {
+        this.layout = layout;
+    }
 }
 
 
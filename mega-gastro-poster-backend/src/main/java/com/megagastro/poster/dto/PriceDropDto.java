@@ -0,0 +1,13 @@
+package com.megagastro.poster.dto;
+
+import com.megagastro.poster.model.Product;
+
+/**
+ * Pencere içindeki en yüksek fiyattan güncel fiyata düşüş.
+ */
+public record PriceDropDto(
+        Product product,
+        double previousMaxPrice,
+        double currentPrice,
+        double dropPct
+) {}
@@ -0,0 +1,19 @@
+package com.megagastro.poster.dto;
+
+import com.megagastro.poster.repository.PriceHistoryStore;
+
+import java.util.List;
+
+/**
+ * Bir ürünün son N gündeki fiyat özeti ve değişim noktaları.
+ * lowestInWindow: güncel fiyat pencerenin en düşüğü (ör. "30 günün en düşük fiyatı").
+ */
+public record PriceTrendDto(
+        String productId,
+        int days,
+        double minPrice,
+        double maxPrice,
+        double currentPrice,
+        boolean lowestInWindow,
+        List<PriceHistoryStore.Point> points
+) {}
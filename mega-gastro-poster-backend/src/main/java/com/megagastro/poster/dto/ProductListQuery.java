@@ -0,0 +1,18 @@
+package com.megagastro.poster.dto;
+
+import com.megagastro.poster.model.ProductSource;
+
+import java.util.List;
+
+/**
+ * GET /api/products parametreleri; hepsi opsiyonel.
+ * limit verilmezse filtreye uyan tüm ürünler tek sayfada döner (eski davranış).
+ */
+public record ProductListQuery(
+        List<String> categories,
+        ProductSource source,
+        Integer minDiscount,
+        List<String> fields,
+        String cursor,
+        Integer limit
+) {}
@@ -0,0 +1,12 @@
+package com.megagastro.poster.dto;
+
+import java.util.List;
+
+/**
+ * Listeleme sayfası: items ya Product ya da sadece istenen alanları içeren map'lerdir.
+ * nextCursor null ise son sayfadır.
+ */
+public record ProductPage(
+        List<?> items,
+        String nextCursor
+) {}
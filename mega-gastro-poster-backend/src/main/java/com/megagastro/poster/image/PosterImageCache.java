@@ -0,0 +1,247 @@
+package com.megagastro.poster.image;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.megagastro.poster.util.ContentAddressedStore;
+import com.openhtmltopdf.extend.FSStream;
+import com.openhtmltopdf.extend.FSStreamFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.netty.http.client.HttpClient;
+import reactor.util.retry.Retry;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Poster görselleri için yerel cache.
+ * - Render öncesi seçili ürünlerin görselleri paralel indirilir
+ * - Orijinaller diskte içerik adresli, boyut sınırlı (LRU) tutulur
+ * - Poster boyutuna küçültülmüş halleri bellekte tutulur
+ * - openhtmltopdf http/https isteklerini buradan okur; tekrar eden posterlerde ağa çıkılmaz
+ * - İndirme connect/read timeout ile sınırlıdır; geçici hatalar (5xx, timeout, bağlantı) artan
+ *   beklemeyle birkaç kez denenir, 4xx denenmez. fetch-timeout tüm denemelerin üst sınırıdır.
+ */
+@Component
+public class PosterImageCache implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(PosterImageCache.class);
+
+    private final WebClient webClient;
+    private final ContentAddressedStore diskStore;
+    private final Cache<String, byte[]> variants;
+    private final Map<String, CompletableFuture<byte[]>> inflight = new ConcurrentHashMap<>();
+    private final ExecutorService ioExecutor;
+    private final int maxDimension;
+    private final Duration fetchTimeout;
+    private final Retry retry;
+
+    public PosterImageCache(WebClient.Builder webClientBuilder,
+                            @Value("${poster.images.cache-dir:cache/images}") String cacheDir,
+                            @Value("${poster.images.max-disk-size:512MB}") DataSize maxDiskSize,
+                            @Value("${poster.images.max-memory-size:64MB}") DataSize maxMemorySize,
+                            @Value("${poster.images.max-dimension:600}") int maxDimension,
+                            @Value("${poster.images.fetch-timeout:10s}") Duration fetchTimeout,
+                            @Value("${poster.images.connect-timeout:2s}") Duration connectTimeout,
+                            @Value("${poster.images.read-timeout:4s}") Duration readTimeout,
+                            @Value("${poster.images.retries:2}") int retries,
+                            @Value("${poster.images.retry-backoff:200ms}") Duration retryBackoff,
+                            @Value("${poster.images.concurrency:8}") int concurrency) {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        this.webClient = webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(c -> c.defaultCodecs().maxInMemorySize((int) DataSize.ofMegabytes(10).toBytes()))
+                .build();
+        this.diskStore = new ContentAddressedStore(Path.of(cacheDir), maxDiskSize.toBytes());
+        this.variants = Caffeine.newBuilder()
+                .maximumWeight(maxMemorySize.toBytes())
+                .weigher((String url, byte[] data) -> data.length)
+                .recordStats()
+                .build();
+        AtomicInteger counter = new AtomicInteger();
+        this.ioExecutor = Executors.newFixedThreadPool(Math.max(1, concurrency), r -> {
+            Thread t = new Thread(r, "poster-image-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.maxDimension = maxDimension;
+        this.fetchTimeout = fetchTimeout;
+        this.retry = Retry.backoff(Math.max(0, retries), retryBackoff)
+                .filter(PosterImageCache::isTransient)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // Etiketler CacheManager cache'leriyle aynı olmalı; Prometheus farklı etiket kümeli aynı metriği almaz
+        CaffeineCacheMetrics.monitor(registry, variants, "posterImages",
+                "cache.manager", "posterImageCache", "name", "posterImages");
+    }
+
+    /**
+     * Verilen görselleri paralel olarak hazırlar ve en yavaşı bitene kadar bekler.
+     * Başarısız olan görseller posteri engellemez; render sırasında boş kalır.
+     */
+    public void prefetch(Collection<String> urls) {
+        Set<String> unique = new LinkedHashSet<>();
+        for (String url : urls) {
+            if (isCacheable(url)) unique.add(url);
+        }
+        if (unique.isEmpty()) return;
+
+        CompletableFuture<?>[] futures = unique.stream()
+                .map(url -> load(url).exceptionally(e -> null))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(futures).get(fetchTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("Image prefetch did not complete in time", e);
+        }
+    }
+
+    /**
+     * Poster boyutundaki görsel; bellek -> disk -> ağ sırasıyla bakılır.
+     */
+    public byte[] get(String url) {
+        if (!isCacheable(url)) return null;
+        try {
+            return load(url).get(fetchTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Failed to load image {}", url, e);
+            return null;
+        }
+    }
+
+    public FSStreamFactory streamFactory() {
+        return url -> new CachedStream(get(url));
+    }
+
+    private CompletableFuture<byte[]> load(String url) {
+        byte[] cached = variants.getIfPresent(url);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        // Aynı URL için eşzamanlı istekler tek indirmeyi paylaşır
+        return inflight.computeIfAbsent(url, u -> CompletableFuture
+                .supplyAsync(() -> diskStore.read(u).orElse(null), ioExecutor)
+                .thenCompose(original -> original != null
+                        ? CompletableFuture.completedFuture(original)
+                        : download(u))
+                .thenApplyAsync(original -> {
+                    byte[] variant = downscale(original);
+                    variants.put(u, variant);
+                    return variant;
+                }, ioExecutor)
+                .whenComplete((v, e) -> inflight.remove(u)));
+    }
+
+    private CompletableFuture<byte[]> download(String url) {
+        return webClient.get()
+                .uri(URI.create(url))
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .retryWhen(retry)
+                .timeout(fetchTimeout)
+                .toFuture()
+                .thenApplyAsync(data -> {
+                    diskStore.write(url, data);
+                    return data;
+                }, ioExecutor);
+    }
+
+    /**
+     * Posterde ~140px yükseklikte basılan görseller için maxDimension yeterli.
+     * ImageIO'nun okuyamadığı formatlar (ör. webp) olduğu gibi bırakılır.
+     */
+    private byte[] downscale(byte[] original) {
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(original));
+            if (image == null) return original;
+            int w = image.getWidth();
+            int h = image.getHeight();
+            if (Math.max(w, h) <= maxDimension) return original;
+
+            double scale = (double) maxDimension / Math.max(w, h);
+            int tw = Math.max(1, (int) Math.round(w * scale));
+            int th = Math.max(1, (int) Math.round(h * scale));
+            boolean alpha = image.getColorModel().hasAlpha();
+
+            BufferedImage scaled = new BufferedImage(tw, th, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = scaled.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(image, 0, 0, tw, th, null);
+            } finally {
+                g.dispose();
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(original.length / 2);
+            ImageIO.write(scaled, alpha ? "png" : "jpg", out);
+            return out.size() < original.length ? out.toByteArray() : original;
+        } catch (IOException | RuntimeException e) {
+            return original;
+        }
+    }
+
+    private static boolean isTransient(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError();
+        }
+        // Bağlantı kurulamadı/koptu ya da read-timeout doldu
+        return e instanceof WebClientRequestException || e instanceof TimeoutException;
+    }
+
+    private static boolean isCacheable(String url) {
+        return url != null && (url.startsWith("http://") || url.startsWith("https://"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ioExecutor.shutdown();
+    }
+
+    private record CachedStream(byte[] data) implements FSStream {
+
+        @Override
+        public InputStream getStream() {
+            return data != null ? new ByteArrayInputStream(data) : null;
+        }
+
+        @Override
+        public Reader getReader() {
+            return data != null ? new InputStreamReader(getStream(), StandardCharsets.UTF_8) : null;
+        }
+    }
+}
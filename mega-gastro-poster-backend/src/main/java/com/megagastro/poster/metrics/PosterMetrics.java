@@ -0,0 +1,87 @@
+package com.megagastro.poster.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Poster hattının aşama süreleri (poster.stage.duration, stage etiketiyle) ve PDF boyutları.
+ * Histogramlar Prometheus'ta histogram_quantile ile okunabilsin diye bucket'lı yayınlanır;
+ * bucket aralığı aşamanın beklenen süresine göre ayarlıdır (HTML kurulumu mikro saniyeler,
+ * crawler ve PDF render yüzlerce milisaniye).
+ */
+@Component
+public class PosterMetrics {
+
+    public static final String STAGE_DURATION = "poster.stage.duration";
+    public static final String PDF_SIZE = "poster.pdf.size";
+
+    public enum Stage {
+        // Crawler'a giden isteğin tamamı (bağlantı, cevabı bekleme ve okuma dahil)
+        CRAWLER_FETCH("crawler_fetch", Duration.ofMillis(1), Duration.ofMinutes(2)),
+        // Crawler cevabının ürünlere çevrilmesi; ağdan veri beklenen süre hariç
+        DESERIALIZE("deserialize", Duration.ofNanos(100_000), Duration.ofMinutes(1)),
+        // Poster için istenen ürün ID'lerinin katalogda çözülmesi
+        ID_RESOLUTION("id_resolution", Duration.ofNanos(1_000), Duration.ofSeconds(10)),
+        HTML_BUILD("html_build", Duration.ofNanos(1_000), Duration.ofSeconds(10)),
+        // Worker üzerindeki render; kuyrukta bekleme hariç
+        PDF_RENDER("pdf_render", Duration.ofMillis(1), Duration.ofMinutes(2)),
+        // Render kuyruğunda bekleme
+        RENDER_QUEUE_WAIT("render_queue_wait", Duration.ofNanos(10_000), Duration.ofMinutes(1));
+
+        private final String tag;
+        private final Duration min;
+        private final Duration max;
+
+        Stage(String tag, Duration min, Duration max) {
+            this.tag = tag;
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    private final Map<Stage, Timer> timers = new EnumMap<>(Stage.class);
+    private final DistributionSummary pdfSize;
+
+    public PosterMetrics(MeterRegistry registry) {
+        for (Stage stage : Stage.values()) {
+            timers.put(stage, Timer.builder(STAGE_DURATION)
+                    .description("Duration of a poster pipeline stage")
+                    .tag("stage", stage.tag)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(stage.min)
+                    .maximumExpectedValue(stage.max)
+                    .register(registry));
+        }
+        this.pdfSize = DistributionSummary.builder(PDF_SIZE)
+                .description("Size of rendered PDF documents")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1024.0)
+                .maximumExpectedValue(64.0 * 1024 * 1024)
+                .register(registry);
+    }
+
+    public Timer timer(Stage stage) {
+        return timers.get(stage);
+    }
+
+    public <T> T record(Stage stage, Supplier<T> task) {
+        return timers.get(stage).record(task);
+    }
+
+    public void record(Stage stage, long nanos) {
+        timers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPdfSize(int bytes) {
+        pdfSize.record(bytes);
+    }
+}
@@ -0,0 +1,168 @@
+package com.megagastro.poster.model;
+
+import java.util.*;
+
+/**
+ * Katalogun belirli bir andaki değişmez görüntüsü.
+ * Crawler verisi her yenilendiğinde bir kez kurulur; ID, kategori ve kaynak
+ * index'lerini tutar. Okuyucular tek bir referans üzerinden tutarlı bir
+ * görünüm elde eder.
+ */
+public final class CatalogSnapshot {
+
+    public static final String DEFAULT_CATEGORY = "Diğer";
+
+    private static final CatalogSnapshot EMPTY =
+            new CatalogSnapshot(0, Collections.emptyList(), -1, Collections.emptyList());
+
+    private final long version;
+    private final List<Product> remoteSource;
+    private final long customVersion;
+
+    private final List<Product> products;
+    private final Map<String, Product> byId;
+    private final Map<String, List<Product>> byCategory;
+    private final Map<ProductSource, List<Product>> bySource;
+
+    // Sütunlu görünüm; ilk seçim sorgusunda bir kez kurulur
+    private volatile ProductTable table;
+
+    private CatalogSnapshot(long version, List<Product> remote, long customVersion, Collection<Product> custom) {
+        this.version = version;
+        this.remoteSource = remote;
+        this.customVersion = customVersion;
+
+        List<Product> all = new ArrayList<>(remote.size() + custom.size());
+        Map<String, Product> ids = new HashMap<>(Math.max(16, (remote.size() + custom.size()) * 4 / 3 + 1));
+        Map<String, List<Product>> categories = new LinkedHashMap<>();
+        Map<ProductSource, List<Product>> sources = new EnumMap<>(ProductSource.class);
+
+        for (Product p : remote) {
+            index(p, all, ids, categories, sources);
+        }
+        for (Product p : custom) {
+            index(p, all, ids, categories, sources);
+        }
+
+        categories.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        sources.replaceAll((k, v) -> Collections.unmodifiableList(v));
+
+        this.products = Collections.unmodifiableList(all);
+        this.byId = Collections.unmodifiableMap(ids);
+        this.byCategory = Collections.unmodifiableMap(categories);
+        this.bySource = Collections.unmodifiableMap(sources);
+    }
+
+    private static void index(Product p,
+                              List<Product> all,
+                              Map<String, Product> ids,
+                              Map<String, List<Product>> categories,
+                              Map<ProductSource, List<Product>> sources) {
+        if (p == null) return;
+        // Aynı ID iki kez gelirse ilki kazanır (crawler dedupe'u URL bazlı)
+        if (p.getId() != null && ids.putIfAbsent(p.getId(), p) != null) return;
+        all.add(p);
+        categories.computeIfAbsent(categoryKey(p.getCategory()), k -> new ArrayList<>()).add(p);
+        if (p.getSource() != null) {
+            sources.computeIfAbsent(p.getSource(), k -> new ArrayList<>()).add(p);
+        }
+    }
+
+    public static CatalogSnapshot empty() {
+        return EMPTY;
+    }
+
+    public static CatalogSnapshot build(long version, List<Product> remote, long customVersion, Collection<Product> custom) {
+        return new CatalogSnapshot(
+                version,
+                remote != null ? remote : Collections.emptyList(),
+                customVersion,
+                custom != null ? custom : Collections.emptyList());
+    }
+
+    public static String categoryKey(String category) {
+        return (category == null || category.isBlank()) ? DEFAULT_CATEGORY : category;
+    }
+
+    /**
+     * Snapshot bu remote liste ve custom versiyonundan mı kuruldu?
+     * Remote liste cache'ten geldiği için referans karşılaştırması yeterli.
+     */
+    public boolean isBuiltFrom(List<Product> remote, long customVersion) {
+        return this.remoteSource == remote && this.customVersion == customVersion;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Snapshot'ın kurulduğu custom ürün versiyonu (CustomProductRepository.version()).
+     */
+    public long customVersion() {
+        return customVersion;
+    }
+
+    /**
+     * Snapshot'ın kurulduğu remote liste (cache'teki referansın kendisi).
+     * Sadece custom ürünler değiştiğinde bu referans aynı kalır.
+     */
+    public List<Product> remoteProducts() {
+        return remoteSource;
+    }
+
+    public List<Product> all() {
+        return products;
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    public Optional<Product> findById(String id) {
+        if (id == null) return Optional.empty();
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    /**
+     * ID listesini tek geçişte çözer; sıra korunur, bulunamayanlar atlanır.
+     */
+    public List<Product> findAllById(Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) return Collections.emptyList();
+        List<Product> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Product p = id != null ? byId.get(id) : null;
+            if (p != null) result.add(p);
+        }
+        return result;
+    }
+
+    public List<Product> findByCategory(String category) {
+        return byCategory.getOrDefault(categoryKey(category), Collections.emptyList());
+    }
+
+    public Set<String> categories() {
+        return byCategory.keySet();
+    }
+
+    /**
+     * Tüm ürünlerin (all() sırasıyla) sütunlu görünümü; katalog genelinde top-N/filtre/group-by için.
+     */
+    public ProductTable table() {
+        ProductTable t = table;
+        if (t == null) {
+            synchronized (this) {
+                t = table;
+                if (t == null) {
+                    t = products.isEmpty() ? ProductTable.empty() : ProductTable.of(products);
+                    table = t;
+                }
+            }
+        }
+        return t;
+    }
+
+    public List<Product> findBySource(ProductSource source) {
+        return bySource.getOrDefault(source, Collections.emptyList());
+    }
+}
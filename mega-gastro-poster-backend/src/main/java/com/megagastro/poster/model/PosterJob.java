@@ -0,0 +1,41 @@
+package com.megagastro.poster.model;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Arka planda render edilen poster işi.
+ * Durum alanları worker thread'inden güncellenir, istek thread'lerinden okunur.
+ */
+@Getter
+public class PosterJob {
+
+    private final String id;
+    private final Instant createdAt;
+    private volatile PosterJobStatus status = PosterJobStatus.QUEUED;
+    private volatile Instant finishedAt;
+    private volatile long sizeBytes;
+    private volatile String error;
+
+    public PosterJob(String id) {
+        this.id = id;
+        this.createdAt = Instant.now();
+    }
+
+    public void markRunning() {
+        this.status = PosterJobStatus.RUNNING;
+    }
+
+    public void markDone(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+        this.finishedAt = Instant.now();
+        this.status = PosterJobStatus.DONE;
+    }
+
+    public void markFailed(String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.status = PosterJobStatus.FAILED;
+    }
+}
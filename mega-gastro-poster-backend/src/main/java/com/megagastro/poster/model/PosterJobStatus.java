@@ -0,0 +1,8 @@
+package com.megagastro.poster.model;
+
+public enum PosterJobStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED
+}
@@ -0,0 +1,97 @@
+package com.megagastro.poster.model;
+
+/**
+ * Poster sayfa düzeni; istek başına seçilir.
+ * Ölçüler stylesheet'e bir kez gömülür (bkz. PosterHtmlRenderer), her istekte yeniden kurulmaz.
+ */
+public enum PosterLayout {
+
+    A4("A4", "18mm", 24, 16, 140, 13, 36, 18, 13, 11,
+            new String[]{"100%", "48%", "48%", "48%", "31%"}),
+
+    A3("A3", "20mm", 36, 22, 220, 18, 48, 28, 18, 15,
+            new String[]{"100%", "48%", "48%", "48%", "31%"}),
+
+    // Yatayda yükseklik az: 3-4 ürün tek satır, 5+ ürün 5 kolon
+    A4_LANDSCAPE("A4 landscape", "12mm", 22, 14, 100, 12, 30, 16, 12, 10,
+            new String[]{"100%", "48%", "31%", "23%", "18%"});
+
+    private final String pageSize;
+    private final String margin;
+    private final int titleSize;
+    private final int categorySize;
+    private final int imageHeight;
+    private final int nameSize;
+    private final int nameMinHeight;
+    private final int currentPriceSize;
+    private final int oldPriceSize;
+    private final int badgeSize;
+    // Ürün sayısına göre kart genişliği: 1, 2, 3, 4, 5+
+    private final String[] cardWidths;
+
+    PosterLayout(String pageSize, String margin, int titleSize, int categorySize, int imageHeight,
+                 int nameSize, int nameMinHeight, int currentPriceSize, int oldPriceSize, int badgeSize,
+                 String[] cardWidths) {
+        this.pageSize = pageSize;
+        this.margin = margin;
+        this.titleSize = titleSize;
+        this.categorySize = categorySize;
+        this.imageHeight = imageHeight;
+        this.nameSize = nameSize;
+        this.nameMinHeight = nameMinHeight;
+        this.currentPriceSize = currentPriceSize;
+        this.oldPriceSize = oldPriceSize;
+        this.badgeSize = badgeSize;
+        this.cardWidths = cardWidths;
+    }
+
+    public static PosterLayout orDefault(PosterLayout layout) {
+        return layout != null ? layout : A4;
+    }
+
+    public String cardWidth(int productCount) {
+        // Boş posterde kart basılmaz; değer sadece stylesheet'in eskisiyle aynı kalması için
+        if (productCount <= 0) return cardWidths[1];
+        return cardWidths[Math.min(productCount, cardWidths.length) - 1];
+    }
+
+    public String pageSize() {
+        return pageSize;
+    }
+
+    public String margin() {
+        return margin;
+    }
+
+    public int titleSize() {
+        return titleSize;
+    }
+
+    public int categorySize() {
+        return categorySize;
+    }
+
+    public int imageHeight() {
+        return imageHeight;
+    }
+
+    public int nameSize() {
+        return nameSize;
+    }
+
+    public int nameMinHeight() {
+        return nameMinHeight;
+    }
+
+    public int currentPriceSize() {
+        return currentPriceSize;
+    }
+
+    public int oldPriceSize() {
+        return oldPriceSize;
+    }
+
+    public int badgeSize() {
+        return badgeSize;
+    }
+}
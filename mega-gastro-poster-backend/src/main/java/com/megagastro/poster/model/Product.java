@@ -17,4 +17,10 @@ public class Product {
     private ProductSource source;
     private String category;
 
+    /**
+     * Fiyat kimliğin parçası değil, sürümlü bir özellik: aynı ürünün fiyatı
+     * (güncel/eski/indirim) her değiştiğinde bir artar. Custom ürünlerde null.
+     */
+    private Integer priceVersion;
+
 }
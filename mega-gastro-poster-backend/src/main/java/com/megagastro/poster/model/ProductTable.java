@@ -0,0 +1,384 @@
+package com.megagastro.poster.model;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Ürün listesinin sütunlu (primitive) görünümü; sıralama/filtreleme ağırlıklı seçimler için.
+ * - fiyatlar double[] (null = NaN), indirim int[] (null = NO_DISCOUNT)
+ * - kategoriler sözlükle kodlanır: her satırda sadece int kod tutulur
+ * - operatörler satır numaraları (int[]) üzerinde çalışır; tarama döngüsünde nesne üretilmez,
+ *   çağıran taraf ara dizileri tekrar kullanabilir
+ *
+ * Değişmezdir; CatalogSnapshot ile birlikte bir kez kurulur.
+ */
+public final class ProductTable {
+
+    /**
+     * İndirimi olmayan (null) satırlar; azalan sıralamada en sona düşer.
+     */
+    public static final int NO_DISCOUNT = Integer.MIN_VALUE;
+
+    /**
+     * Posterdeki sıra: indirim azalan (null en sonda), sonra fiyat artan, eşitlikte liste sırası.
+     */
+    public static final RowOrder POSTER_ORDER = (t, a, b) -> {
+        int c = t.posterRank(a, b);
+        return c != 0 ? c : Integer.compare(a, b);
+    };
+
+    /**
+     * POSTER_ORDER'ın satır numarasına bakmayan hali; select(rows, ...) ile eşitlikte rows sırası kalır.
+     */
+    public static final RowOrder POSTER_RANK = ProductTable::posterRank;
+
+    private static final ProductTable EMPTY = of(List.of());
+
+    private final Product[] rows;
+    private final double[] priceCurrent;
+    private final double[] priceOriginal;
+    private final int[] discountPct;
+    private final byte[] source;
+    private final int[] categoryCode;
+    private final String[] categories;
+
+    // Sayfalama imleçleri için; yarışta iki kez kurulması zararsız
+    private volatile Map<String, Integer> rowById;
+
+    private ProductTable(List<Product> products) {
+        int n = products.size();
+        rows = products.toArray(new Product[0]);
+        priceCurrent = new double[n];
+        priceOriginal = new double[n];
+        discountPct = new int[n];
+        source = new byte[n];
+        categoryCode = new int[n];
+
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (int r = 0; r < n; r++) {
+            Product p = rows[r];
+            priceCurrent[r] = p.getPriceCurrent() != null ? p.getPriceCurrent() : Double.NaN;
+            priceOriginal[r] = p.getPriceOriginal() != null ? p.getPriceOriginal() : Double.NaN;
+            discountPct[r] = p.getDiscountPct() != null ? p.getDiscountPct() : NO_DISCOUNT;
+            source[r] = (byte) (p.getSource() != null ? p.getSource().ordinal() : -1);
+            Integer code = dictionary.putIfAbsent(CatalogSnapshot.categoryKey(p.getCategory()), dictionary.size());
+            categoryCode[r] = code != null ? code : dictionary.size() - 1;
+        }
+        categories = dictionary.keySet().toArray(new String[0]);
+    }
+
+    public static ProductTable of(List<Product> products) {
+        return new ProductTable(products);
+    }
+
+    public static ProductTable empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    public Product row(int r) {
+        return rows[r];
+    }
+
+    public double priceCurrent(int r) {
+        return priceCurrent[r];
+    }
+
+    public double priceOriginal(int r) {
+        return priceOriginal[r];
+    }
+
+    public int discountPct(int r) {
+        return discountPct[r];
+    }
+
+    public int categoryCode(int r) {
+        return categoryCode[r];
+    }
+
+    public int categoryCount() {
+        return categories.length;
+    }
+
+    public String category(int code) {
+        return categories[code];
+    }
+
+    /**
+     * Sözlükteki kategorilerden eşleşenlerin maskesi (indeks = kategori kodu).
+     * Sözlük küçük olduğu için eşleştirme satır başına değil kategori başına bir kez yapılır.
+     */
+    public boolean[] categoryMask(Predicate<String> matcher) {
+        boolean[] mask = new boolean[categories.length];
+        for (int c = 0; c < categories.length; c++) {
+            mask[c] = matcher.test(categories[c]);
+        }
+        return mask;
+    }
+
+    /**
+     * Satır sırası için karşılaştırıcı; negatif = a daha önce.
+     */
+    @FunctionalInterface
+    public interface RowOrder {
+        int compare(ProductTable table, int a, int b);
+    }
+
+    /**
+     * Primitive sütunlar üzerinde filtre. Boş bırakılan kriterler uygulanmaz.
+     */
+    public static final class Filter {
+        private boolean[] categoryMask;
+        private int minDiscount = NO_DISCOUNT;
+        private double[] bandMin = new double[0];
+        private double[] bandMax = new double[0];
+        private boolean requirePrice;
+        private int source = -1;
+
+        /**
+         * Fiyatı olan (> 0) ürünler; posterde basılabilecekler.
+         */
+        public static Filter priced() {
+            return new Filter().requirePrice();
+        }
+
+        public Filter categories(boolean[] mask) {
+            this.categoryMask = mask;
+            return this;
+        }
+
+        public Filter minDiscount(int pct) {
+            this.minDiscount = pct;
+            return this;
+        }
+
+        /**
+         * [min, max] fiyat bandı ekler; null sınırlar açık kalır.
+         * Birden fazla bant verilirse fiyatın herhangi birine düşmesi yeterlidir.
+         */
+        public Filter priceBand(Double min, Double max) {
+            int n = bandMin.length;
+            bandMin = Arrays.copyOf(bandMin, n + 1);
+            bandMax = Arrays.copyOf(bandMax, n + 1);
+            bandMin[n] = min != null ? min : Double.NEGATIVE_INFINITY;
+            bandMax[n] = max != null ? max : Double.POSITIVE_INFINITY;
+            return this;
+        }
+
+        public Filter requirePrice() {
+            this.requirePrice = true;
+            return this;
+        }
+
+        public Filter source(ProductSource source) {
+            this.source = source != null ? source.ordinal() : -1;
+            return this;
+        }
+
+        boolean test(ProductTable t, int r) {
+            double price = t.priceCurrent[r];
+            // NaN karşılaştırmaları false döner; fiyatsız satırlar bant verildiyse elenir
+            if (requirePrice && !(price > 0)) return false;
+            if (bandMin.length > 0 && !inBand(price)) return false;
+            if (minDiscount != NO_DISCOUNT && t.discountPct[r] < minDiscount) return false;
+            if (source >= 0 && t.source[r] != source) return false;
+            return categoryMask == null || categoryMask[t.categoryCode[r]];
+        }
+
+        private boolean inBand(double price) {
+            for (int i = 0; i < bandMin.length; i++) {
+                if (price >= bandMin[i] && price <= bandMax[i]) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Filtreye uyan satır numaralarını out'a yazar.
+     *
+     * @return eşleşen satır sayısı
+     */
+    public int filter(Filter filter, int[] out) {
+        return filter(filter, 0, rows.length, out);
+    }
+
+    /**
+     * fromRow'dan itibaren filtreye uyan en fazla limit satırı out'a yazar (sayfalama için).
+     *
+     * @return eşleşen satır sayısı
+     */
+    public int filter(Filter filter, int fromRow, int limit, int[] out) {
+        int n = 0;
+        for (int r = Math.max(0, fromRow); r < rows.length && n < limit; r++) {
+            if (filter.test(this, r)) out[n++] = r;
+        }
+        return n;
+    }
+
+    /**
+     * Ürün ID'sinin satır numarası; yoksa -1. Eşleme ilk çağrıda bir kez kurulur.
+     */
+    public int rowOf(String id) {
+        Map<String, Integer> index = rowById;
+        if (index == null) {
+            index = new HashMap<>(Math.max(16, rows.length * 4 / 3 + 1));
+            for (int r = 0; r < rows.length; r++) {
+                if (rows[r].getId() != null) index.putIfAbsent(rows[r].getId(), r);
+            }
+            rowById = index;
+        }
+        Integer row = id != null ? index.get(id) : null;
+        return row != null ? row : -1;
+    }
+
+    /**
+     * Filtreye uyan satırlardan sıraya göre en iyi limit tanesini tek geçişte seçer.
+     * Sınırlı bir heap kullanılır (O(n log limit)); sonuç out'a en iyiden başlayarak yazılır.
+     *
+     * @return seçilen satır sayısı
+     */
+    public int topN(Filter filter, RowOrder order, int limit, int[] out) {
+        if (limit <= 0) return 0;
+        int size = 0;
+        for (int r = 0; r < rows.length; r++) {
+            if (!filter.test(this, r)) continue;
+            if (size < limit) {
+                out[size] = r;
+                siftUp(out, 0, size++, order);
+            } else if (order.compare(this, r, out[0]) < 0) {
+                out[0] = r;
+                siftDown(out, 0, 0, size, order);
+            }
+        }
+        sortHeap(out, 0, size, order);
+        return size;
+    }
+
+    /**
+     * Kategori başına en iyi perCategory satırı tek geçişte seçer (group-by + top-N).
+     * Her kategori için out içinde perCategory genişliğinde bir heap bölgesi kullanılır;
+     * counts[kod] o kategoriden seçilen sayıdır. Bölgeler en iyiden başlayarak sıralı döner.
+     *
+     * @param out    en az categoryCount() * perCategory uzunluğunda
+     * @param counts en az categoryCount() uzunluğunda
+     */
+    public void topNPerCategory(Filter filter, RowOrder order, int perCategory, int[] out, int[] counts) {
+        Arrays.fill(counts, 0, categories.length, 0);
+        if (perCategory <= 0) return;
+        for (int r = 0; r < rows.length; r++) {
+            if (!filter.test(this, r)) continue;
+            int c = categoryCode[r];
+            int base = c * perCategory;
+            int size = counts[c];
+            if (size < perCategory) {
+                out[base + size] = r;
+                siftUp(out, base, size, order);
+                counts[c] = size + 1;
+            } else if (order.compare(this, r, out[base]) < 0) {
+                out[base] = r;
+                siftDown(out, base, 0, size, order);
+            }
+        }
+        for (int c = 0; c < categories.length; c++) {
+            sortHeap(out, c * perCategory, counts[c], order);
+        }
+    }
+
+    /**
+     * Filtreye uyan satırların kategori başına sayısı.
+     */
+    public void countByCategory(Filter filter, int[] counts) {
+        Arrays.fill(counts, 0, categories.length, 0);
+        for (int r = 0; r < rows.length; r++) {
+            if (filter.test(this, r)) counts[categoryCode[r]]++;
+        }
+    }
+
+    /**
+     * topN'in verilen satır alt kümesi üzerinde çalışan hali: sadece rows[0..count) aranır.
+     * Sıraya göre eşit satırlarda (satır numarası dahil) rows içindeki sıra korunur.
+     */
+    public List<Product> select(int[] rows, int count, Filter filter, RowOrder order, int limit) {
+        RowOrder byPosition = (t, a, b) -> {
+            int c = order.compare(t, rows[a], rows[b]);
+            return c != 0 ? c : Integer.compare(a, b);
+        };
+        int[] picked = new int[Math.max(0, Math.min(limit, count))];
+        int size = 0;
+        if (picked.length > 0) {
+            for (int i = 0; i < count; i++) {
+                if (!filter.test(this, rows[i])) continue;
+                if (size < picked.length) {
+                    picked[size] = i;
+                    siftUp(picked, 0, size++, byPosition);
+                } else if (byPosition.compare(this, i, picked[0]) < 0) {
+                    picked[0] = i;
+                    siftDown(picked, 0, 0, size, byPosition);
+                }
+            }
+            sortHeap(picked, 0, size, byPosition);
+        }
+        List<Product> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) result.add(this.rows[rows[picked[i]]]);
+        return result;
+    }
+
+    /**
+     * topN'in liste dönen kısayolu; sadece sonuç listesi üretilir.
+     */
+    public List<Product> select(Filter filter, RowOrder order, int limit) {
+        int[] picked = new int[Math.max(0, Math.min(limit, rows.length))];
+        int n = topN(filter, order, picked.length, picked);
+        List<Product> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) result.add(rows[picked[i]]);
+        return result;
+    }
+
+    private int posterRank(int a, int b) {
+        int c = Integer.compare(discountPct[b], discountPct[a]);
+        return c != 0 ? c : Double.compare(priceCurrent[a], priceCurrent[b]);
+    }
+
+    // Heap'in kökünde sıraya göre en kötü satır durur; yeni satır ondan iyiyse yer değiştirir
+
+    private void siftUp(int[] heap, int base, int i, RowOrder order) {
+        int x = heap[base + i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int p = heap[base + parent];
+            if (order.compare(this, x, p) <= 0) break;
+            heap[base + i] = p;
+            i = parent;
+        }
+        heap[base + i] = x;
+    }
+
+    private void siftDown(int[] heap, int base, int i, int size, RowOrder order) {
+        int x = heap[base + i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && order.compare(this, heap[base + right], heap[base + child]) > 0) child = right;
+            if (order.compare(this, x, heap[base + child]) >= 0) break;
+            heap[base + i] = heap[base + child];
+            i = child;
+        }
+        heap[base + i] = x;
+    }
+
+    /**
+     * En kötüsü kökte olan heap'i yerinde en iyiden en kötüye sıralar.
+     */
+    private void sortHeap(int[] heap, int base, int size, RowOrder order) {
+        for (int end = size - 1; end > 0; end--) {
+            int worst = heap[base];
+            heap[base] = heap[base + end];
+            heap[base + end] = worst;
+            siftDown(heap, base, 0, end, order);
+        }
+    }
+}
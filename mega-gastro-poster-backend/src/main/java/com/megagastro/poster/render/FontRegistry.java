@@ -0,0 +1,66 @@
+package com.megagastro.poster.render;
+
+import com.openhtmltopdf.outputdevice.helper.BaseRendererBuilder;
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Font dosyaları açılışta bir kez okunur; her render'da diskten tekrar
+ * okunmak yerine bellekteki byte'lar builder'a verilir.
+ * Dizindeki tüm .ttf dosyaları aynı aile adıyla kaydedilir, dosya adında
+ * "bold" geçenler 700 ağırlığında sayılır.
+ */
+public class FontRegistry {
+
+    private final List<FontEntry> fonts;
+
+    private FontRegistry(List<FontEntry> fonts) {
+        this.fonts = Collections.unmodifiableList(fonts);
+    }
+
+    public static FontRegistry load(String fontDir, String family) {
+        if (fontDir == null || fontDir.isBlank()) {
+            return new FontRegistry(Collections.emptyList());
+        }
+        Path dir = Path.of(fontDir);
+        if (!Files.isDirectory(dir)) {
+            return new FontRegistry(Collections.emptyList());
+        }
+        List<FontEntry> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.sorted().toList()) {
+                String fileName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+                if (!fileName.endsWith(".ttf")) continue;
+                int weight = fileName.contains("bold") ? 700 : 400;
+                entries.add(new FontEntry(family, weight, Files.readAllBytes(file)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load fonts from " + dir, e);
+        }
+        return new FontRegistry(entries);
+    }
+
+    public void applyTo(PdfRendererBuilder builder) {
+        for (FontEntry font : fonts) {
+            builder.useFont(() -> new ByteArrayInputStream(font.data()), font.family(),
+                    font.weight(), BaseRendererBuilder.FontStyle.NORMAL, true);
+        }
+    }
+
+    public int size() {
+        return fonts.size();
+    }
+
+    private record FontEntry(String family, int weight, byte[] data) {
+    }
+}
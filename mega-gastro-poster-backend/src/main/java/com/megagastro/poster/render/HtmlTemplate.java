@@ -0,0 +1,65 @@
+package com.megagastro.poster.render;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bir kez derlenen HTML şablonu: sabit metin parçaları ve aralarındaki slotlar.
+ * Kaynakta slotlar {{ad}} şeklinde yazılır; derleme sırasında verilen slot listesindeki
+ * indekse çevrilir. Render sırasında parçalar sırayla buffer'a eklenir, slotları çağıran doldurur.
+ */
+public final class HtmlTemplate {
+
+    private final String[] segments;
+    private final int[] slots;
+
+    private HtmlTemplate(String[] segments, int[] slots) {
+        this.segments = segments;
+        this.slots = slots;
+    }
+
+    /**
+     * Slot değerlerini yazan taraf; slot, compile'a verilen isim listesindeki indekstir.
+     */
+    @FunctionalInterface
+    public interface SlotWriter {
+        void write(int slot, StringBuilder out);
+    }
+
+    /**
+     * @param slotNames şablonda geçebilecek slot isimleri; bilinmeyen slot derleme hatasıdır
+     */
+    public static HtmlTemplate compile(String source, String... slotNames) {
+        List<String> names = Arrays.asList(slotNames);
+        List<String> segments = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int pos = 0;
+        while (true) {
+            int open = source.indexOf("{{", pos);
+            if (open < 0) break;
+            int close = source.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed slot at " + open);
+            }
+            String name = source.substring(open + 2, close).trim();
+            int slot = names.indexOf(name);
+            if (slot < 0) {
+                throw new IllegalArgumentException("Unknown slot: " + name);
+            }
+            segments.add(source.substring(pos, open));
+            slots.add(slot);
+            pos = close + 2;
+        }
+        segments.add(source.substring(pos));
+        return new HtmlTemplate(segments.toArray(new String[0]), slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public void render(StringBuilder out, SlotWriter writer) {
+        for (int i = 0; i < slots.length; i++) {
+            out.append(segments[i]);
+            writer.write(slots[i], out);
+        }
+        out.append(segments[slots.length]);
+    }
+}
@@ -0,0 +1,344 @@
+package com.megagastro.poster.render;
+
+import com.megagastro.poster.image.PosterImageCache;
+import com.megagastro.poster.metrics.PosterMetrics;
+import com.openhtmltopdf.extend.FSCacheEx;
+import com.openhtmltopdf.extend.FSCacheValue;
+import com.openhtmltopdf.extend.impl.FSDefaultCacheStore;
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * HTML -> PDF render motoru.
+ * - Çekirdek sayısı kadar sabit worker, sınırlı kuyruk (dolunca 503)
+ * - Her worker kendi builder ayarlarını ve çıktı buffer'ını tekrar kullanır
+ * - Font metrikleri tüm worker'lar arasında paylaşılan cache'te tutulur
+ * - Uygulama açılınca her worker bir ısınma render'ı yapar
+ * - Worker'lar her zaman platform thread'dir; virtual thread modunda da (spring.threads.virtual.enabled)
+ *   CPU ağırlıklı render bu sınırlı havuzda kalır, istek thread'i sadece sonucu bekler
+ * - Zaman aşımına uğrayan/iptal edilen render kuyruktaysa kuyruktan çıkarılır, çalışıyorsa worker'ı
+ *   interrupt edilir. openhtmltopdf interrupt'a bakmadığı için interrupt yeni sayfa açılırken kontrol
+ *   edilir; o ana kadar havuza geçici bir yedek worker eklenir (en fazla havuz boyutu kadar), takılan
+ *   girdiler havuzu doldurup sonraki istekleri 503'e düşürmez
+ */
+@Component
+public class PdfRenderEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(PdfRenderEngine.class);
+
+    private static final String WARM_UP_HTML = "<!DOCTYPE html><html><head><meta charset=\"UTF-8\"/>" +
+            "<style>@page { size: A4; margin: 18mm; } body { font-family: Arial, sans-serif; }</style>" +
+            "</head><body><h1>Angebote der Woche</h1><div><b>12,99 €</b> <s>15,49 €</s> -16%</div></body></html>";
+
+    private final ThreadPoolExecutor executor;
+    private final int poolSize;
+    // Bırakılmış (iptal edilmiş ama hâlâ çalışan) render'ların yerine eklenen worker sayısı
+    private int spareWorkers;
+    private final FontRegistry fontRegistry;
+    private final PosterImageCache imageCache;
+    private final FSCacheEx<String, FSCacheValue> fontMetricsCache = new FSDefaultCacheStore();
+    private final ThreadLocal<RenderWorker> workers = ThreadLocal.withInitial(RenderWorker::new);
+    private final long timeoutMillis;
+    private final PosterMetrics metrics;
+
+    public PdfRenderEngine(PosterImageCache imageCache,
+                           PosterMetrics metrics,
+                           @Value("${poster.render.threads:0}") int threads,
+                           @Value("${poster.render.queue-capacity:32}") int queueCapacity,
+                           @Value("${poster.render.timeout:60s}") Duration timeout,
+                           @Value("${poster.render.font-dir:}") String fontDir,
+                           @Value("${poster.render.font-family:Arial}") String fontFamily) {
+        this.poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "pdf-render-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.fontRegistry = FontRegistry.load(fontDir, fontFamily);
+        this.imageCache = imageCache;
+        this.timeoutMillis = timeout.toMillis();
+        this.metrics = metrics;
+    }
+
+    /**
+     * Açılışta tüm worker'ları başlatıp birer ısınma render'ı çalıştırır
+     * (class loading, font metrikleri, JIT).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        executor.prestartAllCoreThreads();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            futures[i] = submit(WARM_UP_HTML);
+        }
+        CompletableFuture.allOf(futures).whenComplete((v, e) -> {
+            if (e != null) {
+                log.warn("PDF render warm-up failed", e);
+            } else {
+                log.info("PDF render engine ready ({} workers, {} fonts)", poolSize, fontRegistry.size());
+            }
+        });
+    }
+
+    public CompletableFuture<byte[]> submit(String html) {
+        return submitTask(worker -> worker.render(html));
+    }
+
+    /**
+     * Render'ı worker havuzunda çalıştırıp sonucu bekler.
+     */
+    public byte[] render(String html) {
+        return await(submit(html));
+    }
+
+    /**
+     * PDF'i worker üzerinde render edip doğrudan verilen stream'e yazar.
+     */
+    public void renderTo(String html, OutputStream out) {
+        await(submitTask(worker -> {
+            worker.renderTo(html, out);
+            return null;
+        }));
+    }
+
+    /**
+     * Dönen future iptal edilirse (ör. await zaman aşımı) render kuyruktan çıkarılır ya da durdurulmaya çalışılır.
+     */
+    protected <T> CompletableFuture<T> submitTask(Function<RenderWorker, T> task) {
+        RenderTask<T> renderTask = new RenderTask<>(task);
+        try {
+            executor.execute(renderTask);
+        } catch (RejectedExecutionException e) {
+            throw new RenderRejectedException("PDF render queue is full, try again later");
+        }
+        return renderTask.result;
+    }
+
+    protected <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new RuntimeException("Interrupted while rendering PDF", e);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new RuntimeException("PDF render timed out", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            throw new RuntimeException("Failed to render PDF", cause);
+        }
+    }
+
+    /**
+     * Yapılandırılmış worker sayısı; geçici yedek worker'lar dahil değildir.
+     */
+    public int poolSize() {
+        return poolSize;
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int activeRenders() {
+        return executor.getActiveCount();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Çalışmakta olan bir render bırakıldığında havuza bir yedek worker ekler; render bitince geri alınır.
+     * Yedek sayısı havuz boyutunu geçmez, geçerse bırakılan render'ın worker'ı bitene kadar meşgul kalır.
+     */
+    private boolean addSpareWorker() {
+        synchronized (executor) {
+            if (spareWorkers >= poolSize) return false;
+            spareWorkers++;
+            executor.setMaximumPoolSize(poolSize + spareWorkers);
+            executor.setCorePoolSize(poolSize + spareWorkers);
+            return true;
+        }
+    }
+
+    private void releaseSpareWorker() {
+        synchronized (executor) {
+            spareWorkers--;
+            // Fazla worker boşa çıkınca ThreadPoolExecutor tarafından sonlandırılır
+            executor.setCorePoolSize(poolSize + spareWorkers);
+            executor.setMaximumPoolSize(poolSize + spareWorkers);
+        }
+    }
+
+    /**
+     * Havuzda çalışan tek render. Sonucu taşıyan future'ın cancel'ı gerçekten render'a ulaşır:
+     * başlamamışsa kuyruktan çıkarılır, başlamışsa worker interrupt edilir ve yerine yedek worker eklenir.
+     */
+    private final class RenderTask<T> implements Runnable {
+
+        private final Function<RenderWorker, T> task;
+        private final long queuedAt = System.nanoTime();
+        private final Object lock = new Object();
+        private Thread runner;
+        private boolean finished;
+        private boolean spareAdded;
+
+        final CompletableFuture<T> result = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean cancelled = super.cancel(mayInterruptIfRunning);
+                if (cancelled) abandon();
+                return cancelled;
+            }
+        };
+
+        RenderTask(Function<RenderWorker, T> task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            synchronized (lock) {
+                if (result.isDone()) return;
+                runner = Thread.currentThread();
+            }
+            long started = System.nanoTime();
+            metrics.record(PosterMetrics.Stage.RENDER_QUEUE_WAIT, started - queuedAt);
+            try {
+                result.complete(task.apply(workers.get()));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                metrics.record(PosterMetrics.Stage.PDF_RENDER, System.nanoTime() - started);
+                boolean releaseSpare;
+                synchronized (lock) {
+                    runner = null;
+                    finished = true;
+                    releaseSpare = spareAdded;
+                }
+                // İptal için gönderilen interrupt sonraki render'a taşınmasın
+                Thread.interrupted();
+                if (releaseSpare) releaseSpareWorker();
+            }
+        }
+
+        private void abandon() {
+            synchronized (lock) {
+                if (finished) return;
+                if (runner == null) {
+                    executor.remove(this);
+                    return;
+                }
+                runner.interrupt();
+                spareAdded = addSpareWorker();
+            }
+        }
+    }
+
+    /**
+     * Tek bir render thread'ine ait, render'lar arasında tekrar kullanılan durum.
+     */
+    protected class RenderWorker {
+
+        private final ReusableByteArrayOutputStream buffer = new ReusableByteArrayOutputStream();
+
+        PdfRendererBuilder newBuilder() {
+            PdfRendererBuilder builder = new PdfRendererBuilder();
+            builder.useFastMode();
+            builder.useCacheStore(PdfRendererBuilder.CacheStore.PDF_FONT_METRICS, fontMetricsCache);
+            fontRegistry.applyTo(builder);
+            // Uzak görseller render sırasında indirilmez, yerel cache'ten okunur
+            builder.useHttpStreamImplementation(imageCache.streamFactory());
+            builder.usePageSupplier(RenderWorker::requestPage);
+            return builder;
+        }
+
+        /**
+         * openhtmltopdf'in varsayılan sayfa üreticisiyle aynı; ek olarak bırakılmış (interrupt edilmiş)
+         * render'ı bir sonraki sayfada durdurur. Broşür gibi uzun render'lar istemci gittikten sonra
+         * sonuna kadar çalışmaz.
+         */
+        private static PDPage requestPage(PDDocument doc, float pageWidth, float pageHeight,
+                                          int pageNumber, int shadowPageNumber) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("PDF render abandoned at page " + (pageNumber + 1));
+            }
+            PDPage page = new PDPage(new PDRectangle(pageWidth, pageHeight));
+            doc.addPage(page);
+            return page;
+        }
+
+        byte[] render(String html) {
+            buffer.reset();
+            try {
+                PdfRendererBuilder builder = newBuilder();
+                builder.withHtmlContent(html, null);
+                builder.toStream(buffer);
+                builder.run();
+                metrics.recordPdfSize(buffer.size());
+                return buffer.toByteArray();
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to render PDF", e);
+            } finally {
+                buffer.trim();
+            }
+        }
+
+        void renderTo(String html, OutputStream out) {
+            try {
+                PdfRendererBuilder builder = newBuilder();
+                builder.withHtmlContent(html, null);
+                builder.toStream(out);
+                builder.run();
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to render PDF", e);
+            }
+        }
+    }
+
+    /**
+     * reset() sonrası iç diziyi koruyan buffer; aşırı büyürse küçültülür.
+     */
+    static final class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+
+        private static final int INITIAL = 256 * 1024;
+        private static final int MAX_RETAINED = 8 * 1024 * 1024;
+
+        ReusableByteArrayOutputStream() {
+            super(INITIAL);
+        }
+
+        void trim() {
+            if (buf.length > MAX_RETAINED) {
+                buf = new byte[INITIAL];
+                count = 0;
+            }
+        }
+    }
+}
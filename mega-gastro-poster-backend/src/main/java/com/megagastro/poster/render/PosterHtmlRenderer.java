@@ -0,0 +1,253 @@
+package com.megagastro.poster.render;
+
+import com.megagastro.poster.model.PosterLayout;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.util.EuroFormatter;
+import com.megagastro.poster.util.HtmlEscaper;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Poster/broşür HTML'ini açılışta derlenen şablonlardan üretir.
+ * - stylesheet ve sabit işaretleme her düzen için bir kez kurulur; istek sırasında sadece
+ *   slotlar (başlık, kartlar, kart genişliği, tarih) doldurulur
+ * - kaçış ve para formatı doğrudan çıktı buffer'ına yazılır, ara String üretilmez
+ * - poster buffer'ı platform thread başına tekrar kullanılır; virtual thread'ler havuzlanmadığı için
+ *   (istek başına yeni thread) onlarda her çağrı kendi buffer'ını açar, ThreadLocal'e bir şey konmaz
+ */
+@Component
+public class PosterHtmlRenderer {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    // Bundan büyüyen buffer tutulmaz (broşür vb.); thread başına bellek sınırlı kalsın
+    private static final int MAX_RETAINED_BUFFER = 256 * 1024;
+    private static final int INITIAL_BUFFER = 16 * 1024;
+
+    // Thread.isVirtual() (Java 21+); Java 17'de null, tüm thread'ler platform thread'dir
+    private static final MethodHandle IS_VIRTUAL = isVirtualHandle();
+
+    private static final String BROCHURE_STYLESHEET =
+            ".page.next { page-break-before: always; }" +
+            // 9 kart + kategori başlıkları (en kötü durumda 4 satır) tek A4 sayfaya sığsın
+            "h1 { margin: 0 0 8px 0; font-size: 20px; }" +
+            ".category-header { margin-top: 6px; }" +
+            ".card { box-sizing: border-box; width: 32%; margin-right: 1.3%; padding: 8px; margin-bottom: 8px; }" +
+            ".image-wrapper { height: 90px; line-height: 90px; margin-bottom: 4px; }" +
+            ".image-wrapper img { max-height: 90px; }" +
+            ".name { min-height: 30px; margin-top: 4px; }" +
+            "@page { @bottom-right { content: counter(page) \" / \" counter(pages); font-family: Arial, sans-serif; font-size: 10px; color: #555; } }";
+
+    // Sayfa şablonu slotları
+    private static final int CARD_WIDTH = 0;
+    private static final int TITLE = 1;
+    private static final int CARDS = 2;
+    private static final int DATE = 3;
+
+    // Kart şablonu slotları
+    private static final int BADGE = 0;
+    private static final int IMAGE = 1;
+    private static final int NAME = 2;
+    private static final int CURRENT = 3;
+    private static final int OLD = 4;
+
+    private static final HtmlTemplate CARD = HtmlTemplate.compile(
+            "<div class=\"card\">{{badge}}" +
+            "<div class=\"image-wrapper\"><img src=\"{{image}}\" alt=\"{{name}}\"/></div>" +
+            "<div class=\"name\">{{name}}</div>" +
+            "<div class=\"prices\"><div class=\"current\">{{current}}</div>{{old}}</div>" +
+            "</div>",
+            "badge", "image", "name", "current", "old");
+
+    private final Map<PosterLayout, HtmlTemplate> posterTemplates = new EnumMap<>(PosterLayout.class);
+    private final String brochureHead;
+
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER));
+
+    public PosterHtmlRenderer() {
+        for (PosterLayout layout : PosterLayout.values()) {
+            posterTemplates.put(layout, HtmlTemplate.compile(
+                    "<!DOCTYPE html><html lang=\"tr\"><head><meta charset=\"UTF-8\"/><style>" +
+                    stylesheet(layout, "{{cardWidth}}") +
+                    "</style></head><body>" +
+                    "<h1>{{title}}</h1>" +
+                    "<div class=\"grid\">{{cards}}<div class=\"clearfix\"></div></div>" +
+                    "<div class=\"footer\">Oluşturulma tarihi: {{date}}</div>" +
+                    "</body></html>",
+                    "cardWidth", "title", "cards", "date"));
+        }
+        brochureHead = "<!DOCTYPE html><html lang=\"tr\"><head><meta charset=\"UTF-8\"/><style>" +
+                stylesheet(PosterLayout.A4, PosterLayout.A4.cardWidth(9)) + BROCHURE_STYLESHEET +
+                "</style></head><body>";
+    }
+
+    /**
+     * Tek sayfalık poster.
+     *
+     * @param productsByCategory ürünler kategori sırasıyla; birden fazla kategori varsa başlık basılır
+     * @param productCount       toplam ürün sayısı (kart genişliği için)
+     */
+    public String poster(PosterLayout layout, String title, Map<String, List<Product>> productsByCategory,
+                         int productCount) {
+        PosterLayout effective = PosterLayout.orDefault(layout);
+        StringBuilder out = buffer();
+        try {
+            String today = LocalDate.now().format(DATE_FORMAT);
+            boolean headers = productsByCategory.size() > 1;
+            posterTemplates.get(effective).render(out, (slot, o) -> {
+                switch (slot) {
+                    case CARD_WIDTH -> o.append(effective.cardWidth(productCount));
+                    case TITLE -> HtmlEscaper.escape(title, o);
+                    case CARDS -> {
+                        for (Map.Entry<String, List<Product>> entry : productsByCategory.entrySet()) {
+                            if (headers) appendCategoryHeader(o, entry.getKey());
+                            for (Product p : entry.getValue()) {
+                                appendCard(o, p);
+                            }
+                            o.append("<div class=\"clearfix\"></div>");
+                        }
+                    }
+                    case DATE -> o.append(today);
+                    default -> throw new IllegalStateException("Unknown slot " + slot);
+                }
+            });
+            return out.toString();
+        } finally {
+            release(out);
+        }
+    }
+
+    /**
+     * Kategori gruplamasıyla 9'arlı A4 sayfalar. Her sayfa başlığı tekrarlar; kategori sayfa
+     * ortasında bölünürse başlığı yeni sayfada da basılır.
+     */
+    public String brochure(String title, Map<String, List<Product>> productsByCategory, int productCount,
+                           int perPage) {
+        StringBuilder html = new StringBuilder(brochureHead.length() + 1024 + productCount * 640);
+        html.append(brochureHead)
+                .append("<div class=\"footer\">Oluşturulma tarihi: ").append(LocalDate.now().format(DATE_FORMAT))
+                .append("</div>");
+
+        int onPage = perPage;
+        boolean firstPage = true;
+        for (Map.Entry<String, List<Product>> entry : productsByCategory.entrySet()) {
+            boolean headerPrinted = false;
+            for (Product p : entry.getValue()) {
+                if (onPage == perPage) {
+                    if (!firstPage) {
+                        html.append("<div class=\"clearfix\"></div></div></div>");
+                    }
+                    html.append(firstPage ? "<div class=\"page\">" : "<div class=\"page next\">").append("<h1>");
+                    HtmlEscaper.escape(title, html);
+                    html.append("</h1><div class=\"grid\">");
+                    firstPage = false;
+                    onPage = 0;
+                    headerPrinted = false;
+                }
+                if (!headerPrinted) {
+                    html.append("<div class=\"clearfix\"></div>");
+                    appendCategoryHeader(html, entry.getKey());
+                    headerPrinted = true;
+                }
+                appendCard(html, p);
+                onPage++;
+            }
+        }
+        if (!firstPage) {
+            html.append("<div class=\"clearfix\"></div></div></div>");
+        }
+        return html.append("</body></html>").toString();
+    }
+
+    private static void appendCategoryHeader(StringBuilder out, String category) {
+        out.append("<div class=\"category-header\">");
+        HtmlEscaper.escape(category, out);
+        out.append("</div>");
+    }
+
+    private static void appendCard(StringBuilder out, Product p) {
+        CARD.render(out, (slot, o) -> {
+            switch (slot) {
+                case BADGE -> {
+                    if (p.getDiscountPct() != null && p.getDiscountPct() > 0) {
+                        o.append("<div class=\"badge\">-").append(p.getDiscountPct().intValue()).append("%</div>");
+                    }
+                }
+                case IMAGE -> HtmlEscaper.escape(p.getImageUrl(), o);
+                case NAME -> HtmlEscaper.escape(p.getName(), o);
+                case CURRENT -> EuroFormatter.format(p.getPriceCurrent(), o);
+                case OLD -> {
+                    if (p.getPriceOriginal() != null && !p.getPriceOriginal().equals(p.getPriceCurrent())) {
+                        o.append("<div class=\"old\">");
+                        EuroFormatter.format(p.getPriceOriginal(), o);
+                        o.append("</div>");
+                    }
+                }
+                default -> throw new IllegalStateException("Unknown slot " + slot);
+            }
+        });
+    }
+
+    /**
+     * Platform thread'de thread'in tekrar kullanılan buffer'ı, virtual thread'de yeni bir buffer.
+     */
+    StringBuilder buffer() {
+        return isVirtual(Thread.currentThread()) ? new StringBuilder(INITIAL_BUFFER) : buffers.get();
+    }
+
+    private void release(StringBuilder buffer) {
+        if (isVirtual(Thread.currentThread())) return;
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            buffers.remove();
+        } else {
+            buffer.setLength(0);
+        }
+    }
+
+    private static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) return false;
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(thread);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    private static MethodHandle isVirtualHandle() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual",
+                    MethodType.methodType(boolean.class));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Düzenin stylesheet'i; kart genişliği ürün sayısına bağlı olduğu için dışarıdan verilir.
+     */
+    private static String stylesheet(PosterLayout l, String cardWidth) {
+        return "@page { size: " + l.pageSize() + "; margin: " + l.margin() + "; }" +
+                "body { font-family: Arial, sans-serif; margin: 0; padding: 0; }" +
+                "h1 { text-align: center; margin-bottom: 20px; font-size: " + l.titleSize() + "px; }" +
+                ".grid { width: 100%; overflow: hidden; }" +
+                ".category-header { width: 100%; font-size: " + l.categorySize() + "px; font-weight: bold; color: #2c3e50; margin-top: 16px; margin-bottom: 8px; padding-bottom: 4px; border-bottom: 2px solid #3498db; clear: both; }" +
+                ".card { position: relative; width: " + cardWidth + "; border: 1px solid #ddd; padding: 12px; border-radius: 4px; background: #fff; float: left; margin-right: 12px; margin-bottom: 12px; }" +
+                ".image-wrapper { height: " + l.imageHeight() + "px; text-align: center; margin-bottom: 8px; line-height: " + l.imageHeight() + "px; }" +
+                ".image-wrapper img { max-height: " + l.imageHeight() + "px; max-width: 100%; vertical-align: middle; }" +
+                ".name { font-size: " + l.nameSize() + "px; margin-top: 8px; min-height: " + l.nameMinHeight() + "px; line-height: 1.3; color: #333; }" +
+                ".prices { margin-top: 8px; }" +
+                ".current { font-size: " + l.currentPriceSize() + "px; font-weight: bold; color: #c0392b; }" +
+                ".old { font-size: " + l.oldPriceSize() + "px; text-decoration: line-through; color: #7f8c8d; margin-top: 2px; }" +
+                ".badge { position: absolute; top: 8px; left: 8px; background: #e74c3c; color: #fff; padding: 4px 8px; font-size: " + l.badgeSize() + "px; border-radius: 4px; font-weight: bold; }" +
+                ".footer { position: fixed; bottom: 10mm; left: 0; right: 0; text-align: center; font-size: 10px; color: #555; }" +
+                ".clearfix { clear: both; }";
+    }
+}
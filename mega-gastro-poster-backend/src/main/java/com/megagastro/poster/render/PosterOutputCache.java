@@ -0,0 +1,143 @@
+package com.megagastro.poster.render;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.megagastro.poster.model.PosterLayout;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.util.ContentAddressedStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Render edilmiş posterlerin cache'i.
+ * Anahtar, çıktıyı etkileyen her şeyin hash'idir (şablon versiyonu, tarih, başlık,
+ * adet ve ürünlerin isim/fiyat/indirim/görsel/kategori alanları). Bir fiyat
+ * değiştiğinde anahtar da değişir; eski giriş bir daha eşleşmez ve zamanla düşer.
+ */
+@Component
+public class PosterOutputCache implements MeterBinder {
+
+    private final Cache<String, byte[]> memory;
+    private final ContentAddressedStore disk;
+
+    public PosterOutputCache(@Value("${poster.cache.max-memory-size:128MB}") DataSize maxMemorySize,
+                             @Value("${poster.cache.ttl:24h}") Duration ttl,
+                             @Value("${poster.cache.disk-dir:}") String diskDir,
+                             @Value("${poster.cache.max-disk-size:1GB}") DataSize maxDiskSize) {
+        this.memory = Caffeine.newBuilder()
+                .maximumWeight(maxMemorySize.toBytes())
+                .weigher((String key, byte[] pdf) -> pdf.length)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+        this.disk = diskDir == null || diskDir.isBlank()
+                ? null
+                : new ContentAddressedStore(Path.of(diskDir), maxDiskSize.toBytes());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // Etiketler CacheManager cache'leriyle aynı olmalı (bkz. PosterImageCache)
+        CaffeineCacheMetrics.monitor(registry, memory, "posterOutput",
+                "cache.manager", "posterOutputCache", "name", "posterOutput");
+    }
+
+    public Optional<byte[]> get(String key) {
+        byte[] pdf = memory.getIfPresent(key);
+        if (pdf == null && disk != null) {
+            pdf = disk.read(key).orElse(null);
+            if (pdf != null) memory.put(key, pdf);
+        }
+        return Optional.ofNullable(pdf);
+    }
+
+    public void put(String key, byte[] pdf) {
+        memory.put(key, pdf);
+        if (disk != null) disk.write(key, pdf);
+    }
+
+    public static String keyOf(int templateVersion, PosterLayout layout, LocalDate date, String title, int count, List<Product> products) {
+        KeyBuilder kb = new KeyBuilder()
+                .add(templateVersion)
+                .add(layout.name())
+                .add(date.toString())
+                .add(title)
+                .add(count)
+                .add(products.size());
+        for (Product p : products) {
+            kb.add(p.getName())
+                    .add(p.getPriceCurrent())
+                    .add(p.getPriceOriginal())
+                    .add(p.getDiscountPct())
+                    .add(p.getImageUrl())
+                    .add(p.getCategory());
+        }
+        return kb.build();
+    }
+
+    /**
+     * Alanları uzunluk önekli olarak hash'e besler; "ab"+"c" ile "a"+"bc" çakışmaz.
+     */
+    private static final class KeyBuilder {
+        private final MessageDigest digest;
+        private final ByteBuffer scratch = ByteBuffer.allocate(Long.BYTES + 1);
+
+        KeyBuilder() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        KeyBuilder add(String s) {
+            if (s == null) return marker((byte) 0);
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            scratch.clear();
+            scratch.put((byte) 1).putInt(bytes.length);
+            digest.update(scratch.array(), 0, scratch.position());
+            digest.update(bytes);
+            return this;
+        }
+
+        KeyBuilder add(Double d) {
+            if (d == null) return marker((byte) 0);
+            scratch.clear();
+            scratch.put((byte) 2).putLong(Double.doubleToLongBits(d));
+            digest.update(scratch.array(), 0, scratch.position());
+            return this;
+        }
+
+        KeyBuilder add(Integer i) {
+            if (i == null) return marker((byte) 0);
+            scratch.clear();
+            scratch.put((byte) 3).putInt(i);
+            digest.update(scratch.array(), 0, scratch.position());
+            return this;
+        }
+
+        private KeyBuilder marker(byte b) {
+            digest.update(b);
+            return this;
+        }
+
+        String build() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+}
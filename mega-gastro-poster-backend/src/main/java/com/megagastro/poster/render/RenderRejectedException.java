@@ -0,0 +1,15 @@
+package com.megagastro.poster.render;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Render kuyruğu dolu olduğunda fırlatılır; istemci 503 alır ve tekrar dener.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class RenderRejectedException extends RuntimeException {
+
+    public RenderRejectedException(String message) {
+        super(message);
+    }
+}
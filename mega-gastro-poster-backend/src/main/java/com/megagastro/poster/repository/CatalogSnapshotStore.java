@@ -0,0 +1,152 @@
+package com.megagastro.poster.repository;
+
+import com.megagastro.poster.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Son remote katalog ve custom ürünlerin ikili snapshot dosyası.
+ * Açılışta dosya memory-mapped okunur; servis crawler'ı beklemeden bu veriyle cevap verir.
+ *
+ * Format: magic, format versiyonu, yazılma zamanı, remote ürün sayısı + ürünler,
+ * custom ürün sayısı + ürünler, sonda gövdenin CRC32'si. Bozuk/yarım dosya yok sayılır.
+ * Format versiyonu ProductCodec sürümüyle aynıdır; eski sürümle yazılmış dosyalar okunmaya devam eder.
+ */
+@Repository
+public class CatalogSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotStore.class);
+
+    private static final int MAGIC = 0x4D474353; // "MGCS"
+    private static final int FORMAT_VERSION = ProductCodec.FORMAT_VERSION;
+
+    /**
+     * Dosyadan okunan katalog.
+     */
+    public record StoredCatalog(Instant writtenAt, List<Product> remote, List<Product> custom) {
+    }
+
+    private final Path file;
+    private final StoredCatalog initial;
+
+    public CatalogSnapshotStore(@Value("${poster.catalog.snapshot-file:cache/catalog.snap}") String file) {
+        this.file = file == null || file.isBlank() ? null : Path.of(file);
+        this.initial = this.file != null ? load(this.file).orElse(null) : null;
+    }
+
+    /**
+     * Açılışta okunan snapshot; dosya yoksa veya bozuksa boş.
+     */
+    public Optional<StoredCatalog> initial() {
+        return Optional.ofNullable(initial);
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    /**
+     * Geçici dosyaya yazıp fsync eder, sonra atomik olarak yerine koyar.
+     */
+    public synchronized void write(List<Product> remote, Collection<Product> custom) {
+        if (file == null) return;
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, ".tmp-", ".snap");
+            try (FileOutputStream fos = new FileOutputStream(tmp.toFile())) {
+                CRC32 crc = new CRC32();
+                DataOutputStream out = new DataOutputStream(
+                        new CheckedOutputStream(new BufferedOutputStream(fos, 64 * 1024), crc));
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(System.currentTimeMillis());
+                writeProducts(out, remote);
+                writeProducts(out, custom);
+                out.flush();
+                // CRC gövdeye dahil değil; doğrudan alttaki stream'e yaz
+                new DataOutputStream(fos).writeLong(crc.getValue());
+                fos.getFD().sync();
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(tmp);
+                throw e;
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write catalog snapshot " + file, e);
+        }
+    }
+
+    private static void writeProducts(DataOutputStream out, Collection<Product> products) throws IOException {
+        out.writeInt(products.size());
+        for (Product p : products) {
+            ProductCodec.write(out, p);
+        }
+    }
+
+    private static Optional<StoredCatalog> load(Path file) {
+        if (!Files.isRegularFile(file)) return Optional.empty();
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Integer.BYTES * 2 + Long.BYTES * 2) {
+                log.warn("Ignoring truncated catalog snapshot {}", file);
+                return Optional.empty();
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int bodyLength = (int) (size - Long.BYTES);
+
+            CRC32 crc = new CRC32();
+            crc.update(mapped.slice(0, bodyLength));
+            if (crc.getValue() != mapped.getLong(bodyLength)) {
+                log.warn("Ignoring catalog snapshot {} with bad checksum", file);
+                return Optional.empty();
+            }
+
+            ByteBuffer in = mapped.slice(0, bodyLength);
+            int magic = in.getInt();
+            int version = in.getInt();
+            if (magic != MAGIC || version < 1 || version > FORMAT_VERSION) {
+                log.warn("Ignoring catalog snapshot {} with unknown format", file);
+                return Optional.empty();
+            }
+            Instant writtenAt = Instant.ofEpochMilli(in.getLong());
+            Map<String, String> categories = new HashMap<>();
+            List<Product> remote = readProducts(in, categories, version);
+            List<Product> custom = readProducts(in, categories, version);
+            log.info("Loaded catalog snapshot from {} ({} remote, {} custom products, written {}) in {} ms",
+                    file, remote.size(), custom.size(), writtenAt, (System.nanoTime() - started) / 1_000_000);
+            return Optional.of(new StoredCatalog(writtenAt, remote, custom));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to load catalog snapshot {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    private static List<Product> readProducts(ByteBuffer in, Map<String, String> categories, int version) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining()) {
+            throw new IllegalStateException("Corrupt product count " + count);
+        }
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(ProductCodec.read(in, categories, version));
+        }
+        return products;
+    }
+}
@@ -2,32 +2,57 @@ package com.megagastro.poster.repository;
 
 import com.megagastro.poster.model.Product;
 import com.megagastro.poster.model.ProductSource;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Custom ürünler; kalıcılık CustomProductStore'daki write-ahead log ile sağlanır.
+ * save() döndüğünde ürün diske fsync edilmiştir.
+ */
 @Repository
 public class CustomProductRepository {
 
-    private final Map<String, Product> store = new ConcurrentHashMap<>();
+    private final CustomProductStore store;
+    private final AtomicLong version = new AtomicLong();
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CustomProductRepository(ApplicationEventPublisher eventPublisher,
+                                   CustomProductStore store,
+                                   CatalogSnapshotStore snapshotStore) {
+        this.eventPublisher = eventPublisher;
+        this.store = store;
+        // Log'dan önceki sürümlerde custom ürünler sadece katalog snapshot'ında tutuluyordu; bir kez taşınır
+        if (store.size() == 0) {
+            snapshotStore.initial().ifPresent(stored -> stored.custom().forEach(store::append));
+        }
+    }
 
     public Product save(Product p) {
         if (p.getId() == null || p.getId().isEmpty()) {
             p.setId(UUID.randomUUID().toString());
         }
         p.setSource(ProductSource.CUSTOM);
-        store.put(p.getId(), p);
+        store.append(p);
+        version.incrementAndGet();
+        eventPublisher.publishEvent(new CustomProductSavedEvent(p));
         return p;
     }
 
+    /**
+     * Her save'de artan sayaç; katalog snapshot'ının eskiyip eskimediğini anlamak için.
+     */
+    public long version() {
+        return version.get();
+    }
+
     public Optional<Product> findById(String id) {
-        return Optional.ofNullable(store.get(id));
+        return store.findById(id);
     }
 
     public List<Product> findAll() {
-        return new ArrayList<>(store.values());
+        return store.findAll();
     }
 }
-
-
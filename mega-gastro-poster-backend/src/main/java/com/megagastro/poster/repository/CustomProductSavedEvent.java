@@ -0,0 +1,10 @@
+package com.megagastro.poster.repository;
+
+import com.megagastro.poster.model.Product;
+
+/**
+ * CustomProductRepository.save sonrası yayınlanır; arama index'i gibi
+ * türetilmiş yapılar kendini artımlı olarak günceller.
+ */
+public record CustomProductSavedEvent(Product product) {
+}
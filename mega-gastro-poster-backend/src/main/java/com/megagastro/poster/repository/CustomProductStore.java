@@ -0,0 +1,451 @@
+package com.megagastro.poster.repository;
+
+import com.megagastro.poster.model.Product;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Custom ürünler için write-ahead log'lu kalıcı depo.
+ * - Her save önce WAL segmentine eklenir ve fsync edilir, sonra bellekteki duruma uygulanır
+ * - Aynı anda gelen yazmalar tek write + tek fsync ile işlenir (group commit)
+ * - Periyodik compaction tüm durumu snapshot dosyasına yazar ve eski segmentleri siler
+ * - Açılışta snapshot + kalan segmentler okunur; yarım kalan son kayıt kesilip atılır
+ *
+ * Segment: magic + ProductCodec sürümü başlığı (sürüm 1 segmentlerinde başlık yok), ardından kayıtlar.
+ * Segment kaydı: [uzunluk int][crc32 int][ProductCodec gövdesi].
+ * Snapshot: magic, format versiyonu, kapsadığı ilk segment no, ürün sayısı + ürünler, CRC32.
+ * Format versiyonu ProductCodec sürümüyle aynıdır; eski sürümle yazılmış dosyalar okunmaya devam eder.
+ */
+@Component
+public class CustomProductStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomProductStore.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x4D474350; // "MGCP"
+    private static final int SEGMENT_MAGIC = 0x4D47574C; // "MGWL"
+    private static final int FORMAT_VERSION = ProductCodec.FORMAT_VERSION;
+    private static final String SNAPSHOT_FILE = "products.snap";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("wal-(\\d{10})\\.wal");
+    private static final int RECORD_HEADER = Integer.BYTES * 2;
+    private static final int SEGMENT_HEADER = Integer.BYTES * 2;
+
+    private final Path dir;
+    private final Map<String, Product> state = new ConcurrentHashMap<>();
+    private final Object commitLock = new Object();
+    private final Thread flusher;
+
+    // pending yalnızca kendi monitor'ü altında; kalanlar commitLock altında
+    private final List<PendingWrite> pending = new ArrayList<>();
+    private FileChannel segment;
+    private long segmentNo;
+    private long segmentRecords;
+    private long commits;
+    private boolean snapshotStale;
+    private volatile boolean closed;
+
+    public CustomProductStore(@Value("${poster.custom-products.data-dir:data/custom-products}") String dataDir) {
+        this.dir = Path.of(dataDir);
+        try {
+            Files.createDirectories(dir);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open custom product store " + dir, e);
+        }
+        this.flusher = new Thread(this::flushLoop, "custom-product-wal");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public Optional<Product> findById(String id) {
+        return Optional.ofNullable(id != null ? state.get(id) : null);
+    }
+
+    public List<Product> findAll() {
+        return new ArrayList<>(state.values());
+    }
+
+    public int size() {
+        return state.size();
+    }
+
+    /**
+     * Başarılı group commit (write + fsync) sayısı.
+     */
+    long commitCount() {
+        synchronized (commitLock) {
+            return commits;
+        }
+    }
+
+    /**
+     * Ürünü log'a ekler ve fsync tamamlanana kadar bekler.
+     * Dönüşte ürün hem diskte hem findById/findAll'da görünür.
+     */
+    public void append(Product p) {
+        byte[] record = encode(p);
+        PendingWrite write = new PendingWrite(p, record, new CompletableFuture<>());
+        synchronized (pending) {
+            if (closed) throw new IllegalStateException("Custom product store is closed");
+            pending.add(write);
+            pending.notifyAll();
+        }
+        try {
+            write.done().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while saving custom product", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to save custom product", e.getCause());
+        }
+    }
+
+    /**
+     * Tek flusher thread: bekleyen tüm yazmaları alır, tek seferde yazar ve bir kez fsync eder.
+     * fsync sürerken gelen yazmalar bir sonraki gruba birikir.
+     */
+    private void flushLoop() {
+        while (true) {
+            List<PendingWrite> batch;
+            synchronized (pending) {
+                while (pending.isEmpty() && !closed) {
+                    try {
+                        pending.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (pending.isEmpty()) return;
+                batch = new ArrayList<>(pending);
+                pending.clear();
+            }
+            commit(batch);
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(batch.get(i).record());
+        }
+        synchronized (commitLock) {
+            long start = -1;
+            try {
+                start = segment.size();
+                while (hasRemaining(buffers)) {
+                    segment.write(buffers);
+                }
+                segment.force(false);
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to commit {} custom product(s) to WAL", batch.size(), e);
+                discardPartialWrite(start);
+                for (PendingWrite w : batch) {
+                    w.done().completeExceptionally(e);
+                }
+                return;
+            }
+            segmentRecords += batch.size();
+            commits++;
+            for (PendingWrite w : batch) {
+                state.put(w.product().getId(), w.product());
+            }
+        }
+        for (PendingWrite w : batch) {
+            w.done().complete(null);
+        }
+    }
+
+    /**
+     * Yarım yazılan grup kesilir; aksi halde sonraki kayıtlar kurtarmada bozuk kaydın arkasında kalırdı.
+     */
+    private void discardPartialWrite(long start) {
+        if (start < 0) return;
+        try {
+            segment.truncate(start);
+        } catch (IOException e) {
+            log.error("Failed to truncate custom product WAL after write error", e);
+        }
+    }
+
+    /**
+     * Bellekteki durumu snapshot'a yazar ve artık gerekmeyen segmentleri siler.
+     * Yeni segmente geçiş commitLock altında yapılır; o ana kadar commit edilen her kayıt
+     * snapshot'a girer, sonrakiler yeni segmente yazılır.
+     */
+    @Scheduled(fixedDelayString = "${poster.custom-products.compaction-interval:PT10M}",
+            initialDelayString = "${poster.custom-products.compaction-interval:PT10M}")
+    public synchronized void compact() {
+        List<Product> products;
+        long firstLiveSegment;
+        synchronized (commitLock) {
+            if (closed || (segmentRecords == 0 && !snapshotStale)) return;
+            products = new ArrayList<>(state.values());
+            try {
+                segment.close();
+                openSegment(segmentNo + 1);
+            } catch (IOException e) {
+                log.error("Failed to roll custom product WAL segment", e);
+                return;
+            }
+            firstLiveSegment = segmentNo;
+            snapshotStale = true;
+        }
+        try {
+            writeSnapshot(products, firstLiveSegment);
+            deleteSegmentsBefore(firstLiveSegment);
+            synchronized (commitLock) {
+                snapshotStale = false;
+            }
+            log.info("Compacted custom product store ({} products)", products.size());
+        } catch (IOException e) {
+            // Eski snapshot ve segmentler yerinde; bir sonraki compaction tekrar dener
+            log.error("Failed to write custom product snapshot", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (pending) {
+            closed = true;
+            pending.notifyAll();
+        }
+        try {
+            flusher.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (commitLock) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                log.warn("Failed to close custom product WAL", e);
+            }
+        }
+    }
+
+    private void recover() throws IOException {
+        long firstLiveSegment = readSnapshot();
+        List<Long> segments = listSegments();
+        long replayed = 0;
+        long last = firstLiveSegment;
+        for (long no : segments) {
+            if (no < firstLiveSegment) {
+                Files.deleteIfExists(segmentPath(no));
+                continue;
+            }
+            replayed += replaySegment(segmentPath(no));
+            last = Math.max(last, no);
+        }
+        // Her açılış yeni segmentle başlar; kurtarılan segmentler ilk compaction'da silinir
+        openSegment(segments.isEmpty() ? firstLiveSegment : last + 1);
+        snapshotStale = replayed > 0;
+        if (replayed > 0 || !state.isEmpty()) {
+            log.info("Recovered {} custom products ({} log records replayed)", state.size(), replayed);
+        }
+    }
+
+    /**
+     * @return snapshot'ın kapsamadığı ilk segment no (snapshot yoksa 0)
+     */
+    private long readSnapshot() throws IOException {
+        Path file = dir.resolve(SNAPSHOT_FILE);
+        if (!Files.isRegularFile(file)) return 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Integer.BYTES * 3 + Long.BYTES * 2) {
+                throw new IOException("Custom product snapshot " + file + " is truncated");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int bodyLength = (int) (size - Long.BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(mapped.slice(0, bodyLength));
+            if (crc.getValue() != mapped.getLong(bodyLength)) {
+                // Snapshot atomik yazıldığı için bu ancak disk bozulmasıyla olur; sessizce veri kaybetme
+                throw new IOException("Custom product snapshot " + file + " has a bad checksum");
+            }
+            ByteBuffer in = mapped.slice(0, bodyLength);
+            int magic = in.getInt();
+            int version = in.getInt();
+            if (magic != SNAPSHOT_MAGIC || version < 1 || version > FORMAT_VERSION) {
+                throw new IOException("Custom product snapshot " + file + " has an unknown format");
+            }
+            long firstLiveSegment = in.getLong();
+            int count = in.getInt();
+            Map<String, String> categories = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                Product p = ProductCodec.read(in, categories, version);
+                state.put(p.getId(), p);
+            }
+            return firstLiveSegment;
+        }
+    }
+
+    /**
+     * Segmenti baştan okur; yarım veya bozuk bir kayıtta durur ve dosyayı oradan keser
+     * (fsync'i tamamlanmamış, yani kimseye başarılı dönülmemiş yazmalar).
+     */
+    private long replaySegment(Path file) throws IOException {
+        long records = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size == 0) return 0;
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int version = 1;
+            if (size >= SEGMENT_HEADER && in.getInt(0) == SEGMENT_MAGIC) {
+                version = in.getInt(Integer.BYTES);
+                if (version < 1 || version > FORMAT_VERSION) {
+                    throw new IOException("WAL segment " + file + " has unknown format version " + version);
+                }
+                in.position(SEGMENT_HEADER);
+            }
+            Map<String, String> categories = new HashMap<>();
+            int validEnd = in.position();
+            while (in.remaining() >= RECORD_HEADER) {
+                int length = in.getInt();
+                int checksum = in.getInt();
+                if (length <= 0 || length > in.remaining()) break;
+                ByteBuffer body = in.slice(in.position(), length);
+                CRC32 crc = new CRC32();
+                crc.update(body.duplicate());
+                if ((int) crc.getValue() != checksum) break;
+                Product p = ProductCodec.read(body, categories, version);
+                state.put(p.getId(), p);
+                in.position(in.position() + length);
+                validEnd = in.position();
+                records++;
+            }
+            if (validEnd < size) {
+                log.warn("Truncating torn tail of {} at offset {} (size {})", file, validEnd, size);
+                channel.truncate(validEnd);
+                channel.force(true);
+            }
+        }
+        return records;
+    }
+
+    private void writeSnapshot(List<Product> products, long firstLiveSegment) throws IOException {
+        Path target = dir.resolve(SNAPSHOT_FILE);
+        Path tmp = Files.createTempFile(dir, ".tmp-", ".snap");
+        try (FileOutputStream fos = new FileOutputStream(tmp.toFile())) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(
+                    new CheckedOutputStream(new BufferedOutputStream(fos, 64 * 1024), crc));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(firstLiveSegment);
+            out.writeInt(products.size());
+            for (Product p : products) {
+                ProductCodec.write(out, p);
+            }
+            out.flush();
+            new DataOutputStream(fos).writeLong(crc.getValue());
+            fos.getFD().sync();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+    }
+
+    private void openSegment(long no) throws IOException {
+        segment = FileChannel.open(segmentPath(no),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (segment.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER)
+                    .putInt(SEGMENT_MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .flip();
+            while (header.hasRemaining()) {
+                segment.write(header);
+            }
+            segment.force(false);
+        }
+        segmentNo = no;
+        segmentRecords = 0;
+        syncDirectory();
+    }
+
+    private void deleteSegmentsBefore(long no) throws IOException {
+        for (long s : listSegments()) {
+            if (s < no) Files.deleteIfExists(segmentPath(s));
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> result = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(p -> {
+                Matcher m = SEGMENT_NAME.matcher(p.getFileName().toString());
+                if (m.matches()) result.add(Long.parseLong(m.group(1)));
+            });
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private Path segmentPath(long no) {
+        return dir.resolve(String.format("wal-%010d.wal", no));
+    }
+
+    /**
+     * Yeni oluşturulan/taşınan dosyanın dizin girişi de kalıcı olsun (Linux'ta desteklenir).
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Directory fsync not supported for {}", dir);
+        }
+    }
+
+    private static byte[] encode(Product p) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0);
+            out.writeInt(0);
+            ProductCodec.write(out, p);
+            byte[] record = bytes.toByteArray();
+            int length = record.length - RECORD_HEADER;
+            CRC32 crc = new CRC32();
+            crc.update(record, RECORD_HEADER, length);
+            ByteBuffer.wrap(record).putInt(length).putInt((int) crc.getValue());
+            return record;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean hasRemaining(ByteBuffer[] buffers) {
+        for (ByteBuffer b : buffers) {
+            if (b.hasRemaining()) return true;
+        }
+        return false;
+    }
+
+    private record PendingWrite(Product product, byte[] record, CompletableFuture<Void> done) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.megagastro.poster.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Bitmiş poster PDF'leri.
+ * Bellekte boyut sınırlı tutulur; sınır aşılınca en eski girişler diske taşınır.
+ * Hem bellek hem disk girişleri put'tan TTL sonra silinir; diske taşınan dosya put zamanını taşır.
+ */
+@Repository
+public class PosterResultStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PosterResultStore.class);
+
+    private final Path spillDir;
+    private final Duration ttl;
+    private final Cache<String, StoredPdf> memory;
+
+    public PosterResultStore(@Value("${poster.jobs.result-dir:cache/posters}") String spillDir,
+                             @Value("${poster.jobs.result-ttl:1h}") Duration ttl,
+                             @Value("${poster.jobs.max-memory-size:64MB}") DataSize maxMemorySize) {
+        this.spillDir = Path.of(spillDir);
+        this.ttl = ttl;
+        try {
+            Files.createDirectories(this.spillDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create poster result dir " + spillDir, e);
+        }
+        this.memory = Caffeine.newBuilder()
+                .maximumWeight(maxMemorySize.toBytes())
+                .weigher((String id, StoredPdf stored) -> stored.pdf().length)
+                .expireAfterWrite(ttl)
+                // Boyut yüzünden çıkarılan sonuç kaybolmasın, diske yazılsın
+                .evictionListener((String id, StoredPdf stored, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE && id != null && stored != null) {
+                        spill(id, stored);
+                    }
+                })
+                .build();
+    }
+
+    public void put(String id, byte[] pdf) {
+        memory.put(id, new StoredPdf(pdf, Instant.now()));
+    }
+
+    public Optional<Resource> find(String id) {
+        StoredPdf stored = memory.getIfPresent(id);
+        if (stored != null) {
+            return Optional.of(new ByteArrayResource(stored.pdf()));
+        }
+        // cleanup() henüz silmediyse de süresi dolmuş dosya verilmez
+        Path file = spillPath(id);
+        if (Files.isRegularFile(file) && !isOlderThan(file, Instant.now().minus(ttl))) {
+            return Optional.of(new FileSystemResource(file));
+        }
+        return Optional.empty();
+    }
+
+    private void spill(String id, StoredPdf stored) {
+        Path target = spillPath(id);
+        try {
+            Path tmp = Files.createTempFile(spillDir, ".tmp-", ".pdf");
+            Files.write(tmp, stored.pdf());
+            // TTL diske taşındığı andan değil put'tan sayılır
+            Files.setLastModifiedTime(tmp, FileTime.from(stored.storedAt()));
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to spill poster result {} to disk", id, e);
+        }
+    }
+
+    private Path spillPath(String id) {
+        // id UUID; yine de dizin dışına çıkılmasın
+        return spillDir.resolve(id.replaceAll("[^a-zA-Z0-9-]", "_") + ".pdf");
+    }
+
+    @Scheduled(fixedDelayString = "${poster.jobs.cleanup-interval:PT5M}")
+    public void cleanup() {
+        memory.cleanUp();
+        Instant cutoff = Instant.now().minus(ttl);
+        try (Stream<Path> files = Files.list(spillDir)) {
+            files.filter(p -> isOlderThan(p, cutoff)).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException e) {
+                    log.debug("Failed to delete expired poster result {}", p);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to clean up poster results in {}", spillDir, e);
+        }
+    }
+
+    private record StoredPdf(byte[] pdf, Instant storedAt) {
+    }
+
+    private static boolean isOlderThan(Path p, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(p).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
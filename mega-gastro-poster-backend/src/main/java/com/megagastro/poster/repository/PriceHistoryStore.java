@@ -0,0 +1,253 @@
+package com.megagastro.poster.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Ürün ID'sine göre fiyat geçmişi (bkz. PriceSeries).
+ * Fiyatlar cent, zamanlar epoch saniye olarak tutulur; aynı fiyat tekrar kaydedilirse nokta eklenmez.
+ *
+ * Dosya formatı: magic, format versiyonu, yazılma zamanı, seri sayısı, her seri için
+ * ID + nokta sayısı + kodlanmış gövde; sonda gövdenin CRC32'si. Bozuk dosya yok sayılır.
+ */
+@Repository
+public class PriceHistoryStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceHistoryStore.class);
+
+    private static final int MAGIC = 0x4D475048; // "MGPH"
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Bir pencere içindeki fiyat özeti (cent değil, para birimi cinsinden).
+     */
+    public record Window(double min, double max, double start, double end, int points) {
+    }
+
+    /**
+     * Tek fiyat noktası; bir sonraki noktaya kadar geçerlidir.
+     */
+    public record Point(Instant at, double priceCurrent, double priceOriginal) {
+    }
+
+    /**
+     * Tüm serileri taramak için; seri başına nesne üretilmez.
+     */
+    @FunctionalInterface
+    public interface WindowVisitor {
+        void visit(String productId, double min, double max, double start, double end);
+    }
+
+    private final Path file;
+    private final Map<String, PriceSeries> series = new ConcurrentHashMap<>();
+    private final AtomicLong observations = new AtomicLong();
+
+    public PriceHistoryStore(@Value("${poster.price-history.file:data/price-history.bin}") String file) {
+        this.file = file == null || file.isBlank() ? null : Path.of(file);
+        if (this.file != null) load(this.file);
+    }
+
+    /**
+     * @return fiyat değiştiği için yeni nokta eklendiyse true
+     */
+    public boolean record(String productId, Instant at, double priceCurrent, double priceOriginal) {
+        if (productId == null) return false;
+        boolean added = series.computeIfAbsent(productId, id -> new PriceSeries())
+                .append(at.getEpochSecond(), toCents(priceCurrent), toCents(priceOriginal));
+        if (added) observations.incrementAndGet();
+        return added;
+    }
+
+    public Optional<Window> window(String productId, Instant from, Instant to) {
+        PriceSeries s = series.get(productId);
+        long[] out = new long[5];
+        if (s == null || !s.window(from.getEpochSecond(), to.getEpochSecond(), out)) {
+            return Optional.empty();
+        }
+        return Optional.of(toWindow(out));
+    }
+
+    /**
+     * Tüm seriler için pencere özetini ziyaret eder; pencerede fiyatı olmayan seriler atlanır.
+     * Tek bir geçici dizi kullanılır, seri başına çözümleme en yakın checkpoint'ten başlar.
+     */
+    public void forEachWindow(Instant from, Instant to, WindowVisitor visitor) {
+        long f = from.getEpochSecond();
+        long t = to.getEpochSecond();
+        long[] out = new long[5];
+        for (Map.Entry<String, PriceSeries> e : series.entrySet()) {
+            if (e.getValue().window(f, t, out)) {
+                visitor.visit(e.getKey(), fromCents(out[0]), fromCents(out[1]),
+                        fromCents(out[2]), fromCents(out[3]));
+            }
+        }
+    }
+
+    public List<Point> points(String productId, Instant from, Instant to) {
+        PriceSeries s = series.get(productId);
+        if (s == null) return List.of();
+        List<Point> points = new ArrayList<>();
+        s.forEach(from.getEpochSecond(), to.getEpochSecond(), (time, current, original) ->
+                points.add(new Point(Instant.ofEpochSecond(time), fromCents(current), fromCents(original))));
+        return points;
+    }
+
+    public int seriesCount() {
+        return series.size();
+    }
+
+    public long observationCount() {
+        return observations.get();
+    }
+
+    /**
+     * cutoff'tan eski noktaları atar; cutoff anında geçerli olan son nokta taban olarak kalır.
+     * Artık katalogda olmayan ve son değişikliği cutoff'tan eski seriler tamamen silinir.
+     */
+    public void trim(Instant cutoff, Predicate<String> live) {
+        long c = cutoff.getEpochSecond();
+        long removedPoints = 0;
+        for (Map.Entry<String, PriceSeries> e : series.entrySet()) {
+            PriceSeries s = e.getValue();
+            if (s.lastTime() < c && !live.test(e.getKey())) {
+                if (series.remove(e.getKey(), s)) removedPoints += s.count();
+                continue;
+            }
+            removedPoints += s.trimBefore(c);
+        }
+        observations.addAndGet(-removedPoints);
+    }
+
+    /**
+     * Geçici dosyaya yazıp fsync eder, sonra atomik olarak yerine koyar.
+     */
+    public synchronized void write() {
+        if (file == null) return;
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, ".tmp-", ".bin");
+            try (FileOutputStream fos = new FileOutputStream(tmp.toFile())) {
+                CRC32 crc = new CRC32();
+                DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                        new BufferedOutputStream(fos, 64 * 1024), crc));
+                // Yazım sırasında eklenen seriler bir sonraki yazıma kalır
+                List<Map.Entry<String, PriceSeries>> entries = new ArrayList<>(series.entrySet());
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(entries.size());
+                for (Map.Entry<String, PriceSeries> e : entries) {
+                    byte[] id = e.getKey().getBytes(StandardCharsets.UTF_8);
+                    byte[] body;
+                    int points;
+                    PriceSeries s = e.getValue();
+                    synchronized (s) {
+                        points = s.count();
+                        body = s.encoded();
+                    }
+                    out.writeInt(id.length);
+                    out.write(id);
+                    out.writeInt(points);
+                    out.writeInt(body.length);
+                    out.write(body);
+                }
+                out.flush();
+                new DataOutputStream(fos).writeLong(crc.getValue());
+                fos.getFD().sync();
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(tmp);
+                throw e;
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write price history " + file, e);
+        }
+    }
+
+    private void load(Path file) {
+        if (!Files.isRegularFile(file)) return;
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Integer.BYTES * 3 + Long.BYTES * 2) {
+                log.warn("Ignoring truncated price history {}", file);
+                return;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int bodyLength = (int) (size - Long.BYTES);
+
+            CRC32 crc = new CRC32();
+            crc.update(mapped.slice(0, bodyLength));
+            if (crc.getValue() != mapped.getLong(bodyLength)) {
+                log.warn("Ignoring price history {} with bad checksum", file);
+                return;
+            }
+
+            ByteBuffer in = mapped.slice(0, bodyLength);
+            if (in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION) {
+                log.warn("Ignoring price history {} with unknown format", file);
+                return;
+            }
+            in.getLong();
+            int count = in.getInt();
+            Map<String, PriceSeries> loaded = new HashMap<>(Math.max(16, count * 4 / 3 + 1));
+            long points = 0;
+            for (int i = 0; i < count; i++) {
+                String id = StandardCharsets.UTF_8.decode(slice(in, in.getInt())).toString();
+                int seriesPoints = in.getInt();
+                ByteBuffer body = slice(in, in.getInt());
+                byte[] encoded = new byte[body.remaining()];
+                body.get(encoded);
+                loaded.put(id, PriceSeries.decode(encoded, seriesPoints));
+                points += seriesPoints;
+            }
+            series.putAll(loaded);
+            observations.set(points);
+            log.info("Loaded price history from {} ({} products, {} points) in {} ms",
+                    file, loaded.size(), points, (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to load price history {}", file, e);
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer in, int length) {
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalStateException("Corrupt length " + length);
+        }
+        ByteBuffer slice = in.slice(in.position(), length);
+        in.position(in.position() + length);
+        return slice;
+    }
+
+    private static Window toWindow(long[] out) {
+        return new Window(fromCents(out[0]), fromCents(out[1]), fromCents(out[2]), fromCents(out[3]), (int) out[4]);
+    }
+
+    private static long toCents(double price) {
+        return Math.round(price * 100);
+    }
+
+    private static double fromCents(long cents) {
+        return cents / 100.0;
+    }
+}
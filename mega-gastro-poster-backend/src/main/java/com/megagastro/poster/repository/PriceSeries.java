@@ -0,0 +1,268 @@
+package com.megagastro.poster.repository;
+
+import java.util.Arrays;
+
+/**
+ * Tek ürünün fiyat geçmişi; sadece fiyatın değiştiği noktalar saklanır
+ * (bir nokta, sonraki noktaya kadar geçerlidir).
+ *
+ * Noktalar tek bir byte dizisinde varint olarak tutulur: önceki noktaya göre
+ * zaman farkı (saniye) ve zigzag kodlu fiyat farkları (cent). Her 32 noktada bir
+ * checkpoint alınır; pencere sorguları baştan değil en yakın checkpoint'ten çözmeye başlar.
+ */
+final class PriceSeries {
+
+    static final int CHECKPOINT_INTERVAL = 32;
+
+    private byte[] data = new byte[16];
+    private int length;
+    private int count;
+
+    // Checkpoint k: CHECKPOINT_INTERVAL * k. noktanın ofseti, zamanı ve ondan önceki noktanın değerleri
+    private int[] cpOffset = new int[1];
+    private long[] cpTime = new long[1];
+    private long[] cpPrevTime = new long[1];
+    private long[] cpPrevCurrent = new long[1];
+    private long[] cpPrevOriginal = new long[1];
+
+    private long lastTime;
+    private long lastCurrent;
+    private long lastOriginal;
+
+    /**
+     * Fiyat son noktayla aynıysa (veya zaman geriye gidiyorsa) nokta eklenmez.
+     *
+     * @return yeni nokta eklendiyse true
+     */
+    synchronized boolean append(long time, long current, long original) {
+        if (count > 0 && (time < lastTime || (current == lastCurrent && original == lastOriginal))) {
+            return false;
+        }
+        if (count % CHECKPOINT_INTERVAL == 0) {
+            int k = count / CHECKPOINT_INTERVAL;
+            if (k == cpOffset.length) {
+                int n = k * 2;
+                cpOffset = Arrays.copyOf(cpOffset, n);
+                cpTime = Arrays.copyOf(cpTime, n);
+                cpPrevTime = Arrays.copyOf(cpPrevTime, n);
+                cpPrevCurrent = Arrays.copyOf(cpPrevCurrent, n);
+                cpPrevOriginal = Arrays.copyOf(cpPrevOriginal, n);
+            }
+            cpOffset[k] = length;
+            cpTime[k] = time;
+            cpPrevTime[k] = lastTime;
+            cpPrevCurrent[k] = lastCurrent;
+            cpPrevOriginal[k] = lastOriginal;
+        }
+        ensureCapacity(3 * 10);
+        writeVarLong(time - lastTime);
+        writeVarLong(zigzag(current - lastCurrent));
+        writeVarLong(zigzag(original - lastOriginal));
+        lastTime = time;
+        lastCurrent = current;
+        lastOriginal = original;
+        count++;
+        return true;
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    synchronized long lastTime() {
+        return lastTime;
+    }
+
+    synchronized long lastCurrent() {
+        return lastCurrent;
+    }
+
+    /**
+     * [from, to] aralığındaki fiyatlar; from anında geçerli olan nokta da dahildir.
+     * out: [0] min, [1] max, [2] pencere başındaki fiyat, [3] pencere sonundaki fiyat, [4] nokta sayısı.
+     *
+     * @return pencerede geçerli bir fiyat yoksa false
+     */
+    synchronized boolean window(long from, long to, long[] out) {
+        out[4] = 0;
+        if (count == 0) return false;
+        Cursor c = new Cursor(checkpointAtOrBefore(from));
+        long atFrom = 0;
+        boolean haveAtFrom = false;
+        while (c.next()) {
+            if (c.time > to) break;
+            if (c.time <= from) {
+                // Pencere başında geçerli olan fiyat; daha yeni bir "öncesi" gelirse değişir
+                atFrom = c.current;
+                haveAtFrom = true;
+                continue;
+            }
+            if (haveAtFrom) {
+                include(out, atFrom);
+                haveAtFrom = false;
+            }
+            include(out, c.current);
+        }
+        if (haveAtFrom) include(out, atFrom);
+        return out[4] > 0;
+    }
+
+    private static void include(long[] out, long value) {
+        if (out[4] == 0) {
+            out[0] = out[1] = out[2] = value;
+        } else {
+            out[0] = Math.min(out[0], value);
+            out[1] = Math.max(out[1], value);
+        }
+        out[3] = value;
+        out[4]++;
+    }
+
+    /**
+     * [from, to] aralığında görülen noktaları (from anında geçerli olan dahil) ziyaret eder.
+     */
+    synchronized void forEach(long from, long to, PointVisitor visitor) {
+        if (count == 0) return;
+        Cursor c = new Cursor(checkpointAtOrBefore(from));
+        boolean havePrevious = false;
+        long pTime = 0, pCurrent = 0, pOriginal = 0;
+        while (c.next()) {
+            if (c.time > to) break;
+            if (c.time <= from) {
+                havePrevious = true;
+                pTime = c.time;
+                pCurrent = c.current;
+                pOriginal = c.original;
+                continue;
+            }
+            if (havePrevious) {
+                visitor.visit(pTime, pCurrent, pOriginal);
+                havePrevious = false;
+            }
+            visitor.visit(c.time, c.current, c.original);
+        }
+        if (havePrevious) visitor.visit(pTime, pCurrent, pOriginal);
+    }
+
+    /**
+     * cutoff anında geçerli olan noktadan öncekileri atar; seri yerinde yeniden kodlanır.
+     *
+     * @return atılan nokta sayısı
+     */
+    synchronized int trimBefore(long cutoff) {
+        if (count < 2) return 0;
+        PriceSeries trimmed = new PriceSeries();
+        forEach(cutoff, Long.MAX_VALUE, trimmed::append);
+        int removed = count - trimmed.count;
+        if (removed <= 0) return 0;
+        data = trimmed.data;
+        length = trimmed.length;
+        count = trimmed.count;
+        cpOffset = trimmed.cpOffset;
+        cpTime = trimmed.cpTime;
+        cpPrevTime = trimmed.cpPrevTime;
+        cpPrevCurrent = trimmed.cpPrevCurrent;
+        cpPrevOriginal = trimmed.cpPrevOriginal;
+        return removed;
+    }
+
+    /**
+     * Kodlanmış gövdeyi kopyalar; dosyaya yazma ve yeniden kurma için.
+     */
+    synchronized byte[] encoded() {
+        return Arrays.copyOf(data, length);
+    }
+
+    /**
+     * encoded() çıktısından seriyi yeniden kurar; checkpoint'ler append sırasında oluşur.
+     */
+    static PriceSeries decode(byte[] encoded, int points) {
+        PriceSeries series = new PriceSeries();
+        int[] pos = {0};
+        long time = 0, current = 0, original = 0;
+        for (int i = 0; i < points; i++) {
+            time += readVarLong(encoded, pos);
+            current += unzigzag(readVarLong(encoded, pos));
+            original += unzigzag(readVarLong(encoded, pos));
+            series.append(time, current, original);
+        }
+        return series;
+    }
+
+    @FunctionalInterface
+    interface PointVisitor {
+        void visit(long time, long current, long original);
+    }
+
+    private int checkpointAtOrBefore(long time) {
+        int checkpoints = (count + CHECKPOINT_INTERVAL - 1) / CHECKPOINT_INTERVAL;
+        int lo = 0, hi = checkpoints - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (cpTime[mid] <= time) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /**
+     * Checkpoint'ten itibaren noktaları sırayla çözer.
+     */
+    private final class Cursor {
+        private final int[] pos;
+        private int index;
+        long time;
+        long current;
+        long original;
+
+        Cursor(int checkpoint) {
+            this.pos = new int[]{cpOffset[checkpoint]};
+            this.index = checkpoint * CHECKPOINT_INTERVAL;
+            this.time = cpPrevTime[checkpoint];
+            this.current = cpPrevCurrent[checkpoint];
+            this.original = cpPrevOriginal[checkpoint];
+        }
+
+        boolean next() {
+            if (index >= count) return false;
+            time += readVarLong(data, pos);
+            current += unzigzag(readVarLong(data, pos));
+            original += unzigzag(readVarLong(data, pos));
+            index++;
+            return true;
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+        }
+    }
+
+    private void writeVarLong(long v) {
+        while ((v & ~0x7FL) != 0) {
+            data[length++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        data[length++] = (byte) v;
+    }
+
+    private static long readVarLong(byte[] buf, int[] pos) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = buf[pos[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+            shift += 7;
+        }
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
@@ -0,0 +1,110 @@
+package com.megagastro.poster.repository;
+
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.model.ProductSource;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Product'ın dosyalar için ikili kodlaması.
+ * String'ler uzunluk önekli UTF-8 (-1 = null), sayılar bir "var mı" baytı ve değerle yazılır.
+ * Okuma ByteBuffer'dan yapılır; böylece memory-mapped dosyalar kopyalanmadan çözülür.
+ * Kodlama sürümlüdür; sürüm kayıtlarda değil onları taşıyan dosyanın başlığında tutulur.
+ * Yeni alanlar sona eklenir, eski sürüm okunurken eksik alanlar null kalır.
+ */
+public final class ProductCodec {
+
+    /**
+     * 1: ilk sürüm; 2: sona priceVersion eklendi.
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    private ProductCodec() {
+    }
+
+    public static void write(DataOutput out, Product p) throws IOException {
+        writeString(out, p.getId());
+        writeString(out, p.getName());
+        writeString(out, p.getUrl());
+        writeString(out, p.getImageUrl());
+        writeDouble(out, p.getPriceCurrent());
+        writeDouble(out, p.getPriceOriginal());
+        writeInt(out, p.getDiscountPct());
+        out.writeByte(p.getSource() != null ? p.getSource().ordinal() : -1);
+        writeString(out, p.getCategory());
+        writeInt(out, p.getPriceVersion());
+    }
+
+    public static Product read(ByteBuffer in, Map<String, String> categories) {
+        return read(in, categories, FORMAT_VERSION);
+    }
+
+    /**
+     * @param categories aynı kategori adları için tek String örneği paylaşılsın diye kullanılan tablo
+     * @param version      kaydın yazıldığı kodlama sürümü
+     */
+    public static Product read(ByteBuffer in, Map<String, String> categories, int version) {
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unknown product format version " + version);
+        }
+        Product.ProductBuilder b = Product.builder()
+                .id(readString(in))
+                .name(readString(in))
+                .url(readString(in))
+                .imageUrl(readString(in))
+                .priceCurrent(readDouble(in))
+                .priceOriginal(readDouble(in))
+                .discountPct(readInt(in));
+        byte source = in.get();
+        b.source(source >= 0 ? ProductSource.values()[source] : null);
+        String category = readString(in);
+        b.category(category != null ? categories.computeIfAbsent(category, c -> c) : null);
+        if (version >= 2) {
+            b.priceVersion(readInt(in));
+        }
+        return b.build();
+    }
+
+    private static void writeString(DataOutput out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeDouble(DataOutput out, Double d) throws IOException {
+        out.writeBoolean(d != null);
+        if (d != null) out.writeDouble(d);
+    }
+
+    private static void writeInt(DataOutput out, Integer i) throws IOException {
+        out.writeBoolean(i != null);
+        if (i != null) out.writeInt(i);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        if (length > in.remaining()) {
+            throw new IllegalStateException("Corrupt string length " + length);
+        }
+        String s = StandardCharsets.UTF_8.decode(in.slice(in.position(), length)).toString();
+        in.position(in.position() + length);
+        return s;
+    }
+
+    private static Double readDouble(ByteBuffer in) {
+        return in.get() != 0 ? in.getDouble() : null;
+    }
+
+    private static Integer readInt(ByteBuffer in) {
+        return in.get() != 0 ? in.getInt() : null;
+    }
+}
@@ -0,0 +1,348 @@
+package com.megagastro.poster.search;
+
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.util.TextNormalizer;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ürün isimleri üzerinde ters index.
+ * - token -> doküman listesi (tam eşleşme)
+ * - sıralı token sözlüğü (prefix eşleşme)
+ * - trigram -> doküman listesi (kelime içi eşleşme)
+ * Aynı ID ile tekrar eklenen ürün aynı dokümanı kullanır; ismi değişmediyse (ör. sadece fiyat
+ * güncellendi) token'lar yeniden üretilmez, değiştiyse eski token'ların posting'leri silinir.
+ * Silinen ürünün posting'leri de silinir ve doküman numarası sonraki yeni ürüne verilir;
+ * böylece aynı ürünler tekrar tekrar kaydedildikçe index büyümez.
+ */
+public class ProductSearchIndex {
+
+    private static final int SCORE_EXACT = 3;
+    private static final int SCORE_PREFIX = 2;
+    private static final int SCORE_INFIX = 1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<Product> docs = new ArrayList<>();
+    private final List<String[]> docTokens = new ArrayList<>();
+    private final BitSet deleted = new BitSet();
+    private final Deque<Integer> freeDocs = new ArrayDeque<>();
+    private final Map<String, Integer> docIdByProductId = new HashMap<>();
+
+    private final TreeMap<String, IntList> tokens = new TreeMap<>();
+    private final Map<String, IntList> trigrams = new HashMap<>();
+
+    public static ProductSearchIndex of(Collection<Product> products) {
+        ProductSearchIndex index = new ProductSearchIndex();
+        for (Product p : products) {
+            index.add(p);
+        }
+        return index;
+    }
+
+    /**
+     * Bağımsız kopya: token dizileri paylaşılır (eklendikten sonra değişmez), posting listeleri kopyalanır.
+     * İsimler yeniden token'lara ayrılmadığı için sıfırdan kurmaktan ucuzdur; yayınlanmış bir index'i
+     * okuyucular varken değiştirmek yerine kopyası güncellenir.
+     */
+    public ProductSearchIndex copy() {
+        ProductSearchIndex copy = new ProductSearchIndex();
+        lock.readLock().lock();
+        try {
+            copy.docs.addAll(docs);
+            copy.docTokens.addAll(docTokens);
+            copy.deleted.or(deleted);
+            copy.freeDocs.addAll(freeDocs);
+            copy.docIdByProductId.putAll(docIdByProductId);
+            tokens.forEach((term, postings) -> copy.tokens.put(term, postings.copy()));
+            trigrams.forEach((trigram, postings) -> copy.trigrams.put(trigram, postings.copy()));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return copy;
+    }
+
+    public void add(Product p) {
+        if (p == null) return;
+        lock.writeLock().lock();
+        try {
+            Integer previous = p.getId() != null ? docIdByProductId.get(p.getId()) : null;
+            if (previous != null && Objects.equals(docs.get(previous).getName(), p.getName())) {
+                docs.set(previous, p);
+                return;
+            }
+            String[] terms = tokenize(p.getName());
+            int doc;
+            if (previous != null) {
+                unindex(previous);
+                doc = previous;
+            } else if (!freeDocs.isEmpty()) {
+                doc = freeDocs.pop();
+                deleted.clear(doc);
+            } else {
+                doc = docs.size();
+                docs.add(null);
+                docTokens.add(null);
+            }
+            docs.set(doc, p);
+            docTokens.set(doc, terms);
+            if (p.getId() != null) docIdByProductId.put(p.getId(), doc);
+            for (String term : terms) {
+                tokens.computeIfAbsent(term, k -> new IntList()).insert(doc);
+                for (int i = 0; i + 3 <= term.length(); i++) {
+                    trigrams.computeIfAbsent(term.substring(i, i + 3), k -> new IntList()).insert(doc);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docIdByProductId.remove(productId);
+            if (doc == null) return;
+            unindex(doc);
+            docs.set(doc, null);
+            docTokens.set(doc, new String[0]);
+            deleted.set(doc);
+            freeDocs.push(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Dokümanı token ve trigram posting'lerinden çıkarır; boşalan listeler silinir (write lock altında).
+     */
+    private void unindex(int doc) {
+        for (String term : docTokens.get(doc)) {
+            removePosting(tokens, term, doc);
+            for (int i = 0; i + 3 <= term.length(); i++) {
+                removePosting(trigrams, term.substring(i, i + 3), doc);
+            }
+        }
+    }
+
+    private static void removePosting(Map<String, IntList> postings, String key, int doc) {
+        IntList list = postings.get(key);
+        if (list != null && list.remove(doc) && list.size == 0) postings.remove(key);
+    }
+
+    /**
+     * Boşta bekleyen (silinmiş, henüz yeni ürüne verilmemiş) doküman sayısı.
+     */
+    public int deletedCount() {
+        lock.readLock().lock();
+        try {
+            return deleted.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIdByProductId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sorgudaki tüm kelimeleri içeren ürünleri skora göre sıralı döner.
+     * Skor: tam kelime > kelime başı > kelime içi; eşitlikte kısa isim önce.
+     */
+    public List<Hit> search(String query, int limit) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0 || limit <= 0) return Collections.emptyList();
+
+        lock.readLock().lock();
+        try {
+            // En seçici kelimenin adaylarından başla, diğerlerini doküman token'larında doğrula
+            int[] candidates = null;
+            for (String term : terms) {
+                int[] docsForTerm = candidatesFor(term);
+                if (candidates == null || docsForTerm.length < candidates.length) {
+                    candidates = docsForTerm;
+                }
+                if (candidates.length == 0) return Collections.emptyList();
+            }
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, Hit.WORST_FIRST);
+            for (int doc : candidates) {
+                if (deleted.get(doc)) continue;
+                String[] docTerms = docTokens.get(doc);
+                int score = 0;
+                for (String term : terms) {
+                    int s = score(term, docTerms);
+                    if (s == 0) {
+                        score = 0;
+                        break;
+                    }
+                    score += s;
+                }
+                if (score == 0) continue;
+                top.add(new Hit(docs.get(doc), score, doc));
+                if (top.size() > limit) top.poll();
+            }
+
+            List<Hit> result = new ArrayList<>(top);
+            result.sort(Hit.WORST_FIRST.reversed());
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] candidatesFor(String term) {
+        if (term.length() < 3) {
+            IntList union = new IntList();
+            for (IntList postings : tokens.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+                union.addAll(postings);
+            }
+            return union.toSortedDistinctArray();
+        }
+        int[] result = null;
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            IntList postings = trigrams.get(term.substring(i, i + 3));
+            if (postings == null) return new int[0];
+            result = result == null ? postings.toArray() : IntList.intersect(result, postings);
+            if (result.length == 0) break;
+        }
+        return result;
+    }
+
+    private static int score(String term, String[] docTerms) {
+        int best = 0;
+        for (String t : docTerms) {
+            if (t.equals(term)) return SCORE_EXACT;
+            if (t.startsWith(term)) best = SCORE_PREFIX;
+            else if (best == 0 && term.length() >= 3 && t.contains(term)) best = SCORE_INFIX;
+        }
+        return best;
+    }
+
+    /**
+     * Katlanmış (aksansız, küçük harf) metni harf/rakam dışı karakterlerden böler.
+     */
+    static String[] tokenize(String text) {
+        String folded = TextNormalizer.fold(text).replace("ß", "ss");
+        List<String> out = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean word = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                out.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return out.toArray(new String[0]);
+    }
+
+    public record Hit(Product product, int score, int order) {
+
+        /**
+         * Farklı index'lerden gelen sonuçları birleştirmek için: skor, eşitlikte kısa isim önce.
+         * order index'e özel olduğu için kullanılmaz; stabil sıralamada girdi sırası korunur.
+         */
+        public static final Comparator<Hit> BEST_FIRST = Comparator
+                .comparingInt(Hit::score).reversed()
+                .thenComparingInt(Hit::nameLength);
+
+        static final Comparator<Hit> WORST_FIRST = Comparator
+                .comparingInt(Hit::score)
+                .thenComparing(Comparator.comparingInt(Hit::nameLength).reversed())
+                .thenComparing(Comparator.comparingInt(Hit::order).reversed());
+
+        private int nameLength() {
+            return product.getName() != null ? product.getName().length() : 0;
+        }
+    }
+
+    /**
+     * Sıralı ve tekrarsız doküman ID'leri için boxing'siz liste.
+     */
+    static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        /**
+         * Sırayı koruyarak ekler; yeni dokümanlar sona eklendiği için çoğunlukla arama yapılmaz.
+         */
+        void insert(int v) {
+            if (size == 0 || values[size - 1] < v) {
+                add(v);
+                return;
+            }
+            int at = Arrays.binarySearch(values, 0, size, v);
+            if (at >= 0) return;
+            at = -at - 1;
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            System.arraycopy(values, at, values, at + 1, size - at);
+            values[at] = v;
+            size++;
+        }
+
+        boolean remove(int v) {
+            int at = Arrays.binarySearch(values, 0, size, v);
+            if (at < 0) return false;
+            System.arraycopy(values, at + 1, values, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        void add(int v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+
+        void addAll(IntList other) {
+            for (int i = 0; i < other.size; i++) add(other.values[i]);
+        }
+
+        IntList copy() {
+            IntList copy = new IntList();
+            copy.values = Arrays.copyOf(values, Math.max(4, size));
+            copy.size = size;
+            return copy;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        int[] toSortedDistinctArray() {
+            int[] copy = toArray();
+            Arrays.sort(copy);
+            int n = 0;
+            for (int i = 0; i < copy.length; i++) {
+                if (n == 0 || copy[n - 1] != copy[i]) copy[n++] = copy[i];
+            }
+            return Arrays.copyOf(copy, n);
+        }
+
+        static int[] intersect(int[] a, IntList b) {
+            int[] out = new int[Math.min(a.length, b.size)];
+            int i = 0, j = 0, n = 0;
+            while (i < a.length && j < b.size) {
+                int x = a[i], y = b.values[j];
+                if (x == y) {
+                    out[n++] = x;
+                    i++;
+                    j++;
+                } else if (x < y) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.megagastro.poster.service;
+
+import com.megagastro.poster.dto.BatchPosterRequest;
+import com.megagastro.poster.dto.CategoryDto;
+import com.megagastro.poster.model.CatalogSnapshot;
+import com.megagastro.poster.model.PosterLayout;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.render.PdfRenderEngine;
+import com.megagastro.poster.render.RenderRejectedException;
+import com.megagastro.poster.util.TextNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Toplu poster üretimi.
+ * - Tüm posterler tek bir katalog snapshot'ı üzerinden çözülür (aynı fiyatlar, aynı ürünler)
+ * - Tüm görseller tek seferde paralel hazırlanır
+ * - Render'lar worker sayısı kadar eşzamanlı çalışır; biten PDF hemen ZIP'e yazılır
+ */
+@Service
+public class BatchPosterService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchPosterService.class);
+
+    private static final long RENDER_RETRY_DELAY_MS = 200;
+    private static final String ERRORS_ENTRY = "errors.txt";
+    // Async istek süresi dolmadan errors.txt yazılıp ZIP kapatılabilsin
+    private static final long ZIP_FINISH_MARGIN_MS = 2000;
+
+    private final PosterService posterService;
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final PdfRenderEngine renderEngine;
+    private final int maxPosters;
+    private final long renderWaitMillis;
+    private final long batchBudgetMillis;
+
+    public BatchPosterService(PosterService posterService,
+                              ProductService productService,
+                              CategoryService categoryService,
+                              PdfRenderEngine renderEngine,
+                              @Value("${poster.batch.max-posters:200}") int maxPosters,
+                              @Value("${poster.render.timeout:60s}") Duration renderWait,
+                              @Value("${spring.mvc.async.request-timeout:30s}") Duration requestTimeout) {
+        this.posterService = posterService;
+        this.productService = productService;
+        this.categoryService = categoryService;
+        this.renderEngine = renderEngine;
+        this.maxPosters = maxPosters;
+        this.renderWaitMillis = renderWait.toMillis();
+        // Negatif/sıfır: async istek süresi sınırsız
+        this.batchBudgetMillis = requestTimeout.isNegative() || requestTimeout.isZero()
+                ? Long.MAX_VALUE / 2
+                : Math.max(0, requestTimeout.toMillis() - ZIP_FINISH_MARGIN_MS);
+    }
+
+    /**
+     * Render edilecek poster; ürünler posterde basılacak olanlara indirgenmiştir.
+     */
+    public record PreparedPoster(String fileName, String title, int count, PosterLayout layout,
+                                 List<Product> products) {
+    }
+
+    /**
+     * İstekteki posterleri tek snapshot üzerinden çözer. Yanıt başlamadan önce çağrılır,
+     * böylece çözümleme hataları normal HTTP hatası olarak döner.
+     */
+    public List<PreparedPoster> prepare(BatchPosterRequest request) {
+        CatalogSnapshot snapshot = productService.snapshot();
+        int defaultCount = effectiveCount(request.getCount());
+        Set<String> usedNames = new HashSet<>();
+        List<PreparedPoster> prepared = new ArrayList<>();
+
+        if (request.getPosters() != null) {
+            for (BatchPosterRequest.Spec spec : request.getPosters()) {
+                if (prepared.size() >= maxPosters) break;
+                int count = spec.getCount() != null ? effectiveCount(spec.getCount()) : defaultCount;
+                String title = spec.getTitle() != null ? spec.getTitle() : request.getTitle();
+                List<Product> candidates = resolve(snapshot, spec);
+                String baseName = spec.getFileName() != null ? spec.getFileName()
+                        : title != null ? title : "poster-" + (prepared.size() + 1);
+                PosterLayout layout = spec.getLayout() != null ? spec.getLayout() : request.getLayout();
+                prepared.add(new PreparedPoster(uniqueFileName(baseName, usedNames), title, count, layout,
+                        posterService.selectPosterProducts(candidates, count)));
+            }
+        }
+
+        if (request.isAllCategories()) {
+            for (CategoryDto category : categoryService.getAllCategories()) {
+                if (prepared.size() >= maxPosters) break;
+                List<Product> candidates = productService.findByCategories(snapshot, List.of(category.key(), category.name()));
+                if (candidates.isEmpty()) continue;
+                String title = request.getTitle() != null && !request.getTitle().isBlank()
+                        ? request.getTitle() + " – " + category.name()
+                        : category.name();
+                prepared.add(new PreparedPoster(uniqueFileName(category.key(), usedNames), title, defaultCount,
+                        request.getLayout(),
+                        posterService.selectPosterProducts(candidates, defaultCount)));
+            }
+        }
+        return prepared;
+    }
+
+    /**
+     * Posterleri paralel render eder ve bitiş sırasıyla ZIP'e yazar.
+     * Başarısız, zaman aşımına uğrayan ya da async istek süresi içinde yetişmeyen posterler ZIP'in
+     * sonundaki errors.txt'de listelenir; ZIP her durumda düzgün kapatılır. Yanıta yazılamazsa
+     * (istemci gitti) süren render'lar iptal edilir.
+     */
+    public void writeZip(List<PreparedPoster> posters, OutputStream out) throws IOException {
+        long deadline = System.currentTimeMillis() + batchBudgetMillis;
+        posterService.prefetchImages(posters.stream().flatMap(p -> p.products().stream()).toList());
+
+        // PDF'ler zaten sıkıştırılmış; girdiler sıkıştırılmadan (STORED) yazılır, bkz. writeEntry
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+
+        Deque<PreparedPoster> pending = new ArrayDeque<>(posters);
+        BlockingQueue<Finished> finished = new LinkedBlockingQueue<>();
+        Map<String, CompletableFuture<byte[]>> running = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+        int window = Math.max(1, renderEngine.poolSize());
+        long rejectedSince = 0;
+        String stopReason = null;
+
+        try {
+            while (stopReason == null && (!pending.isEmpty() || !running.isEmpty())) {
+                if (System.currentTimeMillis() >= deadline) {
+                    stopReason = "Batch request timed out";
+                    break;
+                }
+                // Havuzu dolu tut ama kuyruğu diğer isteklerle paylaşmak için worker sayısını aşma
+                while (running.size() < window && !pending.isEmpty()) {
+                    PreparedPoster poster = pending.peekFirst();
+                    try {
+                        CompletableFuture<byte[]> render = posterService.renderPosterAsync(
+                                poster.title(), poster.products(), poster.count(), poster.layout());
+                        running.put(poster.fileName(), render);
+                        render.whenComplete((pdf, e) -> finished.add(new Finished(poster, pdf, e)));
+                    } catch (RenderRejectedException e) {
+                        if (!running.isEmpty()) break; // bir render bitince tekrar denenir
+                        long now = System.currentTimeMillis();
+                        if (rejectedSince == 0) rejectedSince = now;
+                        if (now - rejectedSince >= renderWaitMillis || now >= deadline) {
+                            pending.pollFirst();
+                            errors.add(poster.fileName() + ": " + e.getMessage());
+                            rejectedSince = 0;
+                            continue;
+                        }
+                        Thread.sleep(RENDER_RETRY_DELAY_MS);
+                        continue;
+                    }
+                    pending.pollFirst();
+                    rejectedSince = 0;
+                }
+                if (running.isEmpty()) continue;
+
+                long remaining = deadline - System.currentTimeMillis();
+                Finished result = finished.poll(Math.min(renderWaitMillis, remaining), TimeUnit.MILLISECONDS);
+                if (result == null) {
+                    stopReason = remaining > renderWaitMillis ? "PDF render timed out" : "Batch request timed out";
+                    continue;
+                }
+                running.remove(result.poster().fileName());
+                if (result.error() != null) {
+                    Throwable cause = result.error() instanceof CompletionException && result.error().getCause() != null
+                            ? result.error().getCause() : result.error();
+                    log.warn("Batch poster {} failed", result.poster().fileName(), cause);
+                    errors.add(result.poster().fileName() + ": " + cause.getMessage());
+                    continue;
+                }
+                writeEntry(zip, result.poster().fileName(), result.pdf());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopReason = "Interrupted while rendering batch posters";
+        } finally {
+            // Yanıt yazılamadıysa da worker'lar boşuna çalışmasın
+            running.values().forEach(render -> render.cancel(true));
+        }
+
+        if (stopReason != null) {
+            log.warn("Batch stopped with {} posters unfinished: {}", running.size() + pending.size(), stopReason);
+            for (String fileName : running.keySet()) errors.add(fileName + ": " + stopReason);
+            for (PreparedPoster poster : pending) errors.add(poster.fileName() + ": " + stopReason);
+        }
+        if (!errors.isEmpty()) {
+            writeEntry(zip, ERRORS_ENTRY, String.join("\n", errors).getBytes(StandardCharsets.UTF_8));
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    private List<Product> resolve(CatalogSnapshot snapshot, BatchPosterRequest.Spec spec) {
+        Map<String, Product> selected = new LinkedHashMap<>();
+        if (spec.getProductIds() != null) {
+            // Tekli posterle aynı: ID listesinden ilk 9'u
+            for (Product p : snapshot.findAllById(spec.getProductIds())) {
+                if (selected.size() >= 9) break;
+                selected.putIfAbsent(p.getId(), p);
+            }
+        }
+        for (Product p : productService.findByCategories(snapshot, spec.getCategories())) {
+            selected.putIfAbsent(p.getId(), p);
+        }
+        return new ArrayList<>(selected.values());
+    }
+
+    /**
+     * STORED girdi: veri tamamen bellekte olduğu için boyut ve CRC önceden verilir, deflate yapılmaz.
+     */
+    private static void writeEntry(ZipOutputStream zip, String name, byte[] data) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(data.length);
+        entry.setCompressedSize(data.length);
+        entry.setCrc(crc.getValue());
+        zip.putNextEntry(entry);
+        zip.write(data);
+        zip.closeEntry();
+        // İstemci her posteri bitince alsın
+        zip.flush();
+    }
+
+    private static int effectiveCount(Integer count) {
+        return count != null ? Math.min(count, 9) : 9;
+    }
+
+    private static String uniqueFileName(String baseName, Set<String> used) {
+        String base = TextNormalizer.slugify(baseName.replaceAll("(?i)\\.pdf$", ""));
+        String name = base + ".pdf";
+        for (int i = 2; !used.add(name); i++) {
+            name = base + "-" + i + ".pdf";
+        }
+        return name;
+    }
+
+    private record Finished(PreparedPoster poster, byte[] pdf, Throwable error) {
+    }
+}
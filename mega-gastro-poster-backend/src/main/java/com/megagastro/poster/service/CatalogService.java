@@ -0,0 +1,176 @@
+package com.megagastro.poster.service;
+
+import com.megagastro.poster.client.CrawlerUnavailableException;
+import com.megagastro.poster.model.CatalogSnapshot;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.config.CacheConfig;
+import com.megagastro.poster.repository.CatalogSnapshotStore;
+import com.megagastro.poster.repository.CustomProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+public class CatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogService.class);
+
+    private final RemoteProductService remoteProductService;
+    private final CustomProductRepository customProductRepository;
+
+    private final CatalogSnapshotStore snapshotStore;
+
+    // Snapshot versiyonları her açılışta baştan başlar; ETag'ler süreçler arasında karışmasın
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>(CatalogSnapshot.empty());
+
+    // En son diske yazılan durum; değişiklik yoksa dosya tekrar yazılmaz
+    private List<Product> persistedRemote;
+    private long persistedCustomVersion = -1;
+
+    public CatalogService(RemoteProductService remoteProductService,
+                          CustomProductRepository customProductRepository,
+                          CatalogSnapshotStore snapshotStore,
+                          CacheManager cacheManager) {
+        this.remoteProductService = remoteProductService;
+        this.customProductRepository = customProductRepository;
+        this.snapshotStore = snapshotStore;
+        snapshotStore.initial().ifPresent(stored -> seed(stored, cacheManager));
+    }
+
+    /**
+     * Diskteki son katalogu crawler cache'ine ve delta sync durumuna koyar, ilk snapshot'ı ondan kurar.
+     * İlk istekler crawler'ı beklemez; CrawlerCacheRefresher listeyi arka planda yeniler ve
+     * priceVersion'lar kayıtlı katalogdan devam eder.
+     */
+    private void seed(CatalogSnapshotStore.StoredCatalog stored, CacheManager cacheManager) {
+        if (stored.remote().isEmpty()) return;
+        remoteProductService.seed(stored.remote());
+        Cache cache = cacheManager.getCache(CacheConfig.REMOTE_PRODUCTS);
+        if (cache == null) return;
+        cache.putIfAbsent(RemoteProductService.ALL_KEY, stored.remote());
+        current.set(CatalogSnapshot.build(1, stored.remote(),
+                customProductRepository.version(), customProductRepository.findAll()));
+        persistedRemote = stored.remote();
+        persistedCustomVersion = customProductRepository.version();
+    }
+
+    /**
+     * Güncel katalog snapshot'ını döner.
+     * Remote liste (cache'ten) veya custom ürünler değiştiyse yeni snapshot
+     * kurulur ve atomik olarak yerine konur; değişmediyse mevcut snapshot döner.
+     * Crawler'a ulaşılamıyorsa son snapshot'taki crawler listesiyle devam edilir.
+     */
+    public CatalogSnapshot snapshot() {
+        List<Product> remote;
+        try {
+            remote = remoteProductService.fetchRemoteProducts();
+        } catch (CrawlerUnavailableException e) {
+            remote = lastRemoteProducts(e);
+        }
+        return snapshot(remote, null);
+    }
+
+    /**
+     * snapshot()'ın bloklamayan hali. Crawler listesi (cache'ten ya da yüklenerek) ve custom ürünler
+     * sırayla değil aynı anda alınır; ikisi gelince snapshot aynı kurallarla kurulur veya mevcut olan döner.
+     */
+    public Mono<CatalogSnapshot> snapshotReactive() {
+        return Mono.zip(remoteProductService.fetchRemoteProductsReactive()
+                                .onErrorResume(CrawlerUnavailableException.class,
+                                        e -> Mono.fromCallable(() -> lastRemoteProducts(e))),
+                        Mono.fromSupplier(this::customProducts))
+                .map(t -> snapshot(t.getT1(), t.getT2()));
+    }
+
+    /**
+     * Crawler'a ulaşılamazken (devre açık, zaman aşımı) son kurulan snapshot'ın crawler listesi;
+     * açılışta diskten yüklenen katalog da buna dahildir. Hiç liste yoksa hata aynen fırlatılır (503).
+     */
+    private List<Product> lastRemoteProducts(CrawlerUnavailableException e) {
+        List<Product> remote = current.get().remoteProducts();
+        if (remote.isEmpty()) throw e;
+        log.debug("Crawler unavailable, serving last catalog ({} products): {}", remote.size(), e.getMessage());
+        return remote;
+    }
+
+    /**
+     * Custom ürünler; mevcut snapshot zaten bu versiyondan kurulduysa liste kopyalanmaz.
+     */
+    private CustomProducts customProducts() {
+        long version = customProductRepository.version();
+        return new CustomProducts(version,
+                current.get().customVersion() == version ? null : customProductRepository.findAll());
+    }
+
+    private CatalogSnapshot snapshot(List<Product> remote, CustomProducts prefetched) {
+        while (true) {
+            CatalogSnapshot snap = current.get();
+            long customVersion = customProductRepository.version();
+            if (snap.isBuiltFrom(remote, customVersion)) {
+                return snap;
+            }
+            // Önceden okunan liste sadece hâlâ güncelse kullanılır; eski bir versiyonla snapshot geri gitmesin
+            Collection<Product> custom = prefetched != null && prefetched.version() == customVersion
+                    && prefetched.products() != null
+                    ? prefetched.products()
+                    : customProductRepository.findAll();
+            CatalogSnapshot fresh = CatalogSnapshot.build(snap.version() + 1, remote, customVersion, custom);
+            if (current.compareAndSet(snap, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    /**
+     * Snapshot'ın strong ETag'i; katalog (remote veya custom) değişmedikçe aynı kalır.
+     */
+    public String etag(CatalogSnapshot snapshot) {
+        return "\"" + epoch + "-" + snapshot.version() + "\"";
+    }
+
+    /**
+     * Crawler'a gitmeden en son kurulan snapshot.
+     */
+    public CatalogSnapshot lastSnapshot() {
+        return current.get();
+    }
+
+    /**
+     * Son remote liste veya custom ürünler değiştiyse snapshot dosyasını yeniden yazar.
+     * Crawler'a gitmez; sadece en son kurulan snapshot kullanılır.
+     */
+    @Scheduled(fixedDelayString = "${poster.catalog.snapshot-interval:PT5M}",
+            initialDelayString = "${poster.catalog.snapshot-interval:PT5M}")
+    public synchronized void persist() {
+        if (!snapshotStore.isEnabled()) return;
+        List<Product> remote = current.get().remoteProducts();
+        long customVersion = customProductRepository.version();
+        if (remote == persistedRemote && customVersion == persistedCustomVersion) return;
+        try {
+            snapshotStore.write(remote, customProductRepository.findAll());
+            persistedRemote = remote;
+            persistedCustomVersion = customVersion;
+        } catch (RuntimeException e) {
+            log.warn("Failed to persist catalog snapshot", e);
+        }
+    }
+
+    @PreDestroy
+    public void persistOnShutdown() {
+        persist();
+    }
+
+    private record CustomProducts(long version, List<Product> products) {
+    }
+}
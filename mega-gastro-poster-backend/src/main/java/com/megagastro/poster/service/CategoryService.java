@@ -1,16 +1,19 @@
 package com.megagastro.poster.service;
 
+import com.megagastro.poster.client.CrawlerUnavailableException;
 import com.megagastro.poster.dto.CategoryDto;
 import com.megagastro.poster.dto.RemoteCategoryDto;
 import com.megagastro.poster.model.Product;
 import com.megagastro.poster.repository.CustomProductRepository;
+import com.megagastro.poster.util.TextNormalizer;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import org.checkerframework.checker.units.qual.C;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
-import java.text.Normalizer;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,8 +22,46 @@ public class CategoryService {
     private final RemoteProductService remoteProductService;
     private final CustomProductRepository customProductRepository;
 
+    // Crawler'dan son alınan kategori listesi; crawler'a ulaşılamazken bu kullanılır
+    private final AtomicReference<List<RemoteCategoryDto>> lastRemote = new AtomicReference<>();
+
     public List<CategoryDto> getAllCategories() {
-        List<RemoteCategoryDto> remote = remoteProductService.fetchRemoteCategories();
+        List<RemoteCategoryDto> remote;
+        try {
+            remote = remember(remoteProductService.fetchRemoteCategories());
+        } catch (CrawlerUnavailableException e) {
+            remote = lastRemoteCategories(e);
+        }
+        return merge(remote, customProductRepository.findAll());
+    }
+
+    /**
+     * getAllCategories()'in bloklamayan hali; crawler kategorileri ve custom ürünler aynı anda alınır.
+     */
+    public Mono<List<CategoryDto>> getAllCategoriesReactive() {
+        return Mono.zip(remoteProductService.fetchRemoteCategoriesReactive()
+                                .map(this::remember)
+                                .onErrorResume(CrawlerUnavailableException.class,
+                                        e -> Mono.fromCallable(() -> lastRemoteCategories(e))),
+                        Mono.fromSupplier(customProductRepository::findAll))
+                .map(t -> merge(t.getT1(), t.getT2()));
+    }
+
+    private List<RemoteCategoryDto> remember(List<RemoteCategoryDto> remote) {
+        lastRemote.set(remote);
+        return remote;
+    }
+
+    /**
+     * Son alınan crawler kategorileri; hiç alınmadıysa hata aynen fırlatılır (503).
+     */
+    private List<RemoteCategoryDto> lastRemoteCategories(CrawlerUnavailableException e) {
+        List<RemoteCategoryDto> remote = lastRemote.get();
+        if (remote == null) throw e;
+        return remote;
+    }
+
+    private List<CategoryDto> merge(List<RemoteCategoryDto> remote, List<Product> customProducts) {
         Map<String, CategoryDto> byKey = new LinkedHashMap<>();
 
         for(RemoteCategoryDto rc : remote) {
@@ -33,7 +74,6 @@ public class CategoryService {
             if(name == null || name.isBlank()) { name = key;}
             byKey.putIfAbsent(key, new CategoryDto(key, name, path));
         }
-        List<Product> customProducts = customProductRepository.findAll();
         Set<String> existingNames = byKey.values().stream()
                 .map(CategoryDto::name).collect(Collectors.toSet());
 
@@ -65,11 +105,7 @@ public class CategoryService {
     }
 
     private String slugify(String input) {
-        if(input == null) return "kategori";
-        String normalized = Normalizer.normalize(input, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
-        String slug = normalized.toLowerCase(Locale.GERMAN).replaceAll("[^a-z0-9]+", "-")
-                .replaceAll("^-+|-+$", "");
-        return slug.isBlank() ? "kategori" : slug;
+        return TextNormalizer.slugify(input);
     }
 
 }
@@ -0,0 +1,84 @@
+package com.megagastro.poster.service;
+
+import com.megagastro.poster.dto.DealSelectionRequest;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.model.ProductTable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sunucu tarafında "en iyi fırsatlar" seçimi.
+ * Tüm katalog sütunlu tablo üzerinde tek geçişte taranır: her kategori için en fazla
+ * maxPerCategory boyutunda bir heap tutulur, sonra kategori başları birleştirilip en iyi
+ * count ürün alınır. Kategori kotası heap boyutuyla sağlandığı için sonuç kurallara göre en iyisidir.
+ */
+@Service
+public class DealSelectionService {
+
+    private final ProductService productService;
+    private final PosterService posterService;
+
+    public DealSelectionService(ProductService productService, PosterService posterService) {
+        this.productService = productService;
+        this.posterService = posterService;
+    }
+
+    public List<Product> select(DealSelectionRequest request) {
+        ProductTable table = productService.snapshot().table();
+        int count = effectiveCount(request.getCount());
+        int perCategory = request.getMaxPerCategory() != null ? Math.min(request.getMaxPerCategory(), count) : count;
+
+        ProductTable.Filter filter = ProductTable.Filter.priced();
+        if (request.getMinDiscount() != null) {
+            filter.minDiscount(request.getMinDiscount());
+        }
+        if (request.getPriceBands() != null) {
+            for (DealSelectionRequest.PriceBand band : request.getPriceBands()) {
+                if (band != null) filter.priceBand(band.getMin(), band.getMax());
+            }
+        }
+        if (request.getCategories() != null && !request.getCategories().isEmpty()) {
+            filter.categories(table.categoryMask(ProductService.categoryMatcher(request.getCategories())));
+        }
+
+        int categories = table.categoryCount();
+        int[] heads = new int[categories * perCategory];
+        int[] counts = new int[categories];
+        table.topNPerCategory(filter, ProductTable.POSTER_ORDER, perCategory, heads, counts);
+
+        // Kategori listeleri kendi içinde sıralı; her adımda başlar arasından en iyisini al
+        int[] cursor = new int[categories];
+        List<Product> picks = new ArrayList<>(count);
+        while (picks.size() < count) {
+            int bestCategory = -1;
+            int bestRow = -1;
+            for (int c = 0; c < categories; c++) {
+                if (cursor[c] >= counts[c]) continue;
+                int row = heads[c * perCategory + cursor[c]];
+                if (bestRow < 0 || ProductTable.POSTER_ORDER.compare(table, row, bestRow) < 0) {
+                    bestRow = row;
+                    bestCategory = c;
+                }
+            }
+            if (bestRow < 0) break;
+            cursor[bestCategory]++;
+            picks.add(table.row(bestRow));
+        }
+        return picks;
+    }
+
+    /**
+     * Seçimi doğrudan poster'a çevirir; ürün listesi istemciye hiç gönderilmez.
+     */
+    public byte[] renderPoster(DealSelectionRequest request) {
+        return posterService.renderPoster(request.getTitle(), select(request), effectiveCount(request.getCount()),
+                request.getLayout());
+    }
+
+    private static int effectiveCount(Integer count) {
+        return count == null ? PosterService.PRODUCTS_PER_PAGE
+                : Math.max(1, Math.min(count, PosterService.PRODUCTS_PER_PAGE));
+    }
+}
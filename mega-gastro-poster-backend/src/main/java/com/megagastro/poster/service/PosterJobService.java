@@ -0,0 +1,125 @@
+package com.megagastro.poster.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.megagastro.poster.dto.PosterRequest;
+import com.megagastro.poster.model.PosterJob;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.render.RenderRejectedException;
+import com.megagastro.poster.repository.PosterResultStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asenkron poster işleri: istek hemen bir iş ID'si alır, render arka planda yapılır.
+ * Sonuç PosterResultStore'a yazılır ve tekrar render edilmeden defalarca indirilebilir.
+ */
+@Service
+public class PosterJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(PosterJobService.class);
+
+    private static final long RENDER_RETRY_DELAY_MS = 200;
+
+    private final PosterService posterService;
+    private final ProductService productService;
+    private final PosterResultStore resultStore;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, PosterJob> jobs;
+    private final long renderWaitMillis;
+
+    public PosterJobService(PosterService posterService,
+                            ProductService productService,
+                            PosterResultStore resultStore,
+                            @Value("${poster.jobs.threads:2}") int threads,
+                            @Value("${poster.jobs.max-pending:100}") int maxPending,
+                            @Value("${poster.jobs.result-ttl:1h}") Duration resultTtl,
+                            @Value("${poster.render.timeout:60s}") Duration renderWait) {
+        this.posterService = posterService;
+        this.productService = productService;
+        this.resultStore = resultStore;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                Math.max(1, threads), Math.max(1, threads),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxPending)),
+                r -> {
+                    Thread t = new Thread(r, "poster-job-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        // İş bitince yeniden yazılır: durum, sonuçla aynı anda (put'tan result-ttl sonra) düşer
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(resultTtl)
+                .maximumSize(10_000)
+                .build();
+        this.renderWaitMillis = renderWait.toMillis();
+    }
+
+    public PosterJob submit(PosterRequest request) {
+        PosterJob job = new PosterJob(UUID.randomUUID().toString());
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, request));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.getId());
+            throw new RenderRejectedException("Too many pending poster jobs, try again later");
+        }
+        return job;
+    }
+
+    public Optional<PosterJob> find(String id) {
+        return Optional.ofNullable(jobs.getIfPresent(id));
+    }
+
+    public Optional<Resource> findResult(String id) {
+        return resultStore.find(id);
+    }
+
+    private void run(PosterJob job, PosterRequest request) {
+        job.markRunning();
+        try {
+            List<Product> selected = productService.findAllById(request.getProductIds());
+            byte[] pdf = renderWithRetry(request, selected);
+            resultStore.put(job.getId(), pdf);
+            job.markDone(pdf.length);
+        } catch (Exception e) {
+            log.warn("Poster job {} failed", job.getId(), e);
+            job.markFailed(e.getMessage());
+        }
+        // expireAfterWrite gönderimden değil bitişten saysın; uzun süren işin durumu PDF'inden önce düşmesin
+        jobs.put(job.getId(), job);
+    }
+
+    /**
+     * Render kuyruğu senkron isteklerle doluysa iş hemen düşmesin; kısa aralıklarla yeniden dene.
+     */
+    private byte[] renderWithRetry(PosterRequest request, List<Product> selected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + renderWaitMillis;
+        while (true) {
+            try {
+                return posterService.renderPoster(request, selected);
+            } catch (RenderRejectedException e) {
+                if (System.currentTimeMillis() >= deadline) throw e;
+                Thread.sleep(RENDER_RETRY_DELAY_MS);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
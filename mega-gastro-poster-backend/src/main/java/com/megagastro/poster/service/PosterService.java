@@ -1,167 +1,186 @@
 package com.megagastro.poster.service;
 
+import com.megagastro.poster.dto.PosterRequest;
+import com.megagastro.poster.image.PosterImageCache;
+import com.megagastro.poster.metrics.PosterMetrics;
+import com.megagastro.poster.model.PosterLayout;
 import com.megagastro.poster.model.Product;
-import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import com.megagastro.poster.model.ProductTable;
+import com.megagastro.poster.render.PdfRenderEngine;
+import com.megagastro.poster.render.PosterHtmlRenderer;
+import com.megagastro.poster.render.PosterOutputCache;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
-import java.text.NumberFormat;
+import java.io.OutputStream;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
 public class PosterService {
 
+    // HTML/CSS çıktısı değiştiğinde artırılmalı; poster cache anahtarına girer
+    public static final int TEMPLATE_VERSION = 2;
+
+    public static final int PRODUCTS_PER_PAGE = 9;
+
+    private final PdfRenderEngine renderEngine;
+    private final PosterImageCache imageCache;
+    private final PosterOutputCache outputCache;
+    private final PosterHtmlRenderer htmlRenderer;
+    private final PosterMetrics metrics;
+    private final CatalogService catalogService;
+
+    public PosterService(PdfRenderEngine renderEngine,
+                         PosterImageCache imageCache,
+                         PosterOutputCache outputCache,
+                         PosterHtmlRenderer htmlRenderer,
+                         PosterMetrics metrics,
+                         CatalogService catalogService) {
+        this.renderEngine = renderEngine;
+        this.imageCache = imageCache;
+        this.outputCache = outputCache;
+        this.htmlRenderer = htmlRenderer;
+        this.metrics = metrics;
+        this.catalogService = catalogService;
+    }
+
+    /**
+     * İstekteki başlık/adet ayarlarını uygular (en fazla 9 ürün) ve posteri render eder.
+     */
+    public byte[] renderPoster(PosterRequest request, List<Product> selectedProducts) {
+        // Maksimum 9 ürün
+        int count = request.getCount() != null ? Math.min(request.getCount(), 9) : 9;
+        // Eğer productIds 9'dan fazlaysa, sadece ilk 9'unu al
+        if (selectedProducts.size() > 9) {
+            selectedProducts = selectedProducts.subList(0, 9);
+        }
+        String title = request.getTitle() != null ? request.getTitle() : "Haftanın Fırsatları";
+        return renderPoster(title, selectedProducts, count, request.getLayout());
+    }
+
+    public byte[] renderPoster(String title, List<Product> products, int count) {
+        return renderPoster(title, products, count, PosterLayout.A4);
+    }
+
+    /**
+     * HTML'i kurar, ürün görsellerini paralel olarak önceden hazırlar ve PDF'e çevirir.
+     */
+    public byte[] renderPoster(String title, List<Product> products, int count, PosterLayout layout) {
+        layout = PosterLayout.orDefault(layout);
+        String key = PosterOutputCache.keyOf(TEMPLATE_VERSION, layout, LocalDate.now(), title, count, products);
+        Optional<byte[]> cached = outputCache.get(key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        String html = buildPosterHtml(title, products, count, layout);
+        prefetchImages(products);
+        byte[] pdf = renderPdf(html);
+        outputCache.put(key, pdf);
+        return pdf;
+    }
+
+    /**
+     * Toplu üretim için: görsellerin önceden hazırlandığı varsayılır, render worker havuzunda
+     * asenkron yapılır. Kuyruk doluysa RenderRejectedException hemen fırlatılır.
+     */
+    public CompletableFuture<byte[]> renderPosterAsync(String title, List<Product> products, int count,
+                                                        PosterLayout layout) {
+        layout = PosterLayout.orDefault(layout);
+        String key = PosterOutputCache.keyOf(TEMPLATE_VERSION, layout, LocalDate.now(), title, count, products);
+        Optional<byte[]> cached = outputCache.get(key);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached.get());
+        }
+        String html = buildPosterHtml(title, products, count, layout);
+        // Motorun future'ı döner; cancel render'ın kendisine ulaşır
+        CompletableFuture<byte[]> render = renderEngine.submit(html);
+        render.thenAccept(pdf -> outputCache.put(key, pdf));
+        return render;
+    }
+
+    /**
+     * Posterde gerçekten basılacak ürünler: fiyatı olanlar, POSTER_ORDER sırasıyla en fazla 9 tane.
+     */
+    public List<Product> selectPosterProducts(List<Product> products, int count) {
+        return selectPriced(products, Math.min(count, 9));
+    }
+
+    /**
+     * Ürünler güncel snapshot'tan geliyorsa onun tablosu kullanılır (katalog versiyonu başına bir kez
+     * kurulur), sadece ürünlerin satırları sıralanır. Snapshot dışı bir ürün varsa liste için tablo kurulur.
+     */
+    private List<Product> selectPriced(List<Product> products, int limit) {
+        ProductTable table = catalogService.lastSnapshot().table();
+        int[] rows = new int[products.size()];
+        for (int i = 0; i < rows.length; i++) {
+            Product p = products.get(i);
+            int row = table.rowOf(p.getId());
+            if (row < 0 || table.row(row) != p) {
+                return ProductTable.of(products).select(ProductTable.Filter.priced(), ProductTable.POSTER_ORDER, limit);
+            }
+            rows[i] = row;
+        }
+        return table.select(rows, rows.length, ProductTable.Filter.priced(), ProductTable.POSTER_RANK, limit);
+    }
+
+    public void prefetchImages(List<Product> products) {
+        imageCache.prefetch(products.stream().map(Product::getImageUrl).toList());
+    }
+
     public String buildPosterHtml(String title, List<Product> products, int count) {
+        return buildPosterHtml(title, products, count, PosterLayout.A4);
+    }
+
+    public String buildPosterHtml(String title, List<Product> products, int count, PosterLayout layout) {
+        return metrics.record(PosterMetrics.Stage.HTML_BUILD, () -> posterHtml(title, products, count, layout));
+    }
+
+    private String posterHtml(String title, List<Product> products, int count, PosterLayout layout) {
         String effectiveTitle = (title == null || title.isBlank()) ? "Haftanın Fırsatları" : title;
 
-        // Maksimum 9 ürün
-        int maxProducts = Math.min(count, 9);
-
-        // Filtrele ve sırala
-        List<Product> filtered = products.stream()
-                .filter(p -> p.getPriceCurrent() != null && p.getPriceCurrent() > 0)
-                .sorted(Comparator
-                        .comparing(Product::getDiscountPct, Comparator.nullsLast(Comparator.reverseOrder()))
-                        .thenComparing(Product::getPriceCurrent))
-                .limit(maxProducts)
-                .collect(Collectors.toList());
-
-        // Kategoriye göre gruplandır
-        Map<String, List<Product>> productsByCategory = filtered.stream()
+        // Filtrele, sırala, maksimum 9 ürün
+        List<Product> filtered = selectPosterProducts(products, count);
+
+        // Kategoriye göre gruplandır, kategorileri alfabetik sırala; kartlar şablondan basılır
+        return htmlRenderer.poster(layout, effectiveTitle, groupByCategory(filtered), filtered.size());
+    }
+
+    /**
+     * Sınırsız sayıda ürünü kategori gruplamasıyla 9'arlı sayfalara böler (her zaman A4).
+     */
+    public String buildBrochureHtml(String title, List<Product> products) {
+        String effectiveTitle = (title == null || title.isBlank()) ? "Haftanın Fırsatları" : title;
+        return metrics.record(PosterMetrics.Stage.HTML_BUILD, () -> {
+            List<Product> filtered = selectPriced(products, products.size());
+            return htmlRenderer.brochure(effectiveTitle, groupByCategory(filtered), filtered.size(), PRODUCTS_PER_PAGE);
+        });
+    }
+
+    /**
+     * Broşürü render edip PDF'i doğrudan verilen stream'e (HTTP yanıtı) yazar;
+     * arada tam bir byte[] kopyası oluşturulmaz.
+     */
+    public void renderBrochure(String title, List<Product> products, OutputStream out) {
+        String html = buildBrochureHtml(title, products);
+        prefetchImages(products);
+        renderEngine.renderTo(html, out);
+    }
+
+    private static Map<String, List<Product>> groupByCategory(List<Product> products) {
+        return products.stream()
                 .collect(Collectors.groupingBy(
                         p -> {
                             String cat = p.getCategory();
                             return (cat == null || cat.isBlank()) ? "Diğer" : cat;
                         },
-                        LinkedHashMap::new, // Sıralamayı koru
+                        TreeMap::new, // Kategoriler alfabetik, içerideki sıra korunur
                         Collectors.toList()
                 ));
-
-        // Kategorileri sırala (alfabetik)
-        List<String> sortedCategories = new ArrayList<>(productsByCategory.keySet());
-        Collections.sort(sortedCategories);
-
-        int productCount = filtered.size();
-        NumberFormat nf = NumberFormat.getCurrencyInstance(Locale.GERMANY);
-
-        StringBuilder cards = new StringBuilder();
-        
-        // Her kategori için ürünleri yan yana diz
-        for (String category : sortedCategories) {
-            List<Product> categoryProducts = productsByCategory.get(category);
-            
-            // Kategori başlığı (opsiyonel, sadece birden fazla kategori varsa göster)
-            if (sortedCategories.size() > 1) {
-                cards.append("<div class=\"category-header\">").append(escapeHtml(category)).append("</div>");
-            }
-            
-            // Bu kategorideki ürünleri yan yana diz
-            for (Product p : categoryProducts) {
-                String badge = "";
-                if (p.getDiscountPct() != null && p.getDiscountPct() > 0) {
-                    badge = "<div class=\"badge\">-" + p.getDiscountPct() + "%</div>";
-                }
-                String oldPriceHtml = "";
-                if (p.getPriceOriginal() != null &&
-                        !p.getPriceOriginal().equals(p.getPriceCurrent())) {
-                    oldPriceHtml = "<div class=\"old\">" + nf.format(p.getPriceOriginal()) + "</div>";
-                }
-                String imageUrl = p.getImageUrl() != null ? p.getImageUrl() : "";
-
-                cards.append("<div class=\"card\">")
-                        .append(badge)
-                        .append("<div class=\"image-wrapper\">")
-                        .append("<img src=\"").append(escapeHtml(imageUrl)).append("\" alt=\"")
-                        .append(escapeHtml(p.getName())).append("\"/>")
-                        .append("</div>")
-                        .append("<div class=\"name\">").append(escapeHtml(p.getName())).append("</div>")
-                        .append("<div class=\"prices\">")
-                        .append("<div class=\"current\">").append(nf.format(p.getPriceCurrent())).append("</div>")
-                        .append(oldPriceHtml)
-                        .append("</div>")
-                        .append("</div>");
-            }
-            
-            // Kategori sonrası temizlik (clearfix)
-            cards.append("<div class=\"clearfix\"></div>");
-        }
-
-        String today = LocalDate.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy"));
-
-        // Responsive grid için card genişliği hesapla
-        String cardWidth = calculateCardWidth(productCount);
-
-        return "<!DOCTYPE html>" +
-                "<html lang=\"tr\">" +
-                "<head>" +
-                "<meta charset=\"UTF-8\"/>" +
-                "<style>" +
-                "@page { size: A4; margin: 18mm; }" +
-                "body { font-family: Arial, sans-serif; margin: 0; padding: 0; }" +
-                "h1 { text-align: center; margin-bottom: 20px; font-size: 24px; }" +
-                ".grid { width: 100%; overflow: hidden; }" +
-                ".category-header { width: 100%; font-size: 16px; font-weight: bold; color: #2c3e50; margin-top: 16px; margin-bottom: 8px; padding-bottom: 4px; border-bottom: 2px solid #3498db; clear: both; }" +
-                ".card { position: relative; width: " + cardWidth
-                + "; border: 1px solid #ddd; padding: 12px; border-radius: 4px; background: #fff; float: left; margin-right: 12px; margin-bottom: 12px; }"
-                +
-                ".image-wrapper { height: 140px; text-align: center; margin-bottom: 8px; line-height: 140px; }" +
-                ".image-wrapper img { max-height: 140px; max-width: 100%; vertical-align: middle; }" +
-                ".name { font-size: 13px; margin-top: 8px; min-height: 36px; line-height: 1.3; color: #333; }" +
-                ".prices { margin-top: 8px; }" +
-                ".current { font-size: 18px; font-weight: bold; color: #c0392b; }" +
-                ".old { font-size: 13px; text-decoration: line-through; color: #7f8c8d; margin-top: 2px; }" +
-                ".badge { position: absolute; top: 8px; left: 8px; background: #e74c3c; color: #fff; padding: 4px 8px; font-size: 11px; border-radius: 4px; font-weight: bold; }"
-                +
-                ".footer { position: fixed; bottom: 10mm; left: 0; right: 0; text-align: center; font-size: 10px; color: #555; }"
-                +
-                ".clearfix { clear: both; }" +
-                "</style>" +
-                "</head>" +
-                "<body>" +
-                "<h1>" + escapeHtml(effectiveTitle) + "</h1>" +
-                "<div class=\"grid\">" + cards + "<div class=\"clearfix\"></div></div>" +
-                "<div class=\"footer\">Oluşturulma tarihi: " + today + "</div>" +
-                "</body>" +
-                "</html>";
-    }
-
-    private String calculateCardWidth(int productCount) {
-        // Responsive grid: ürün sayısına göre card genişliği (openhtmltopdf uyumlu)
-        if (productCount == 1) {
-            return "100%";
-        } else if (productCount == 2) {
-            return "48%";
-        } else if (productCount <= 4) {
-            return "48%";
-        } else {
-            // 5-9 ürün için 3 kolonlu grid
-            return "31%";
-        }
     }
 
     public byte[] renderPdf(String html) {
-        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
-            PdfRendererBuilder builder = new PdfRendererBuilder();
-            builder.useFastMode();
-            builder.withHtmlContent(html, null);
-            builder.toStream(os);
-            builder.run();
-            return os.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to render PDF", e);
-        }
-    }
-
-    private String escapeHtml(String input) {
-        if (input == null)
-            return "";
-        return input
-                .replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\"", "&quot;");
+        return renderEngine.render(html);
     }
 }
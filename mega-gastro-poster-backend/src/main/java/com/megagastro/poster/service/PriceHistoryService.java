@@ -0,0 +1,100 @@
+package com.megagastro.poster.service;
+
+import com.megagastro.poster.dto.PriceDropDto;
+import com.megagastro.poster.dto.PriceTrendDto;
+import com.megagastro.poster.model.CatalogSnapshot;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.repository.PriceHistoryStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Fiyat geçmişi sorguları. Kayıt, katalog her yenilendiğinde RemoteProductService tarafından yapılır.
+ */
+@Service
+public class PriceHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceHistoryService.class);
+
+    public static final int MAX_DAYS = 365;
+    public static final int MAX_DROPS = 500;
+
+    private final PriceHistoryStore store;
+    private final CatalogService catalogService;
+    private final Duration retention;
+
+    public PriceHistoryService(PriceHistoryStore store,
+                               CatalogService catalogService,
+                               @Value("${poster.price-history.retention:P180D}") Duration retention) {
+        this.store = store;
+        this.catalogService = catalogService;
+        this.retention = retention;
+    }
+
+    public Optional<PriceTrendDto> trend(String productId, int days) {
+        int d = clampDays(days);
+        Instant now = Instant.now();
+        Instant from = now.minus(Duration.ofDays(d));
+        return store.window(productId, from, now).map(w -> new PriceTrendDto(
+                productId, d, w.min(), w.max(), w.end(), w.end() <= w.min(),
+                store.points(productId, from, now)));
+    }
+
+    /**
+     * Son N gün içindeki en yüksek fiyatına göre en çok düşen ürünler (yüzde düşüşe göre).
+     * Tüm seriler tek geçişte taranır, en iyi limit kadar aday sınırlı bir heap'te tutulur.
+     */
+    public List<PriceDropDto> biggestDrops(int days, int limit) {
+        int n = Math.max(1, Math.min(limit, MAX_DROPS));
+        Instant now = Instant.now();
+        CatalogSnapshot snapshot = catalogService.snapshot();
+
+        PriorityQueue<PriceDropDto> top = new PriorityQueue<>(n + 1,
+                Comparator.comparingDouble(PriceDropDto::dropPct));
+        store.forEachWindow(now.minus(Duration.ofDays(clampDays(days))), now, (id, min, max, start, end) -> {
+            if (end >= max || max <= 0) return;
+            double dropPct = (max - end) * 100.0 / max;
+            if (top.size() == n && top.peek().dropPct() >= dropPct) return;
+            Optional<Product> product = snapshot.findById(id);
+            if (product.isEmpty()) return;
+            top.add(new PriceDropDto(product.get(), max, end, Math.round(dropPct * 10) / 10.0));
+            if (top.size() > n) top.poll();
+        });
+
+        List<PriceDropDto> result = new ArrayList<>(top);
+        result.sort(Comparator.comparingDouble(PriceDropDto::dropPct).reversed());
+        return result;
+    }
+
+    /**
+     * Saklama süresinden eski noktaları atar ve dosyaya yazar.
+     */
+    @Scheduled(fixedDelayString = "${poster.price-history.persist-interval:PT10M}",
+            initialDelayString = "${poster.price-history.persist-interval:PT10M}")
+    public synchronized void maintain() {
+        try {
+            CatalogSnapshot snapshot = catalogService.lastSnapshot();
+            store.trim(Instant.now().minus(retention), id -> snapshot.findById(id).isPresent());
+            store.write();
+        } catch (RuntimeException e) {
+            log.warn("Failed to persist price history", e);
+        }
+    }
+
+    @PreDestroy
+    public void persistOnShutdown() {
+        maintain();
+    }
+
+    private static int clampDays(int days) {
+        return Math.max(1, Math.min(days, MAX_DAYS));
+    }
+}
@@ -0,0 +1,152 @@
+package com.megagastro.poster.service;
+
+import com.megagastro.poster.dto.ProductListQuery;
+import com.megagastro.poster.dto.ProductPage;
+import com.megagastro.poster.model.CatalogSnapshot;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.model.ProductTable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Filtreli, imleçli ve alan seçimli ürün listesi.
+ * Satırlar snapshot'ın sütunlu tablosu üzerinde taranır; sadece sayfadaki ürünler serileştirilir.
+ *
+ * İmleç: base64url("snapshot versiyonu:sonraki satır:son ürün ID'si"). Katalog sayfalar arasında
+ * değişirse satır numarası kayabileceği için devam noktası son ürün ID'sinden bulunur.
+ */
+@Service
+public class ProductListingService {
+
+    public static final int MAX_LIMIT = 1000;
+
+    /**
+     * Seçilebilecek alanlar (Product JSON alan adları).
+     */
+    public static final Set<String> FIELDS = Set.of(
+            "id", "name", "url", "imageUrl", "priceCurrent", "priceOriginal",
+            "discountPct", "source", "category", "priceVersion");
+
+    // NDJSON akışında tablo bu kadar satırlık parçalarla taranır
+    private static final int STREAM_BATCH = 256;
+
+    public ProductPage list(CatalogSnapshot snapshot, ProductListQuery query) {
+        ProductTable table = snapshot.table();
+        List<String> fields = fields(query.fields());
+        ProductTable.Filter filter = filter(table, query);
+
+        int from = query.cursor() != null ? resumeRow(snapshot, table, query.cursor()) : 0;
+        int limit = query.limit() != null ? Math.max(1, Math.min(query.limit(), MAX_LIMIT)) : table.size();
+
+        // Bir fazlası okunur: sonraki sayfa var mı?
+        int[] rows = new int[Math.min(limit + 1, Math.max(0, table.size() - from))];
+        int n = table.filter(filter, from, rows.length, rows);
+        int pageSize = Math.min(n, limit);
+
+        List<Object> items = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Product p = table.row(rows[i]);
+            items.add(fields == null ? p : project(p, fields));
+        }
+        String next = n > limit
+                ? encodeCursor(snapshot.version(), rows[limit], table.row(rows[pageSize - 1]).getId())
+                : null;
+        return new ProductPage(items, next);
+    }
+
+    /**
+     * Filtreye uyan ürünlerin tamamı, sırayla (imleç ve limit kullanılmaz).
+     * Tablo parça parça taranır ve abone istedikçe ilerlenir; sonuç bellekte toplanmaz.
+     */
+    public Flux<Object> stream(CatalogSnapshot snapshot, ProductListQuery query) {
+        ProductTable table = snapshot.table();
+        List<String> fields = fields(query.fields());
+        ProductTable.Filter filter = filter(table, query);
+        return Flux.<List<Object>, Integer>generate(() -> 0, (from, sink) -> {
+            int[] rows = new int[STREAM_BATCH];
+            int n = table.filter(filter, from, rows.length, rows);
+            if (n == 0) {
+                sink.complete();
+                return from;
+            }
+            List<Object> batch = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                Product p = table.row(rows[i]);
+                batch.add(fields == null ? p : project(p, fields));
+            }
+            sink.next(batch);
+            return rows[n - 1] + 1;
+        }).concatMapIterable(batch -> batch);
+    }
+
+    private static ProductTable.Filter filter(ProductTable table, ProductListQuery query) {
+        ProductTable.Filter filter = new ProductTable.Filter();
+        if (query.categories() != null && !query.categories().isEmpty()) {
+            filter.categories(table.categoryMask(ProductService.categoryMatcher(query.categories())));
+        }
+        if (query.source() != null) filter.source(query.source());
+        if (query.minDiscount() != null) filter.minDiscount(query.minDiscount());
+        return filter;
+    }
+
+    private static List<String> fields(List<String> requested) {
+        if (requested == null || requested.isEmpty()) return null;
+        List<String> fields = new ArrayList<>(requested.size());
+        for (String f : requested) {
+            String name = f.trim();
+            if (name.isEmpty()) continue;
+            if (!FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            if (!fields.contains(name)) fields.add(name);
+        }
+        return fields.isEmpty() ? null : fields;
+    }
+
+    private static Map<String, Object> project(Product p, List<String> fields) {
+        Map<String, Object> out = new LinkedHashMap<>(fields.size() * 2);
+        for (String f : fields) {
+            out.put(f, switch (f) {
+                case "id" -> p.getId();
+                case "name" -> p.getName();
+                case "url" -> p.getUrl();
+                case "imageUrl" -> p.getImageUrl();
+                case "priceCurrent" -> p.getPriceCurrent();
+                case "priceOriginal" -> p.getPriceOriginal();
+                case "discountPct" -> p.getDiscountPct();
+                case "source" -> p.getSource();
+                case "category" -> p.getCategory();
+                case "priceVersion" -> p.getPriceVersion();
+                default -> throw new IllegalStateException(f);
+            });
+        }
+        return out;
+    }
+
+    private static String encodeCursor(long version, int nextRow, String lastId) {
+        String raw = version + ":" + nextRow + ":" + (lastId != null ? lastId : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int resumeRow(CatalogSnapshot snapshot, ProductTable table, String cursor) {
+        String[] parts;
+        long version;
+        int row;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+            version = Long.parseLong(parts[0]);
+            row = Integer.parseInt(parts[1]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (row < 0) throw new IllegalArgumentException("Invalid cursor");
+        if (version == snapshot.version()) return row;
+
+        // Katalog değişti: son görülen ürünün yeni yerinden devam et
+        int last = parts.length > 2 && !parts[2].isEmpty() ? table.rowOf(parts[2]) : -1;
+        return last >= 0 ? last + 1 : Math.min(row, table.size());
+    }
+}
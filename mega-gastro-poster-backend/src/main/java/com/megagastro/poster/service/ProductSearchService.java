@@ -0,0 +1,117 @@
+package com.megagastro.poster.service;
+
+import com.megagastro.poster.model.CatalogSnapshot;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.repository.CustomProductRepository;
+import com.megagastro.poster.repository.CustomProductSavedEvent;
+import com.megagastro.poster.search.ProductSearchIndex;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Remote ve custom ürünler için iki ayrı index tutar:
+ * - remote index katalog yenilendiğinde yayınlanmış index'in kopyasına ID'ye göre fark uygulanarak kurulur
+ *   ve tek referansla yerine konur; aramalar hiçbir zaman yarım uygulanmış katalog görmez
+ * - custom index her save'de artımlı güncellenir
+ */
+@Service
+public class ProductSearchService {
+
+    public static final int MIN_QUERY_LENGTH = 3;
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private final CatalogService catalogService;
+    private final ProductSearchIndex customIndex;
+
+    private volatile IndexedRemote remote = new IndexedRemote(-1, null, new ProductSearchIndex());
+
+    public ProductSearchService(CatalogService catalogService,
+                                CustomProductRepository customProductRepository) {
+        this.catalogService = catalogService;
+        this.customIndex = ProductSearchIndex.of(customProductRepository.findAll());
+    }
+
+    @EventListener
+    public void onCustomProductSaved(CustomProductSavedEvent event) {
+        customIndex.add(event.product());
+    }
+
+    public List<Product> search(String query, int limit) {
+        if (query == null || query.trim().length() < MIN_QUERY_LENGTH) {
+            return List.of();
+        }
+        return search(catalogService.snapshot(), query, limit);
+    }
+
+    /**
+     * Verilen snapshot üzerinde arama (reaktif akışta snapshot bloklamadan alınır).
+     */
+    public List<Product> search(CatalogSnapshot snapshot, String query, int limit) {
+        if (query == null || query.trim().length() < MIN_QUERY_LENGTH) {
+            return List.of();
+        }
+        int effectiveLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        List<ProductSearchIndex.Hit> hits = new ArrayList<>();
+        hits.addAll(remoteIndex(snapshot).search(query, effectiveLimit));
+        hits.addAll(customIndex.search(query, effectiveLimit));
+        if (hits.isEmpty()) return List.of();
+
+        // İki index'in sonuçlarını index'le aynı kurala göre birleştir (tam eşitlikte remote önce)
+        hits.sort(ProductSearchIndex.Hit.BEST_FIRST);
+        List<Product> result = new ArrayList<>(Math.min(hits.size(), effectiveLimit));
+        for (ProductSearchIndex.Hit hit : hits) {
+            if (result.size() == effectiveLimit) break;
+            result.add(hit.product());
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Snapshot'ın remote listesinin index'i. Index'lenmiş olandan eski bir snapshot (istek yenileme
+     * öncesinde almış) paylaşılan index'i geri sarmaz; o istek güncel index'te arar.
+     */
+    private ProductSearchIndex remoteIndex(CatalogSnapshot snapshot) {
+        IndexedRemote current = remote;
+        if (current.source() == snapshot.remoteProducts() || snapshot.version() < current.version()) {
+            return current.index();
+        }
+        synchronized (this) {
+            current = remote;
+            if (current.source() != snapshot.remoteProducts() && snapshot.version() >= current.version()) {
+                current = new IndexedRemote(snapshot.version(), snapshot.remoteProducts(),
+                        update(current, snapshot.remoteProducts()));
+                remote = current;
+            }
+            return current.index();
+        }
+    }
+
+    /**
+     * ID'ler fiyattan bağımsız olduğu için fiyat güncellemesinde isimler yeniden token'lara ayrılmaz:
+     * yayınlanmış index kopyalanır, kopyada değişen ürünler değiştirilir, kaybolanlar silinir.
+     * Silinmiş doküman sayısı canlıları geçerse index sıfırdan kurulur.
+     */
+    private static ProductSearchIndex update(IndexedRemote current, List<Product> products) {
+        ProductSearchIndex published = current.index();
+        if (current.source() == null || published.deletedCount() > published.size()) {
+            return ProductSearchIndex.of(products);
+        }
+        ProductSearchIndex index = published.copy();
+        Set<String> ids = new HashSet<>(products.size() * 4 / 3 + 1);
+        for (Product p : products) {
+            ids.add(p.getId());
+            index.add(p);
+        }
+        for (Product p : current.source()) {
+            if (!ids.contains(p.getId())) index.remove(p.getId());
+        }
+        return index;
+    }
+
+    private record IndexedRemote(long version, List<Product> source, ProductSearchIndex index) {
+    }
+}
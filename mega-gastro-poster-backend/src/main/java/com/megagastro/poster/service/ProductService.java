@@ -1,32 +1,43 @@
 package com.megagastro.poster.service;
 
+import com.megagastro.poster.client.CrawlerUnavailableException;
 import com.megagastro.poster.dto.CreateCustomProductRequest;
+import com.megagastro.poster.dto.RemoteCategoryDto;
+import com.megagastro.poster.metrics.PosterMetrics;
+import com.megagastro.poster.model.CatalogSnapshot;
 import com.megagastro.poster.model.Product;
 import com.megagastro.poster.model.ProductSource;
 import com.megagastro.poster.repository.CustomProductRepository;
+import com.megagastro.poster.util.TextNormalizer;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Predicate;
 
 @Service
 public class ProductService {
 
+    private final CatalogService catalogService;
     private final RemoteProductService remoteProductService;
+    private final ProductSearchService productSearchService;
     private final CustomProductRepository customProductRepository;
+    private final PosterMetrics metrics;
 
-    public ProductService(RemoteProductService remoteProductService,
-                          CustomProductRepository customProductRepository) {
+    public ProductService(CatalogService catalogService,
+                          RemoteProductService remoteProductService,
+                          ProductSearchService productSearchService,
+                          CustomProductRepository customProductRepository,
+                          PosterMetrics metrics) {
+        this.catalogService = catalogService;
         this.remoteProductService = remoteProductService;
+        this.productSearchService = productSearchService;
         this.customProductRepository = customProductRepository;
+        this.metrics = metrics;
     }
 
     public List<Product> getAllProducts() {
-        List<Product> all = new ArrayList<>();
-        all.addAll(remoteProductService.fetchRemoteProducts());
-        all.addAll(customProductRepository.findAll());
-        return all;
+        return catalogService.snapshot().all();
     }
      public Product createCustomProduct(CreateCustomProductRequest request) {
         Product p = Product.builder().
@@ -45,30 +56,153 @@ public class ProductService {
             return Optional.empty();
         }
         if (id.startsWith("remote-")) {
-            return remoteProductService.fetchRemoteProducts().stream()
-                    .filter(p -> id.equals(p.getId()))
-                    .findFirst();
+            return catalogService.snapshot().findById(id);
         }
         return customProductRepository.findById(id);
     }
 
+    /**
+     * Poster için ID listesini tek snapshot üzerinden, tek geçişte çözer.
+     * Sıra korunur, bulunamayan ID'ler atlanır.
+     */
+    public List<Product> findAllById(List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return metrics.record(PosterMetrics.Stage.ID_RESOLUTION, () -> resolveIds(ids));
+    }
+
+    private List<Product> resolveIds(List<String> ids) {
+        // Sadece custom ürünler isteniyorsa crawler'a gitmeye gerek yok
+        if (ids.stream().noneMatch(id -> id != null && id.startsWith("remote-"))) {
+            return ids.stream()
+                    .map(customProductRepository::findById)
+                    .flatMap(Optional::stream)
+                    .toList();
+        }
+        return catalogService.snapshot().findAllById(ids);
+    }
+
+    /**
+     * Kategori adına veya key'ine (slug) göre ürünler.
+     * Crawler birden fazla kategoride görülen ürünlerin kategorisini "A | B" şeklinde birleştirir;
+     * bu parçaların herhangi biri eşleşirse ürün dahil edilir.
+     */
+    public List<Product> findByCategories(List<String> categories) {
+        if (categories == null || categories.isEmpty()) {
+            return List.of();
+        }
+        CatalogSnapshot snapshot = catalogService.snapshot();
+        List<String> crawlerKeys = crawlerCategoryKeys(categories);
+        if (crawlerKeys.isEmpty()) {
+            return findByCategories(snapshot, categories);
+        }
+        // Crawler kategorileri kategori başına paralel ve ayrı cache girdisinden gelir; geciken ya da hata veren
+        // kategori son başarılı listesinden döner. Custom ürünler ve crawler'da olmayan kategoriler snapshot'tan.
+        Map<String, Product> result = new LinkedHashMap<>();
+        for (Product p : remoteProductService.fetchRemoteProducts(String.join(",", crawlerKeys))) {
+            result.putIfAbsent(p.getId(), p);
+        }
+        for (Product p : findByCategories(snapshot, categories)) {
+            result.putIfAbsent(p.getId(), p);
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    /**
+     * İstenen kategorilere (isim veya key) karşılık gelen crawler kategori key'leri.
+     * Crawler bilmediği key için tüm ürünleri döndüğünden sadece /categories'te olan key'ler kullanılır.
+     * Kategori listesi alınamazsa boş döner; ürünler o zaman sadece snapshot'tan gelir.
+     */
+    private List<String> crawlerCategoryKeys(List<String> categories) {
+        List<RemoteCategoryDto> remote;
+        try {
+            remote = remoteProductService.fetchRemoteCategories();
+        } catch (CrawlerUnavailableException e) {
+            return List.of();
+        }
+        Predicate<String> matcher = categoryMatcher(categories);
+        List<String> keys = new ArrayList<>();
+        for (RemoteCategoryDto category : remote) {
+            if (category == null || category.key() == null || category.key().isBlank()) continue;
+            if (matcher.test(category.key()) || (category.name() != null && matcher.test(category.name()))) {
+                keys.add(category.key());
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Aynı snapshot üzerinden birden fazla seçim yapılacaksa (ör. toplu poster) kullanılır.
+     */
+    public List<Product> findByCategories(CatalogSnapshot snapshot, List<String> categories) {
+        if (categories == null || categories.isEmpty()) {
+            return List.of();
+        }
+        Predicate<String> matcher = categoryMatcher(categories);
+        Map<String, Product> result = new LinkedHashMap<>();
+        for (String category : snapshot.categories()) {
+            if (!matcher.test(category)) continue;
+            for (Product p : snapshot.findByCategory(category)) {
+                result.putIfAbsent(p.getId(), p);
+            }
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    /**
+     * Katalogdaki bir kategori adının istenen kategorilerden (isim veya key) biriyle eşleşip eşleşmediği.
+     * "A | B" şeklindeki birleşik kategorilerde parçalardan birinin eşleşmesi yeterlidir.
+     */
+    public static Predicate<String> categoryMatcher(List<String> categories) {
+        Set<String> wanted = new HashSet<>();
+        for (String c : categories) {
+            if (c != null && !c.isBlank()) wanted.add(TextNormalizer.slugify(c.trim()));
+        }
+        return category -> {
+            for (String part : category.split("\\|")) {
+                if (wanted.contains(TextNormalizer.slugify(part.trim()))) return true;
+            }
+            return false;
+        };
+    }
+
+    /**
+     * O anki katalog görünümü; birden fazla sorgunun tutarlı sonuç vermesi gerektiğinde.
+     */
+    public CatalogSnapshot snapshot() {
+        return catalogService.snapshot();
+    }
+
+    /**
+     * Snapshot'ın strong ETag'i (katalog versiyonu); koşullu GET'ler için.
+     */
+    public String etag(CatalogSnapshot snapshot) {
+        return catalogService.etag(snapshot);
+    }
+
     public Product saveCustom(Product p) {
         return customProductRepository.save(p);
     }
 
     public List<Product> searchProducts(String query) {
-        if (query == null || query.trim().isEmpty() || query.trim().length() < 3) {
-            return List.of();
-        }
-        
-        String searchTerm = query.toLowerCase().trim();
-        List<Product> all = new ArrayList<>();
-        all.addAll(remoteProductService.fetchRemoteProducts());
-        all.addAll(customProductRepository.findAll());
-        
-        return all.stream()
-                .filter(p -> p.getName() != null && p.getName().toLowerCase().contains(searchTerm))
-                .toList();
+        return searchProducts(query, ProductSearchService.DEFAULT_LIMIT);
+    }
+
+    public List<Product> searchProducts(String query, int limit) {
+        return productSearchService.search(query, limit);
+    }
+
+    /**
+     * snapshot()'ın bloklamayan hali; crawler listesi ve custom ürünler aynı anda alınır.
+     */
+    public Mono<CatalogSnapshot> snapshotReactive() {
+        return catalogService.snapshotReactive();
+    }
+
+    public Mono<List<Product>> searchProductsReactive(String query, int limit) {
+        return catalogService.snapshotReactive()
+                .map(snapshot -> productSearchService.search(snapshot, query, limit));
     }
 }
 
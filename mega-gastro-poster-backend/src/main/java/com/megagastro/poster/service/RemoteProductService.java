@@ -1,39 +1,405 @@
 package com.megagastro.poster.service;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.megagastro.poster.client.CrawlerGuard;
+import com.megagastro.poster.client.CrawlerUnavailableException;
+import com.megagastro.poster.client.RemoteProductReader;
+import com.megagastro.poster.config.CacheConfig;
 import com.megagastro.poster.dto.RemoteCategoryDto;
-import com.megagastro.poster.dto.RemoteProductDto;
+import com.megagastro.poster.metrics.PosterMetrics;
 import com.megagastro.poster.model.Product;
-import com.megagastro.poster.model.ProductSource;
+import com.megagastro.poster.repository.PriceHistoryStore;
+import com.megagastro.poster.util.ProductIdentity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class RemoteProductService {
 
+    private static final Logger log = LoggerFactory.getLogger(RemoteProductService.class);
+
+    /**
+     * Kategori filtresi olmayan (tüm ürünler) cache anahtarı.
+     */
+    public static final String ALL_KEY = "ALL";
+
+    // Son başarılı liste tutulan en fazla kategori sayısı (kategoriler istekten geldiği için sınırlı)
+    private static final int MAX_LAST_GOOD_CATEGORIES = 256;
+
     private final WebClient webClient;
+    private final CrawlerGuard crawlerGuard;
+    private final RemoteProductReader reader = new RemoteProductReader();
+    private final PriceHistoryStore priceHistory;
+    private final PosterMetrics metrics;
+    // Cache boşsa crawler yüklemesi burada yapılır (reaktif çağrılarda istek thread'i beklemez)
+    private final Executor crawlerLoadExecutor;
+    private final CacheManager cacheManager;
+    private final Duration categoryTimeout;
+    private final Duration categoriesHedgeDelay;
+    // Kategori başına son başarılı liste; crawler o kategoride hata verir/gecikirse bu döner.
+    // Anahtar tek bir (kırpılmış) kategori; cache girdisi expire olsa da kalır, en fazla MAX_LAST_GOOD_CATEGORIES
+    // kategori tutulur (listeler cache'tekilerle aynı örnek)
+    private final com.github.benmanes.caffeine.cache.Cache<String, List<Product>> lastGoodByCategory = Caffeine.newBuilder()
+            .maximumSize(MAX_LAST_GOOD_CATEGORIES)
+            .build();
+
+    // Delta sync durumu: son alınan ETag ve crawler anahtarına göre katalog (deltaLock altında).
+    // synchronized değil: kilit altında crawler beklenirken virtual thread carrier'ı tutmasın
+    private final ReentrantLock deltaLock = new ReentrantLock();
+    private String catalogEtag;
+    private Map<String, Product> catalogByKey = new LinkedHashMap<>();
+    private List<Product> catalog = List.of();
 
-    public RemoteProductService(@Value("${crawler.base-url}") String crawlerBaseUrl,
-                                WebClient.Builder webClientBuilder) {
-        this.webClient = webClientBuilder
-                .baseUrl(crawlerBaseUrl)
-                .build();
+    public RemoteProductService(WebClient crawlerWebClient,
+                                CrawlerGuard crawlerGuard,
+                                PriceHistoryStore priceHistory,
+                                PosterMetrics metrics,
+                                @Qualifier("crawlerLoadExecutor") Executor crawlerLoadExecutor,
+                                CacheManager cacheManager,
+                                @Value("${crawler.category-timeout:PT20S}") Duration categoryTimeout,
+                                @Value("${crawler.categories-hedge-delay:PT0S}") Duration categoriesHedgeDelay) {
+        this.webClient = crawlerWebClient;
+        this.crawlerGuard = crawlerGuard;
+        this.priceHistory = priceHistory;
+        this.metrics = metrics;
+        this.crawlerLoadExecutor = crawlerLoadExecutor;
+        this.cacheManager = cacheManager;
+        this.categoryTimeout = categoryTimeout;
+        this.categoriesHedgeDelay = categoriesHedgeDelay;
     }
 
     /**
      * Crawler'dan ürünleri çek.
-     * categories null/empty ise tüm kategorileri getirir.
-     * Caffeine ile cache'lenir (CacheConfig'te 5 dk).
+     * categories null/empty ise tüm kategorileri getirir; virgülle ayrılmış kategoriler
+     * streamRemoteProducts ile kategori kategori çekilip birleştirilir.
      */
-    @Cacheable(
-            value = "remoteProducts",
-            key = "#categories == null || #categories.trim().isEmpty() ? 'ALL' : #categories.trim()"
-    )
     public List<Product> fetchRemoteProducts(String categories) {
-        return webClient.get()
+        List<String> keys = categoryKeys(categories);
+        if (keys.isEmpty()) return join(cachedProducts(ALL_KEY));
+        return streamRemoteProducts(keys).collectList().block();
+    }
+
+    /**
+     * Kategorilerin ürünlerini crawler'dan paralel çeker ve URL'ye göre tekilleştirerek akış halinde birleştirir.
+     * Her kategori ayrı cache girdisidir ("a,b" ile "b,a" aynı iki girdiyi kullanır) ve ayrı yenilenir;
+     * yavaş bir kategori diğerlerinin cache'ini bekletmez. Bir kategori crawler.category-timeout içinde
+     * gelmezse ya da hata verirse son başarılı listesi kullanılır (hiç yoksa o kategori boş kalır);
+     * yükleme arka planda sürer ve sonucu sonraki istekte cache'ten gelir.
+     * Sıra istekteki kategori sırasıdır; önceki kategoriler beklenirken gelen sonraki kategoriler tamponlanır.
+     */
+    public Flux<Product> streamRemoteProducts(String categories) {
+        List<String> keys = categoryKeys(categories);
+        if (keys.isEmpty()) return Mono.fromFuture(cachedProducts(ALL_KEY)).flatMapIterable(list -> list);
+        return streamRemoteProducts(keys);
+    }
+
+    private Flux<Product> streamRemoteProducts(List<String> keys) {
+        return Flux.fromIterable(keys)
+                .flatMapSequential(key -> Mono.fromFuture(categoryProducts(key)), keys.size())
+                .flatMapIterable(list -> list)
+                .distinct(RemoteProductService::crawlerKey);
+    }
+
+    /**
+     * Tek kategorinin listesi; zaman aşımı ve hata durumunda son başarılı liste.
+     * Zaman aşımı cache'teki yüklemenin bir kopyasına uygulanır: yükleme iptal edilmez, cache'e yine yazılır.
+     */
+    private CompletableFuture<List<Product>> categoryProducts(String category) {
+        return cachedProducts(category).copy()
+                .orTimeout(categoryTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    List<Product> last = lastGood(category);
+                    log.warn("Crawler fetch for category '{}' failed ({}), serving {} products from last good result",
+                            category, e.getCause() != null ? e.getCause() : e, last.size());
+                    return last;
+                });
+    }
+
+    /**
+     * REMOTE_PRODUCTS cache girdisi; yoksa yükleme crawlerLoadExecutor'da yapılır ve
+     * aynı anahtar için eşzamanlı istekler aynı yüklemeyi paylaşır.
+     */
+    private CompletableFuture<List<Product>> cachedProducts(String key) {
+        return cached(CacheConfig.REMOTE_PRODUCTS, key, "products", () -> loadProducts(ALL_KEY.equals(key) ? null : key));
+    }
+
+    /**
+     * Cache girdisi; yoksa loader crawlerLoadExecutor'da çalışır. Devre açıksa yükleme hiç başlatılmaz,
+     * future CrawlerUnavailableException ile döner: reddedilen çağrı cache'e başarısız yükleme olarak
+     * girmez (Caffeine her başarısız yüklemeyi stack trace ile loglar), yedeğe düşmek yine çağıranın işidir.
+     */
+    private <T> CompletableFuture<T> cached(String cacheName, Object key, String operation, Supplier<T> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        Objects.requireNonNull(cache, cacheName + " cache is not configured");
+        if (cache.retrieve(key) == null) {
+            try {
+                crawlerGuard.checkCircuit(operation);
+            } catch (CrawlerUnavailableException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return cache.retrieve(key, () -> CompletableFuture.supplyAsync(loader, crawlerLoadExecutor));
+    }
+
+    /**
+     * Bloklayan çağıranlar için: CompletionException açılır, CrawlerUnavailableException olduğu gibi fırlatılır.
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Virgülle ayrılmış kategorileri ayrı ayrı kırpar; boşları ve tekrarları atar, sırayı korur.
+     */
+    static List<String> categoryKeys(String categories) {
+        if (categories == null) return List.of();
+        Set<String> keys = new LinkedHashSet<>();
+        for (String category : categories.split(",")) {
+            String key = category.trim();
+            if (!key.isEmpty()) keys.add(key);
+        }
+        return List.copyOf(keys);
+    }
+
+    /**
+     * Tüm kategoriler; anahtar fetchRemoteProducts(null) ile aynıdır.
+     */
+    public List<Product> fetchRemoteProducts() {
+        return join(cachedProducts(ALL_KEY));
+    }
+
+    /**
+     * Crawler'dan kategori listesini çeker.
+     * Bu da cache'lidir.
+     */
+    public List<RemoteCategoryDto> fetchRemoteCategories() {
+        return join(cachedCategories());
+    }
+
+    /**
+     * fetchRemoteProducts() ile aynı cache girdisi, bloklamadan. Değer cache'teyse hemen döner;
+     * değilse yükleme crawler executor'ında yapılır ve aynı anda gelen istekler onu paylaşır.
+     */
+    public Mono<List<Product>> fetchRemoteProductsReactive() {
+        return Mono.fromFuture(() -> cachedProducts(ALL_KEY));
+    }
+
+    /**
+     * fetchRemoteCategories() ile aynı cache girdisi, bloklamadan.
+     */
+    public Mono<List<RemoteCategoryDto>> fetchRemoteCategoriesReactive() {
+        return Mono.fromFuture(this::cachedCategories);
+    }
+
+    /**
+     * Kategori listesi parametresiz; anahtar Spring'in parametresiz metot anahtarı (SimpleKey.EMPTY),
+     * CrawlerCacheRefresher da bunu yeniler.
+     */
+    private CompletableFuture<List<RemoteCategoryDto>> cachedCategories() {
+        return cached(CacheConfig.REMOTE_CATEGORIES, SimpleKey.EMPTY, "categories", this::loadCategories);
+    }
+
+    /**
+     * Cache'e bakmadan crawler'a gider; cache yüklemesi ve arka plan yenilemesi bunu çağırır.
+     * Tüm ürünler delta sync ile, kategori filtreli istekler tam liste olarak alınır
+     * ve kategorinin son başarılı listesi olarak saklanır.
+     * Çağrı CrawlerGuard arkasındadır; devre açıksa crawler'a gidilmeden CrawlerUnavailableException fırlatılır.
+     */
+    public List<Product> loadProducts(String categories) {
+        return crawlerGuard.call("products",
+                () -> metrics.record(PosterMetrics.Stage.CRAWLER_FETCH, () -> fetchProducts(categories)));
+    }
+
+    private List<Product> fetchProducts(String categories) {
+        if (categories == null || categories.trim().isEmpty()) {
+            return loadCatalogChanges();
+        }
+        List<Product> products = loadFullProducts(categories);
+        deltaLock.lock();
+        try {
+            // Filtreli liste de tüm katalogla aynı fiyat sürümlerini taşısın
+            for (Product p : products) {
+                Product known = catalogByKey.get(crawlerKey(p));
+                p.setPriceVersion(known != null && samePrice(known, p) ? known.getPriceVersion() : null);
+            }
+        } finally {
+            deltaLock.unlock();
+        }
+        List<String> keys = categoryKeys(categories);
+        if (keys.size() == 1) {
+            lastGoodByCategory.put(keys.get(0), products);
+        }
+        return products;
+    }
+
+    private List<Product> lastGood(String category) {
+        List<Product> last = lastGoodByCategory.getIfPresent(category);
+        return last != null ? last : List.of();
+    }
+
+    /**
+     * Delta sync durumunu diskteki son katalogdan başlatır (açılışta, crawler'a gidilmeden önce).
+     * İlk senkronizasyon ETag'siz tam liste olur ve bu katalogla karşılaştırılır: fiyatı değişmeyen ürünler
+     * kayıtlı priceVersion'ı korur, değişenler bir artar; kategori filtreli listeler de ilk senkronizasyonu
+     * beklemeden bu sürümleri taşır. Katalog zaten yüklendiyse dokunulmaz.
+     */
+    public void seed(List<Product> remote) {
+        deltaLock.lock();
+        try {
+            if (!catalogByKey.isEmpty()) return;
+            Map<String, Product> byKey = new LinkedHashMap<>(Math.max(16, remote.size() * 4 / 3 + 1));
+            for (Product p : remote) {
+                byKey.putIfAbsent(crawlerKey(p), p);
+            }
+            catalogByKey = byKey;
+            catalog = List.copyOf(byKey.values());
+        } finally {
+            deltaLock.unlock();
+        }
+    }
+
+    /**
+     * Son ETag ile crawler'a sorar: 304 ise aynı liste referansı döner (katalog yeniden kurulmaz),
+     * değilse sadece eklenen/değişen ürünler çevrilir ve önceki kataloğa uygulanır.
+     * Crawler delta endpoint'ini bilmiyorsa (404) tam listeye düşülür.
+     */
+    private List<Product> loadCatalogChanges() {
+        deltaLock.lock();
+        try {
+            ResponseEntity<Flux<DataBuffer>> response;
+            try {
+                response = webClient.get()
+                        .uri("/products/changes")
+                        .headers(h -> {
+                            if (catalogEtag != null) h.setIfNoneMatch(catalogEtag);
+                        })
+                        .retrieve()
+                        .toEntityFlux(DataBuffer.class)
+                        .block();
+            } catch (WebClientResponseException.NotFound e) {
+                catalogEtag = null;
+                CatalogUpdate update = new CatalogUpdate();
+                readFullProducts(null, update::upsert);
+                update.commit(true, List.of());
+                return catalog;
+            }
+            if (response == null || response.getStatusCode() == HttpStatus.NOT_MODIFIED || response.getBody() == null) {
+                return catalog;
+            }
+
+            // Upsert'ler okundukça uygulanır; silmeler sonra, crawler aynı anahtarı iki listede birden göndermez
+            CatalogUpdate update = new CatalogUpdate();
+            List<String> removed = new ArrayList<>();
+            RemoteProductReader.Changes changes;
+            try {
+                changes = deserialize(response.getBody(), in -> reader.readChanges(in, update::upsert, removed::add));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read product changes from crawler", e);
+            }
+
+            update.commit(changes.full(), removed);
+            catalogEtag = changes.etag();
+            return catalog;
+        } finally {
+            deltaLock.unlock();
+        }
+    }
+
+    /**
+     * Değişiklikleri crawler anahtarına göre kataloğa uygular (deltaLock altında kullanılır).
+     * Upsert'ler parser'dan geldikçe alınır, ara liste tutulmaz; tam listede bu map yeni katalog olur,
+     * delta'da önceki katalog bir kez kopyalanıp üzerine yazılır.
+     * Kimlik URL'den geldiği için fiyatı değişen ürün aynı ID ile kalır, sadece priceVersion artar;
+     * hiç değişmeyen ürünlerde önceki örnek korunur. Yeni/değişen ürünlerin fiyatı commit'te geçmişe
+     * yazılır; okuma yarıda kalırsa ne katalog ne geçmiş değişir.
+     */
+    private final class CatalogUpdate {
+
+        private final Map<String, Product> previous = catalogByKey;
+        private final Map<String, Product> upserted = new LinkedHashMap<>();
+
+        void upsert(Product p) {
+            String key = crawlerKey(p);
+            Product old = previous.get(key);
+            if (old == null || old.getPriceVersion() == null) {
+                p.setPriceVersion(1);
+            } else if (samePrice(old, p)) {
+                p.setPriceVersion(old.getPriceVersion());
+                if (old.equals(p)) p = old;
+            } else {
+                p.setPriceVersion(old.getPriceVersion() + 1);
+            }
+            upserted.put(key, p);
+        }
+
+        void commit(boolean full, List<String> removed) {
+            Instant now = Instant.now();
+            for (Map.Entry<String, Product> e : upserted.entrySet()) {
+                Product p = e.getValue();
+                if (p != previous.get(e.getKey()) && p.getPriceCurrent() != null && p.getPriceCurrent() > 0) {
+                    priceHistory.record(p.getId(), now, p.getPriceCurrent(), p.getPriceOriginal());
+                }
+            }
+            Map<String, Product> next = upserted;
+            if (!full) {
+                next = new LinkedHashMap<>(previous);
+                next.putAll(upserted);
+            }
+            for (String key : removed) {
+                next.remove(key);
+            }
+            catalogByKey = next;
+            catalog = List.copyOf(next.values());
+        }
+    }
+
+    private static boolean samePrice(Product a, Product b) {
+        return Objects.equals(a.getPriceCurrent(), b.getPriceCurrent())
+                && Objects.equals(a.getPriceOriginal(), b.getPriceOriginal())
+                && Objects.equals(a.getDiscountPct(), b.getDiscountPct());
+    }
+
+    private List<Product> loadFullProducts(String categories) {
+        List<Product> products = new ArrayList<>();
+        readFullProducts(categories, products::add);
+        return products;
+    }
+
+    private void readFullProducts(String categories, Consumer<Product> sink) {
+        Flux<DataBuffer> body = webClient.get()
                 .uri(uriBuilder -> {
                     uriBuilder.path("/products");
                     if (categories != null && !categories.trim().isEmpty()) {
@@ -42,63 +408,81 @@ public class RemoteProductService {
                     return uriBuilder.build();
                 })
                 .retrieve()
-                .bodyToFlux(RemoteProductDto.class)
-                .map(this::mapToProduct)
-                .collectList()
-                .block();
+                .bodyToFlux(DataBuffer.class);
+        try {
+            deserialize(body, in -> {
+                reader.readArray(in, sink);
+                return null;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read products from crawler", e);
+        }
     }
 
-    public List<Product> fetchRemoteProducts() {
-        return fetchRemoteProducts(null);
+    /**
+     * Cevabı akış halinde okur. Okuma ağdan gelmeyi bekleyerek ilerlediği için deserialize
+     * süresinden sonraki buffer'ın beklendiği süre düşülür; kalan sadece JSON çevirme maliyetidir.
+     */
+    private <T> T deserialize(Flux<DataBuffer> body, BodyReader<T> read) throws IOException {
+        long[] networkWait = new long[1];
+        long start = System.nanoTime();
+        try (InputStream in = asInputStream(body, networkWait)) {
+            return read.read(in);
+        } finally {
+            metrics.record(PosterMetrics.Stage.DESERIALIZE, System.nanoTime() - start - networkWait[0]);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        T read(InputStream in) throws IOException;
     }
 
     /**
-     * Crawler'dan kategori listesini çeker.
-     * Bu da cache'lidir.
+     * Gelen buffer'ları sırayla okuyan stream; her buffer okunup bitince serbest bırakılır.
+     * Böylece cevabın tamamı hiçbir zaman tek parça bellekte tutulmaz.
+     * Sonraki buffer için beklenen süre networkWait[0]'a eklenir.
      */
-    @Cacheable("remoteCategories")
-    public List<RemoteCategoryDto> fetchRemoteCategories() {
-        return webClient.get()
-                .uri("/categories")
-                .retrieve()
-                .bodyToFlux(RemoteCategoryDto.class)
-                .collectList()
-                .block();
-    }
-
-    /**
-     * Remote servis DTO'sunu kendi domain Product modeline çeviren yardımcı fonksiyon.
-     * Burada:
-     * - ID'yi kendimiz üretiyoruz (remote- hash)
-     * - Source'u REMOTE olarak set ediyoruz
-     * - Category ve fiyat alanlarını normalize ediyoruz
-     */
-    private Product mapToProduct(RemoteProductDto dto) {
-        String url = dto.url() != null ? dto.url() : "";
-        String name = dto.name() != null ? dto.name() : "";
-
-        double current = dto.price_current();
-        double original = dto.price_original() > 0 ? dto.price_original() : current;
-        int discountPct = dto.discount_pct() > 0 ? dto.discount_pct() : 0;
-
-        String category =
-                dto.category() != null && !dto.category().isBlank()
-                        ? dto.category()
-                        : "Diğer";
-
-        // Unique ID: URL + name + price üzerinden hash
-        String uniqueKey = url + "|" + name + "|" + current;
-        String id = "remote-" + Integer.toUnsignedString(uniqueKey.hashCode());
-        return Product.builder()
-                .id(id)
-                .name(name)
-                .url(url)
-                .imageUrl(dto.image_url())
-                .priceCurrent(current)
-                .priceOriginal(original)
-                .discountPct(discountPct)
-                .source(ProductSource.REMOTE)
-                .category(category)
-                .build();
+    private static InputStream asInputStream(Flux<DataBuffer> body, long[] networkWait) {
+        Iterator<DataBuffer> buffers = body.toIterable(4).iterator();
+        return new SequenceInputStream(new Enumeration<>() {
+            @Override
+            public boolean hasMoreElements() {
+                long start = System.nanoTime();
+                try {
+                    return buffers.hasNext();
+                } finally {
+                    networkWait[0] += System.nanoTime() - start;
+                }
+            }
+
+            @Override
+            public InputStream nextElement() {
+                return buffers.next().asInputStream(true);
+            }
+        });
+    }
+
+    public List<RemoteCategoryDto> loadCategories() {
+        return crawlerGuard.call("categories",
+                () -> metrics.record(PosterMetrics.Stage.CRAWLER_FETCH, () -> hedged(webClient.get()
+                        .uri("/categories")
+                        .retrieve()
+                        .bodyToFlux(RemoteCategoryDto.class)
+                        .collectList()).block()));
+    }
+
+    /**
+     * crawler.categories-hedge-delay verilmişse ilk istek bu sürede dönmezse aynı istek bir kez daha gönderilir;
+     * önce gelen cevap kullanılır, diğeri iptal edilir. Kategori listesi küçük ve idempotent olduğu için sadece
+     * orada kullanılır; ürün taramaları crawler'da ağır olduğu için çoğaltılmaz. İki istek tek bulkhead yeri tutar.
+     */
+    private <T> Mono<T> hedged(Mono<T> request) {
+        if (categoriesHedgeDelay.isZero() || categoriesHedgeDelay.isNegative()) return request;
+        return Mono.firstWithValue(request, request.delaySubscription(categoriesHedgeDelay));
+    }
+
+    private static String crawlerKey(Product p) {
+        return ProductIdentity.crawlerKey(p.getUrl(), p.getName(), p.getImageUrl());
     }
 }
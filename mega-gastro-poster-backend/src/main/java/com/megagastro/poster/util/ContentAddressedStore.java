@@ -0,0 +1,202 @@
+package com.megagastro.poster.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * İçerik adresli disk deposu (görsel ve poster cache'leri kullanır).
+ * <pre>
+ * objects/ab/abcdef...   içeriğin kendisi (içeriğin SHA-256'sı)
+ * refs/&lt;sha256(key)&gt;     anahtar (URL vb.) -> içerik hash'i
+ * </pre>
+ * Aynı içerik farklı anahtarlardan gelse de diskte tek kopya tutulur.
+ * Toplam boyut sınırı aşılınca en uzun süre kullanılmayan nesneler silinir.
+ */
+public class ContentAddressedStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentAddressedStore.class);
+
+    private final Path objectsDir;
+    private final Path refsDir;
+    private final long maxBytes;
+
+    private final Map<String, String> refs = new ConcurrentHashMap<>();
+    // access-order LinkedHashMap: ilk eleman en uzun süre kullanılmayan
+    private final LinkedHashMap<String, Long> lru = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    public ContentAddressedStore(Path root, long maxBytes) {
+        this.objectsDir = root.resolve("objects");
+        this.refsDir = root.resolve("refs");
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(objectsDir);
+            Files.createDirectories(refsDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create cache store at " + root, e);
+        }
+        load();
+    }
+
+    private void load() {
+        List<Path> objects;
+        try (Stream<Path> files = Files.walk(objectsDir, 2)) {
+            objects = files.filter(Files::isRegularFile)
+                    .filter(p -> !p.getFileName().toString().startsWith(".tmp-"))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        objects.stream()
+                .sorted(Comparator.comparing(ContentAddressedStore::lastModified))
+                .forEach(p -> {
+                    long size = p.toFile().length();
+                    lru.put(p.getFileName().toString(), size);
+                    totalBytes += size;
+                });
+
+        try (Stream<Path> files = Files.list(refsDir)) {
+            files.filter(p -> !p.getFileName().toString().startsWith(".tmp-")).forEach(p -> {
+                try {
+                    refs.put(p.getFileName().toString(), Files.readString(p, StandardCharsets.US_ASCII).trim());
+                } catch (IOException e) {
+                    log.debug("Skipping unreadable cache ref {}", p);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        evictIfNeeded();
+    }
+
+    public Optional<byte[]> read(String key) {
+        String refKey = sha256(key.getBytes(StandardCharsets.UTF_8));
+        String hash = refs.get(refKey);
+        if (hash == null) return Optional.empty();
+
+        Path object = objectPath(hash);
+        try {
+            byte[] data = Files.readAllBytes(object);
+            touch(hash, object);
+            return Optional.of(data);
+        } catch (NoSuchFileException e) {
+            // Nesne LRU ile silinmiş; referansı da temizle
+            refs.remove(refKey, hash);
+            deleteQuietly(refsDir.resolve(refKey));
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Failed to read cache entry {}", object, e);
+            return Optional.empty();
+        }
+    }
+
+    public void write(String key, byte[] data) {
+        String refKey = sha256(key.getBytes(StandardCharsets.UTF_8));
+        String hash = sha256(data);
+        Path object = objectPath(hash);
+        try {
+            boolean isNew;
+            synchronized (lru) {
+                isNew = !lru.containsKey(hash);
+            }
+            if (isNew) {
+                Files.createDirectories(object.getParent());
+                writeAtomically(object, data);
+                synchronized (lru) {
+                    if (lru.put(hash, (long) data.length) == null) {
+                        totalBytes += data.length;
+                    }
+                }
+            } else {
+                touch(hash, object);
+            }
+            writeAtomically(refsDir.resolve(refKey), hash.getBytes(StandardCharsets.US_ASCII));
+            refs.put(refKey, hash);
+        } catch (IOException e) {
+            log.warn("Failed to store cache entry for {}", key, e);
+            return;
+        }
+        evictIfNeeded();
+    }
+
+    public long sizeBytes() {
+        synchronized (lru) {
+            return totalBytes;
+        }
+    }
+
+    private void touch(String hash, Path object) {
+        synchronized (lru) {
+            lru.get(hash);
+        }
+        try {
+            Files.setLastModifiedTime(object, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // Sadece yeniden başlatma sonrası LRU sırası için; hata önemsiz
+        }
+    }
+
+    private void evictIfNeeded() {
+        List<String> victims = new ArrayList<>();
+        synchronized (lru) {
+            Iterator<Map.Entry<String, Long>> it = lru.entrySet().iterator();
+            while (totalBytes > maxBytes && it.hasNext()) {
+                Map.Entry<String, Long> eldest = it.next();
+                totalBytes -= eldest.getValue();
+                victims.add(eldest.getKey());
+                it.remove();
+            }
+        }
+        for (String hash : victims) {
+            deleteQuietly(objectPath(hash));
+        }
+    }
+
+    private Path objectPath(String hash) {
+        return objectsDir.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static void writeAtomically(Path target, byte[] data) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), ".tmp-", null);
+        try {
+            Files.write(tmp, data);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static FileTime lastModified(Path p) {
+        try {
+            return Files.getLastModifiedTime(p);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    public static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.megagastro.poster.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Alman para formatı ("1.234,56 €"), NumberFormat.getCurrencyInstance(Locale.GERMANY) ile aynı çıktı.
+ * Durumsuz olduğu için thread-safe'tir ve doğrudan StringBuilder'a yazar; istek başına
+ * NumberFormat kurulmaz.
+ */
+public final class EuroFormatter {
+
+    // NumberFormat para birimi ile tutar arasına bölünmez boşluk koyar
+    private static final String SUFFIX = " €";
+
+    private EuroFormatter() {
+    }
+
+    public static void format(double amount, StringBuilder out) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+            out.append(amount);
+            return;
+        }
+        // NumberFormat gibi sıfıra yuvarlanan negatifler de "-0,00 €" yazılır
+        if (Double.doubleToRawLongBits(amount) < 0) {
+            out.append('-');
+            amount = -amount;
+        }
+        long cents = toCents(amount);
+        appendGrouped(cents / 100, out);
+        long fraction = cents % 100;
+        out.append(',').append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10)).append(SUFFIX);
+    }
+
+    public static String format(double amount) {
+        StringBuilder sb = new StringBuilder(16);
+        format(amount, sb);
+        return sb.toString();
+    }
+
+    /**
+     * DecimalFormat gibi double'ın tam değerini HALF_EVEN ile yuvarlar.
+     * Sadece yarım sınırına çok yakın değerlerde BigDecimal'e düşülür.
+     */
+    private static long toCents(double amount) {
+        double scaled = amount * 100;
+        double fraction = Math.abs(scaled - Math.floor(scaled));
+        if (Math.abs(fraction - 0.5) < 1e-6 || Math.abs(scaled) >= 1e15) {
+            return new BigDecimal(amount).setScale(2, RoundingMode.HALF_EVEN).movePointRight(2).longValue();
+        }
+        return Math.round(scaled);
+    }
+
+    private static void appendGrouped(long value, StringBuilder out) {
+        if (value < 1000) {
+            out.append(value);
+            return;
+        }
+        appendGrouped(value / 1000, out);
+        long group = value % 1000;
+        out.append('.');
+        if (group < 100) out.append('0');
+        if (group < 10) out.append('0');
+        out.append(group);
+    }
+}
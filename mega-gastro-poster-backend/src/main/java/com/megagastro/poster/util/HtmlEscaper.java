@@ -0,0 +1,39 @@
+package com.megagastro.poster.util;
+
+/**
+ * Tek geçişte HTML kaçışı; kaçış gerekmeyen aralıklar toplu kopyalanır.
+ */
+public final class HtmlEscaper {
+
+    private HtmlEscaper() {
+    }
+
+    /**
+     * Metni kaçışlı olarak out'a ekler; null boş metin sayılır.
+     */
+    public static void escape(CharSequence text, StringBuilder out) {
+        if (text == null) return;
+        int start = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            String replacement = switch (text.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                default -> null;
+            };
+            if (replacement == null) continue;
+            out.append(text, start, i).append(replacement);
+            start = i + 1;
+        }
+        out.append(text, start, length);
+    }
+
+    public static String escape(CharSequence text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length() + 16);
+        escape(text, sb);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package com.megagastro.poster.util;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Remote ürün kimliği: kanonik URL'in 64-bit hash'i.
+ * Fiyat kimliğe dahil değildir; fiyat değişince ID aynı kalır, böylece ID ile tutulan
+ * index'ler, cache'ler ve poster istekleri geçerliliğini korur.
+ */
+public final class ProductIdentity {
+
+    public static final String REMOTE_PREFIX = "remote-";
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ProductIdentity() {
+    }
+
+    /**
+     * URL'i olmayan ürünlerde crawler'ın dedupe anahtarı (isim + görsel) kullanılır.
+     */
+    public static String remoteId(String url, String name, String imageUrl) {
+        long hash = url != null && !url.isBlank()
+                ? hash64(canonicalUrl(url))
+                : hash64(crawlerKey(null, name, imageUrl));
+        return REMOTE_PREFIX + HexFormat.of().toHexDigits(hash);
+    }
+
+    /**
+     * Crawler'ın ürün anahtarı; crawler-service/src/server.js productKey ile birebir aynıdır:
+     * URL boş değilse URL, değilse "isim-görsel". Eksik isim/görsel boş string sayılır.
+     * Silinen ürünler delta cevabında bu anahtarla bildirilir.
+     */
+    public static String crawlerKey(String url, String name, String imageUrl) {
+        if (url != null && !url.isEmpty()) return url;
+        return (name != null ? name : "") + "-" + (imageUrl != null ? imageUrl : "");
+    }
+
+    /**
+     * Şema ve host küçük harfe çevrilir; varsayılan port, fragment, utm_* parametreleri
+     * ve path sonundaki "/" atılır. Parse edilemeyen URL'ler sadece trim edilir.
+     */
+    public static String canonicalUrl(String url) {
+        String trimmed = url.trim();
+        try {
+            URI uri = new URI(trimmed);
+            if (uri.getScheme() == null || uri.getRawAuthority() == null) return trimmed;
+
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            String host = uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) : uri.getRawAuthority();
+            int port = uri.getPort();
+            boolean defaultPort = port == -1
+                    || (port == 80 && scheme.equals("http"))
+                    || (port == 443 && scheme.equals("https"));
+
+            StringBuilder sb = new StringBuilder(trimmed.length());
+            sb.append(scheme).append("://").append(host);
+            if (!defaultPort) sb.append(':').append(port);
+
+            String path = uri.getRawPath() != null ? uri.getRawPath() : "";
+            while (path.endsWith("/")) path = path.substring(0, path.length() - 1);
+            sb.append(path);
+
+            String query = canonicalQuery(uri.getRawQuery());
+            if (!query.isEmpty()) sb.append('?').append(query);
+            return sb.toString();
+        } catch (URISyntaxException e) {
+            return trimmed;
+        }
+    }
+
+    private static String canonicalQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) return "";
+        StringBuilder sb = new StringBuilder(rawQuery.length());
+        for (String param : rawQuery.split("&")) {
+            if (param.isEmpty() || param.toLowerCase(Locale.ROOT).startsWith("utm_")) continue;
+            if (!sb.isEmpty()) sb.append('&');
+            sb.append(param);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Karakterler üzerinde FNV-1a, sonunda MurmurHash3 fmix64 ile karıştırılır.
+     * Ara byte dizisi üretilmez.
+     */
+    public static long hash64(CharSequence s) {
+        long h = FNV_OFFSET;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            h ^= c & 0xff;
+            h *= FNV_PRIME;
+            h ^= c >>> 8;
+            h *= FNV_PRIME;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,35 @@
+package com.megagastro.poster.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Kategori slug'ları ve ürün araması için ortak metin normalizasyonu.
+ * NFD ile aksanlar ayrıştırılır, işaretler atılır ve Almanca locale ile küçültülür.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}");
+    private static final Pattern NON_SLUG = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern EDGE_DASHES = Pattern.compile("^-+|-+$");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * "Küchengeräte" -> "kuchengerate"
+     */
+    public static String fold(String input) {
+        if (input == null) return "";
+        String normalized = MARKS.matcher(Normalizer.normalize(input, Normalizer.Form.NFD)).replaceAll("");
+        return normalized.toLowerCase(Locale.GERMAN);
+    }
+
+    public static String slugify(String input) {
+        if (input == null) return "kategori";
+        String slug = NON_SLUG.matcher(fold(input)).replaceAll("-");
+        slug = EDGE_DASHES.matcher(slug).replaceAll("");
+        return slug.isBlank() ? "kategori" : slug;
+    }
+}
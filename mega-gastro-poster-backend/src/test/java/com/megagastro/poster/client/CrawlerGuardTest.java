@@ -0,0 +1,196 @@
+package com.megagastro.poster.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CrawlerGuardTest {
+
+    private static final Duration CALL_TIMEOUT = Duration.ofMillis(300);
+
+    // /slow bu latch açılana kadar (en fazla 10s) cevap vermez
+    private final CountDownLatch releaseSlow = new CountDownLatch(1);
+    private final AtomicInteger requests = new AtomicInteger();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private HttpServer server;
+    private WebClient webClient;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/ok", counted(exchange -> respond(exchange, 200, "ok")));
+        server.createContext("/fail", counted(exchange -> respond(exchange, 500, "Failed to scrape products")));
+        server.createContext("/missing", counted(exchange -> respond(exchange, 404, "Not found")));
+        server.createContext("/slow", counted(exchange -> {
+            try {
+                releaseSlow.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "slow");
+        }));
+        server.start();
+        webClient = WebClient.create("http://127.0.0.1:" + server.getAddress().getPort());
+        // İlk WebClient isteği Netty'yi başlatır; zaman aşımı testlerine sayılmasın
+        get("/ok");
+        requests.set(0);
+    }
+
+    @AfterEach
+    void stop() {
+        releaseSlow.countDown();
+        callers.shutdownNow();
+        server.stop(0);
+    }
+
+    @Test
+    void timeoutsOpenCircuitAndLaterCallsSkipCrawler() {
+        CrawlerGuard guard = new CrawlerGuard(4, Duration.ofSeconds(1), 2, Duration.ofSeconds(30));
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> guard.call("products", () -> get("/slow")))
+                    .isInstanceOf(CrawlerUnavailableException.class)
+                    .hasMessage("Crawler products failed")
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+        assertThat(guard.state()).isEqualTo(CrawlerGuard.State.OPEN);
+
+        assertThatThrownBy(() -> guard.call("products", () -> get("/ok")))
+                .isInstanceOf(CrawlerUnavailableException.class)
+                .hasMessage("Crawler circuit is open, skipped products")
+                .hasNoCause();
+        assertThatThrownBy(() -> guard.checkCircuit("products"))
+                .isInstanceOf(CrawlerUnavailableException.class);
+        assertThat(requests).hasValue(2);
+    }
+
+    @Test
+    void fullBulkheadRejectsWithoutCountingFailure() throws Exception {
+        CrawlerGuard guard = new CrawlerGuard(1, Duration.ofMillis(100), 1, Duration.ofSeconds(30));
+        CompletableFuture<String> slow = CompletableFuture.supplyAsync(
+                () -> guard.call("products", () -> getWithin("/slow", Duration.ofSeconds(10))), callers);
+        awaitRequests(1);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> guard.call("categories", () -> get("/ok")))
+                .isInstanceOf(CrawlerUnavailableException.class)
+                .hasMessage("Too many concurrent crawler calls, rejected categories");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(guard.state()).isEqualTo(CrawlerGuard.State.CLOSED);
+        assertThat(requests).hasValue(1);
+
+        releaseSlow.countDown();
+        assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        assertThat(guard.call("categories", () -> get("/ok"))).isEqualTo("ok");
+    }
+
+    @Test
+    void successfulProbeClosesCircuit() throws Exception {
+        CrawlerGuard guard = new CrawlerGuard(4, Duration.ofSeconds(1), 1, Duration.ofMillis(200));
+        assertThatThrownBy(() -> guard.call("products", () -> get("/fail")))
+                .isInstanceOf(CrawlerUnavailableException.class)
+                .hasMessage("Crawler products failed: 500 INTERNAL_SERVER_ERROR");
+        assertThat(guard.state()).isEqualTo(CrawlerGuard.State.OPEN);
+
+        Thread.sleep(300);
+        // Süre doldu: tek deneme çağrısı geçer, o sürerken diğerleri reddedilir
+        CompletableFuture<String> probe = CompletableFuture.supplyAsync(
+                () -> guard.call("products", () -> getWithin("/slow", Duration.ofSeconds(10))), callers);
+        awaitRequests(2);
+        assertThat(guard.state()).isEqualTo(CrawlerGuard.State.HALF_OPEN);
+        assertThatThrownBy(() -> guard.call("categories", () -> get("/ok")))
+                .hasMessage("Crawler circuit is open, skipped categories");
+        assertThatThrownBy(() -> guard.checkCircuit("categories"))
+                .isInstanceOf(CrawlerUnavailableException.class);
+
+        releaseSlow.countDown();
+        assertThat(probe.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        assertThat(guard.state()).isEqualTo(CrawlerGuard.State.CLOSED);
+        assertThat(guard.call("categories", () -> get("/ok"))).isEqualTo("ok");
+        assertThat(requests).hasValue(3);
+    }
+
+    @Test
+    void failedProbeReopensCircuit() throws Exception {
+        CrawlerGuard guard = new CrawlerGuard(4, Duration.ofSeconds(1), 1, Duration.ofMillis(200));
+        assertThatThrownBy(() -> guard.call("products", () -> get("/fail")))
+                .isInstanceOf(CrawlerUnavailableException.class);
+
+        Thread.sleep(300);
+        // checkCircuit durumu değiştirmez ve deneme hakkını almaz
+        guard.checkCircuit("products");
+        assertThat(guard.state()).isEqualTo(CrawlerGuard.State.OPEN);
+        assertThatThrownBy(() -> guard.call("products", () -> get("/fail")))
+                .hasMessage("Crawler products failed: 500 INTERNAL_SERVER_ERROR");
+
+        assertThat(guard.state()).isEqualTo(CrawlerGuard.State.OPEN);
+        assertThatThrownBy(() -> guard.call("products", () -> get("/ok")))
+                .hasMessage("Crawler circuit is open, skipped products");
+        assertThat(requests).hasValue(2);
+    }
+
+    @Test
+    void clientErrorsKeepCircuitClosed() {
+        CrawlerGuard guard = new CrawlerGuard(4, Duration.ofSeconds(1), 1, Duration.ofSeconds(30));
+
+        assertThatThrownBy(() -> guard.call("products", () -> get("/missing")))
+                .isInstanceOf(WebClientResponseException.NotFound.class);
+        assertThat(guard.state()).isEqualTo(CrawlerGuard.State.CLOSED);
+        assertThat(guard.call("products", () -> get("/ok"))).isEqualTo("ok");
+    }
+
+    private String get(String path) {
+        return getWithin(path, CALL_TIMEOUT);
+    }
+
+    private String getWithin(String path, Duration timeout) {
+        return webClient.get().uri(path).retrieve().bodyToMono(String.class).block(timeout);
+    }
+
+    private void awaitRequests(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (requests.get() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(requests).hasValue(count);
+    }
+
+    // Crawler'a ulaşan istekler, cevap beklenmeden sayılır
+    private HttpHandler counted(HttpHandler handler) {
+        return exchange -> {
+            requests.incrementAndGet();
+            handler.handle(exchange);
+        };
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
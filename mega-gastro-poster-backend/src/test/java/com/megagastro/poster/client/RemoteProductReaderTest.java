@@ -0,0 +1,49 @@
+package com.megagastro.poster.client;
+
+import com.megagastro.poster.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RemoteProductReaderTest {
+
+    private final RemoteProductReader reader = new RemoteProductReader();
+
+    @Test
+    void nullAndNonObjectEntriesAreSkipped() throws IOException {
+        List<Product> products = new ArrayList<>();
+        reader.readArray(json("""
+                [{"name": "Spüle", "url": "https://shop.example/p/1"}, null, 5, [1, 2],
+                 {"name": "Herd", "url": "https://shop.example/p/2"}]
+                """), products::add);
+
+        assertThat(products).extracting(Product::getName).containsExactly("Spüle", "Herd");
+    }
+
+    @Test
+    void nullUpsertDoesNotHideRemovedKeys() throws IOException {
+        List<Product> upserts = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        RemoteProductReader.Changes changes = reader.readChanges(json("""
+                {"full": false,
+                 "upserts": [null, {"name": "Herd", "url": "https://shop.example/p/2"}],
+                 "removed": ["https://shop.example/p/1", null],
+                 "etag": "\\"e-3\\""}
+                """), upserts::add, removed::add);
+
+        assertThat(upserts).extracting(Product::getName).containsExactly("Herd");
+        assertThat(removed).containsExactly("https://shop.example/p/1");
+        assertThat(changes.etag()).isEqualTo("\"e-3\"");
+    }
+
+    private static InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,141 @@
+package com.megagastro.poster.config;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.megagastro.poster.client.CrawlerGuard;
+import com.megagastro.poster.client.CrawlerUnavailableException;
+import com.megagastro.poster.service.RemoteProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheConfigTest {
+
+    private final CacheConfig config = new CacheConfig();
+    private final RemoteProductService remote = mock(RemoteProductService.class);
+    private final CrawlerGuard guard = new CrawlerGuard(4, Duration.ofSeconds(1), 1, Duration.ofSeconds(30));
+    private final Queue<Thread> loaderThreads = new ConcurrentLinkedQueue<>();
+    private final CountDownLatch releaseRefreshPool = new CountDownLatch(1);
+
+    private ExecutorService refreshExecutor;
+    private Executor loadExecutor;
+
+    @AfterEach
+    void shutdown() {
+        releaseRefreshPool.countDown();
+        if (refreshExecutor != null) refreshExecutor.shutdownNow();
+        if (loadExecutor instanceof ExecutorService pool) pool.shutdownNow();
+    }
+
+    @Test
+    void coldLoadsDoNotQueueBehindRefreshes() throws Exception {
+        MockEnvironment environment = new MockEnvironment();
+        Cache cache = productsCache(environment, Duration.ofMillis(50));
+        // Tek refresh thread'i uzun bir yenilemeyle meşgul
+        refreshExecutor.execute(() -> awaitQuietly(releaseRefreshPool));
+
+        String syncLoadThread = cache.get("spring-sync", () -> Thread.currentThread().getName());
+        Object loaded = load(cache, "Kühlung");
+
+        assertThat(syncLoadThread).startsWith("crawler-load-");
+        assertThat(loaded).isEqualTo(List.of());
+        assertThat(loaderThreads).extracting(Thread::getName).singleElement().asString().startsWith("crawler-load-");
+
+        // refresh-after dolduktan sonraki erişim yenilemeyi refresh havuzuna bırakır
+        releaseRefreshPool.countDown();
+        Thread.sleep(100);
+        load(cache, "Kühlung");
+        verify(remote, timeout(5000).times(2)).loadProducts("Kühlung");
+        assertThat(loaderThreads).extracting(Thread::getName)
+                .satisfiesExactly(first -> assertThat(first).startsWith("crawler-load-"),
+                        second -> assertThat(second).startsWith("crawler-refresh-"));
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void virtualThreadModeLoadsOnVirtualThreads() throws Exception {
+        MockEnvironment environment = new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true");
+        Cache cache = productsCache(environment, Duration.ofMinutes(5));
+        refreshExecutor.execute(() -> awaitQuietly(releaseRefreshPool));
+
+        Thread syncLoadThread = cache.get("spring-sync", Thread::currentThread);
+        load(cache, "Kühlung");
+
+        assertThat(isVirtual(syncLoadThread)).isTrue();
+        assertThat(loaderThreads).singleElement().satisfies(t -> assertThat(isVirtual(t)).isTrue());
+        verify(remote, times(1)).loadProducts("Kühlung");
+    }
+
+    @Test
+    void openCircuitSkipsRefreshAndKeepsValue() throws Exception {
+        Cache cache = productsCache(new MockEnvironment(), Duration.ofMillis(50));
+        Object loaded = load(cache, "Kühlung");
+
+        assertThatThrownBy(() -> guard.call("products", () -> {
+            throw new IllegalStateException("Connection refused");
+        })).isInstanceOf(CrawlerUnavailableException.class);
+        Thread.sleep(100);
+
+        assertThat(load(cache, "Kühlung")).isSameAs(loaded);
+        Thread.sleep(100);
+        assertThat(load(cache, "Kühlung")).isSameAs(loaded);
+        verify(remote, times(1)).loadProducts("Kühlung");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache productsCache(MockEnvironment environment, Duration refreshAfter) {
+        refreshExecutor = config.crawlerRefreshExecutor(1, environment);
+        loadExecutor = config.crawlerLoadExecutor(2, environment);
+        when(remote.loadProducts("Kühlung")).thenAnswer(invocation -> {
+            loaderThreads.add(Thread.currentThread());
+            return List.of();
+        });
+        ObjectProvider<RemoteProductService> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(remote);
+        CacheManager cacheManager = config.cacheManager(provider, guard, loadExecutor, refreshExecutor,
+                refreshAfter, Duration.ofHours(1), Duration.ofMinutes(30), Duration.ofHours(12));
+        return cacheManager.getCache(CacheConfig.REMOTE_PRODUCTS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object load(Cache cache, String key) throws Exception {
+        AsyncLoadingCache<Object, Object> loadingCache =
+                (AsyncLoadingCache<Object, Object>) ((CaffeineCache) cache).getAsyncCache();
+        return loadingCache.get(key).get(5, TimeUnit.SECONDS);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Testler Java 17 hedefiyle derlenir; Thread.isVirtual() yansıma ile çağrılır
+    static boolean isVirtual(Thread thread) throws ReflectiveOperationException {
+        return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+}
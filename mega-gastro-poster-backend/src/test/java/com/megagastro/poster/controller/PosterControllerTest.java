@@ -0,0 +1,78 @@
+package com.megagastro.poster.controller;
+
+import com.megagastro.poster.model.PosterJob;
+import com.megagastro.poster.service.BatchPosterService;
+import com.megagastro.poster.service.DealSelectionService;
+import com.megagastro.poster.service.PosterJobService;
+import com.megagastro.poster.service.PosterService;
+import com.megagastro.poster.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PosterControllerTest {
+
+    private final PosterJobService jobs = mock(PosterJobService.class);
+    private final PosterController controller = new PosterController(mock(PosterService.class),
+            mock(ProductService.class), jobs, mock(BatchPosterService.class), mock(DealSelectionService.class), 1000);
+
+    @Test
+    void unknownJobIsNotFound() {
+        when(jobs.find("job-1")).thenReturn(Optional.empty());
+
+        assertThat(controller.downloadPosterJob("job-1").getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void unfinishedJobIsConflict() {
+        PosterJob running = new PosterJob("job-1");
+        running.markRunning();
+        when(jobs.find("job-1")).thenReturn(Optional.of(running));
+
+        assertThat(controller.downloadPosterJob("job-1").getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void failedJobIsConflict() {
+        PosterJob failed = new PosterJob("job-1");
+        failed.markFailed("Failed to render PDF");
+        when(jobs.find("job-1")).thenReturn(Optional.of(failed));
+
+        assertThat(controller.downloadPosterJob("job-1").getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void doneJobWithoutResultIsGone() {
+        when(jobs.find("job-1")).thenReturn(Optional.of(done()));
+        when(jobs.findResult("job-1")).thenReturn(Optional.empty());
+
+        assertThat(controller.downloadPosterJob("job-1").getStatusCode()).isEqualTo(HttpStatus.GONE);
+    }
+
+    @Test
+    void doneJobServesPdf() {
+        Resource pdf = new ByteArrayResource(new byte[]{'%', 'P', 'D', 'F'});
+        when(jobs.find("job-1")).thenReturn(Optional.of(done()));
+        when(jobs.findResult("job-1")).thenReturn(Optional.of(pdf));
+
+        ResponseEntity<Resource> response = controller.downloadPosterJob("job-1");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_PDF);
+        assertThat(response.getBody()).isSameAs(pdf);
+    }
+
+    private static PosterJob done() {
+        PosterJob job = new PosterJob("job-1");
+        job.markDone(4);
+        return job;
+    }
+}
@@ -0,0 +1,152 @@
+package com.megagastro.poster.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.megagastro.poster.model.CatalogSnapshot;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.model.ProductSource;
+import com.megagastro.poster.service.CategoryService;
+import com.megagastro.poster.service.DealSelectionService;
+import com.megagastro.poster.service.PriceHistoryService;
+import com.megagastro.poster.service.ProductListingService;
+import com.megagastro.poster.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductControllerTest {
+
+    private static final String ETAG = "\"catalog-3-0\"";
+    private static final String GZIP_ETAG = "\"catalog-3-0-gzip\"";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ProductService productService = mock(ProductService.class);
+    private final ProductListingService listingService = spy(new ProductListingService());
+    private final ProductController controller = new ProductController(productService, mock(CategoryService.class),
+            mock(PriceHistoryService.class), mock(DealSelectionService.class), listingService, objectMapper);
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @BeforeEach
+    void catalog() {
+        CatalogSnapshot snapshot = CatalogSnapshot.build(3,
+                List.of(product("p0"), product("p1"), product("p2")), 0, List.of());
+        when(productService.snapshot()).thenReturn(snapshot);
+        when(productService.etag(snapshot)).thenReturn(ETAG);
+        // Link header'ı ServletUriComponentsBuilder.fromCurrentRequest() ile kurulur
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void matchingEtagReturnsNotModifiedBeforeListing() {
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+
+        ResponseEntity<StreamingResponseBody> result = getAll(null, null, null);
+
+        assertThat(result).isNull();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        verify(listingService, never()).list(any(), any());
+    }
+
+    @Test
+    void gzipVariantHasItsOwnEtag() throws IOException {
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, GZIP_ETAG);
+
+        assertThat(getAll("gzip, deflate", null, null)).isNull();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(GZIP_ETAG);
+        verify(listingService, never()).list(any(), any());
+
+        // Düz gövdenin ETag'i gzip'li yanıtla eşleşmez
+        MockHttpServletRequest plainEtag = new MockHttpServletRequest("GET", "/api/products");
+        plainEtag.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+        MockHttpServletResponse gzipResponse = new MockHttpServletResponse();
+        ResponseEntity<StreamingResponseBody> result = controller.getAll(null, null, null, null, null, null,
+                "gzip", new ServletWebRequest(plainEtag, gzipResponse), gzipResponse);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzipResponse.getHeader(HttpHeaders.ETAG)).isEqualTo(GZIP_ETAG);
+        JsonNode items = objectMapper.readTree(gunzip(write(result.getBody())));
+        assertThat(items).hasSize(3);
+        assertThat(items.get(0).get("id").asText()).isEqualTo("p0");
+    }
+
+    @Test
+    void plainResponseIsPagedAndUncompressed() throws IOException {
+        request.setQueryString("limit=2");
+
+        ResponseEntity<StreamingResponseBody> result = getAll("gzip;q=0", null, 2);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(result.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        String cursor = result.getHeaders().getFirst("X-Next-Cursor");
+        assertThat(cursor).isNotNull();
+        assertThat(result.getHeaders().getFirst(HttpHeaders.LINK))
+                .isEqualTo("<http://localhost/api/products?limit=2&cursor=" + cursor + ">; rel=\"next\"");
+
+        JsonNode items = objectMapper.readTree(write(result.getBody()));
+        assertThat(items).hasSize(2);
+        assertThat(items.get(1).get("id").asText()).isEqualTo("p1");
+    }
+
+    private ResponseEntity<StreamingResponseBody> getAll(String acceptEncoding, String cursor, Integer limit) {
+        return controller.getAll(null, null, null, null, cursor, limit, acceptEncoding,
+                new ServletWebRequest(request, response), response);
+    }
+
+    private static byte[] write(StreamingResponseBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] gzipped) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static Product product(String id) {
+        return Product.builder()
+                .id(id)
+                .name("Produkt " + id)
+                .priceCurrent(100.0)
+                .source(ProductSource.REMOTE)
+                .category("Herde")
+                .build();
+    }
+}
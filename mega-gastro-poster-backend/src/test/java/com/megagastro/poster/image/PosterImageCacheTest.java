@@ -0,0 +1,151 @@
+package com.megagastro.poster.image;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class PosterImageCacheTest {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofMillis(300);
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(300);
+    private static final int RETRIES = 2;
+    private static final Duration BACKOFF = Duration.ofMillis(100);
+    private static final byte[] IMAGE = "not-really-a-jpeg".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path cacheDir;
+
+    private HttpServer server;
+    private PosterImageCache cache;
+    private final List<Long> attempts = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/flaky.jpg", exchange -> {
+            attempts.add(System.nanoTime());
+            respond(exchange, attempts.size() <= 2 ? 503 : 200, IMAGE);
+        });
+        server.createContext("/missing.jpg", exchange -> {
+            attempts.add(System.nanoTime());
+            respond(exchange, 404, new byte[0]);
+        });
+        server.createContext("/slow.jpg", exchange -> {
+            attempts.add(System.nanoTime());
+            try {
+                Thread.sleep(READ_TIMEOUT.toMillis() * 4);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, IMAGE);
+        });
+        server.start();
+        cache = new PosterImageCache(WebClient.builder(), cacheDir.toString(), DataSize.ofMegabytes(1),
+                DataSize.ofMegabytes(1), 600, Duration.ofSeconds(5), CONNECT_TIMEOUT, READ_TIMEOUT,
+                RETRIES, BACKOFF, 2);
+    }
+
+    @AfterEach
+    void stop() {
+        cache.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void serverErrorsAreRetriedWithBackoff() {
+        assertThat(cache.get(url("/flaky.jpg"))).isEqualTo(IMAGE);
+
+        assertThat(attempts).hasSize(3);
+        // Retry.backoff %50 jitter ile 100ms, 200ms bekler
+        assertThat(gapMillis(0)).isGreaterThanOrEqualTo(BACKOFF.toMillis() / 2);
+        assertThat(gapMillis(1)).isGreaterThanOrEqualTo(BACKOFF.toMillis());
+    }
+
+    @Test
+    void clientErrorsAreNotRetried() {
+        assertThat(cache.get(url("/missing.jpg"))).isNull();
+        assertThat(attempts).hasSize(1);
+    }
+
+    @Test
+    void readTimeoutIsRetriedThenGivesUp() {
+        long start = System.nanoTime();
+        assertThat(cache.get(url("/slow.jpg"))).isNull();
+        long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertThat(attempts).hasSize(1 + RETRIES);
+        assertThat(elapsed).isBetween((1 + RETRIES) * READ_TIMEOUT.toMillis(), 3_000L);
+    }
+
+    @Test
+    void connectTimeoutIsEnforced() throws IOException {
+        // accept etmeyen ve kuyruğu dolu bir soket; yeni SYN'ler cevapsız kalır
+        try (ServerSocket blackhole = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            List<Socket> backlog = new ArrayList<>();
+            try {
+                assumeTrue(fillBacklog(blackhole.getLocalPort(), backlog), "accept queue could not be filled");
+
+                long start = System.nanoTime();
+                assertThat(cache.get("http://127.0.0.1:" + blackhole.getLocalPort() + "/image.jpg")).isNull();
+                long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+                assertThat(elapsed).isBetween((1 + RETRIES) * CONNECT_TIMEOUT.toMillis(), 3_000L);
+            } finally {
+                for (Socket socket : backlog) socket.close();
+            }
+        }
+    }
+
+    private static boolean fillBacklog(int port, List<Socket> sockets) throws IOException {
+        for (int i = 0; i < 64; i++) {
+            Socket socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress("127.0.0.1", port), 100);
+                sockets.add(socket);
+            } catch (SocketTimeoutException e) {
+                socket.close();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long gapMillis(int index) {
+        return Duration.ofNanos(attempts.get(index + 1) - attempts.get(index)).toMillis();
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
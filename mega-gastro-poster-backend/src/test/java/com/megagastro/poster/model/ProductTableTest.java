@@ -0,0 +1,135 @@
+package com.megagastro.poster.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductTableTest {
+
+    @Test
+    void topNMatchesFullSortIncludingTies() {
+        // Çok sayıda eşit indirim/fiyat, indirimsiz ve fiyatsız satır
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Integer discount = i % 7 == 0 ? null : (i * 13) % 5 * 10;
+            Double price = i % 11 == 0 ? null : (double) ((i * 7) % 4 + 1);
+            products.add(product("p" + i, "Kategorie " + (i % 3), price, discount));
+        }
+        ProductTable table = ProductTable.of(products);
+        List<Integer> expected = IntStream.range(0, table.size()).boxed()
+                .sorted((a, b) -> ProductTable.POSTER_ORDER.compare(table, a, b))
+                .toList();
+
+        for (int limit : new int[]{1, 5, 37, 200}) {
+            int[] out = new int[limit];
+            int n = table.topN(new ProductTable.Filter(), ProductTable.POSTER_ORDER, limit, out);
+            assertThat(n).isEqualTo(limit);
+            assertThat(Arrays.stream(out, 0, n).boxed().toList()).isEqualTo(expected.subList(0, limit));
+        }
+    }
+
+    @Test
+    void equalRowsKeepListOrder() {
+        ProductTable table = ProductTable.of(List.of(
+                product("a", "Herde", 10.0, 20), product("b", "Herde", 10.0, 20),
+                product("c", "Herde", 5.0, 20), product("d", "Herde", 10.0, 20)));
+
+        assertThat(ids(table.select(new ProductTable.Filter(), ProductTable.POSTER_ORDER, 3)))
+                .containsExactly("c", "a", "b");
+        // Alt küme seçiminde eşitlikte rows sırası kalır (satır numarası değil)
+        int[] rows = {3, 1, 0, 2};
+        assertThat(ids(table.select(rows, rows.length, new ProductTable.Filter(), ProductTable.POSTER_RANK, 4)))
+                .containsExactly("c", "d", "b", "a");
+    }
+
+    @Test
+    void limitLargerThanMatchesReturnsAllMatches() {
+        ProductTable table = ProductTable.of(List.of(
+                product("a", "Herde", 30.0, 10), product("b", "Herde", null, 50),
+                product("c", "Herde", 20.0, null), product("d", "Herde", 0.0, 40)));
+        int[] out = new int[10];
+
+        int n = table.topN(ProductTable.Filter.priced(), ProductTable.POSTER_ORDER, 10, out);
+
+        assertThat(n).isEqualTo(2);
+        assertThat(Arrays.copyOf(out, n)).containsExactly(0, 2);
+        assertThat(table.topN(ProductTable.Filter.priced(), ProductTable.POSTER_ORDER, 0, out)).isZero();
+        assertThat(ids(table.select(ProductTable.Filter.priced(), ProductTable.POSTER_ORDER, 10)))
+                .containsExactly("a", "c");
+    }
+
+    @Test
+    void topNPerCategoryCapsEachCategoryAndLeavesEmptyOnesEmpty() {
+        ProductTable table = ProductTable.of(List.of(
+                product("k1", "Kühlung", 10.0, 10), product("h1", "Herde", 10.0, 30),
+                product("k2", "Kühlung", 10.0, 50), product("k3", "Kühlung", 10.0, 20),
+                product("s1", "Spülen", null, 90), product("h2", "Herde", 5.0, 30)));
+        int perCategory = 2;
+        int[] out = new int[table.categoryCount() * perCategory];
+        int[] counts = new int[table.categoryCount()];
+
+        table.topNPerCategory(ProductTable.Filter.priced(), ProductTable.POSTER_ORDER, perCategory, out, counts);
+
+        assertThat(table.category(0)).isEqualTo("Kühlung");
+        assertThat(counts).containsExactly(2, 2, 0);
+        assertThat(rowIds(table, out, 0, counts[0])).containsExactly("k2", "k3");
+        assertThat(rowIds(table, out, perCategory, counts[1])).containsExactly("h2", "h1");
+
+        // Kategori maskesi: sadece Herde; diğer bölgeler boş kalır
+        boolean[] mask = table.categoryMask(Set.of("Herde")::contains);
+        table.topNPerCategory(ProductTable.Filter.priced().categories(mask), ProductTable.POSTER_ORDER, 5,
+                new int[table.categoryCount() * 5], counts);
+        assertThat(counts).containsExactly(0, 2, 0);
+    }
+
+    @Test
+    void priceBandsAndMinDiscount() {
+        ProductTable table = ProductTable.of(List.of(
+                product("cheap", "Herde", 5.0, 10), product("mid", "Herde", 50.0, null),
+                product("high", "Herde", 500.0, 40), product("edge", "Herde", 100.0, 25),
+                product("none", "Herde", null, 60)));
+        int[] out = new int[table.size()];
+
+        // Bant sınırları dahil; birden fazla bandın herhangi birine düşmek yeterli, fiyatsız satır elenir
+        ProductTable.Filter bands = new ProductTable.Filter().priceBand(null, 5.0).priceBand(100.0, 200.0);
+        assertThat(rowIds(table, out, 0, table.filter(bands, out))).containsExactly("cheap", "edge");
+
+        ProductTable.Filter openTop = new ProductTable.Filter().priceBand(100.0, null);
+        assertThat(rowIds(table, out, 0, table.filter(openTop, out))).containsExactly("high", "edge");
+
+        // İndirimsiz satır minDiscount'a hiç uymaz
+        ProductTable.Filter discounted = new ProductTable.Filter().minDiscount(25);
+        assertThat(rowIds(table, out, 0, table.filter(discounted, out))).containsExactly("high", "edge", "none");
+        assertThat(rowIds(table, out, 0, table.filter(new ProductTable.Filter().minDiscount(0), out)))
+                .containsExactly("cheap", "high", "edge", "none");
+
+        ProductTable.Filter combined = ProductTable.Filter.priced().minDiscount(25).priceBand(null, 150.0);
+        assertThat(ids(table.select(combined, ProductTable.POSTER_ORDER, 5))).containsExactly("edge");
+    }
+
+    private static List<String> rowIds(ProductTable table, int[] rows, int from, int count) {
+        return Arrays.stream(rows, from, from + count).mapToObj(r -> table.row(r).getId()).toList();
+    }
+
+    private static List<String> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+
+    static Product product(String id, String category, Double price, Integer discount) {
+        return Product.builder()
+                .id(id)
+                .name("Produkt " + id)
+                .url("https://shop.example/p/" + id)
+                .priceCurrent(price)
+                .discountPct(discount)
+                .source(ProductSource.REMOTE)
+                .category(category)
+                .build();
+    }
+}
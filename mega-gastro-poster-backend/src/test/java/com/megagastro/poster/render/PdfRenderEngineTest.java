@@ -0,0 +1,122 @@
+package com.megagastro.poster.render;
+
+import com.megagastro.poster.image.PosterImageCache;
+import com.megagastro.poster.metrics.PosterMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PdfRenderEngineTest {
+
+    private final PdfRenderEngine engine = new PdfRenderEngine(null, new PosterMetrics(new SimpleMeterRegistry()),
+            1, 4, Duration.ofMillis(200), "", "Arial");
+
+    @AfterEach
+    void shutdown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void timedOutRenderThatIgnoresInterruptFreesItsSlot() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> stuck = engine.submitTask(worker -> {
+            // openhtmltopdf gibi interrupt'a bakmayan render
+            while (true) {
+                try {
+                    if (release.await(10, TimeUnit.SECONDS)) return "late";
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+
+        assertThatThrownBy(() -> engine.await(stuck))
+                .hasMessageContaining("timed out");
+        assertThat(engine.await(engine.<String>submitTask(worker -> "next"))).isEqualTo("next");
+
+        release.countDown();
+        assertThat(engine.poolSize()).isEqualTo(1);
+    }
+
+    @Test
+    void timedOutRenderIsInterrupted() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> slow = engine.submitTask(worker -> {
+            try {
+                Thread.sleep(10_000);
+                return "slow";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertThatThrownBy(() -> engine.await(slow)).hasMessageContaining("timed out");
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(engine.await(engine.<String>submitTask(worker -> "next"))).isEqualTo("next");
+    }
+
+    @Test
+    void cancelledQueuedRenderNeverRuns() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        engine.submitTask(worker -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "first";
+        });
+        boolean[] ran = {false};
+        CompletableFuture<String> queued = engine.submitTask(worker -> {
+            ran[0] = true;
+            return "queued";
+        });
+
+        queued.cancel(true);
+        assertThat(engine.queueDepth()).isZero();
+        release.countDown();
+        assertThat(engine.await(engine.<String>submitTask(worker -> "next"))).isEqualTo("next");
+        assertThat(ran[0]).isFalse();
+    }
+
+    @Test
+    void abandonedRenderStopsAtNextPage(@TempDir Path cacheDir) {
+        PosterImageCache imageCache = new PosterImageCache(WebClient.builder(), cacheDir.toString(),
+                DataSize.ofMegabytes(1), DataSize.ofMegabytes(1), 600, Duration.ofSeconds(1),
+                Duration.ofSeconds(1), Duration.ofSeconds(1), 0, Duration.ofMillis(100), 1);
+        PdfRenderEngine rendering = new PdfRenderEngine(imageCache, new PosterMetrics(new SimpleMeterRegistry()),
+                1, 4, Duration.ofSeconds(30), "", "Arial");
+        String html = "<html><body>" + "<div style=\"page-break-after: always\">Seite</div>".repeat(20)
+                + "</body></html>";
+        try {
+            byte[] pdf = rendering.render(html);
+            assertThat(new String(pdf, 0, 5, StandardCharsets.US_ASCII)).isEqualTo("%PDF-");
+
+            // İstek zaman aşımında worker'a giden interrupt
+            CompletableFuture<byte[]> abandoned = rendering.submitTask(worker -> {
+                Thread.currentThread().interrupt();
+                return worker.render(html);
+            });
+            assertThatThrownBy(() -> rendering.await(abandoned))
+                    .hasRootCauseInstanceOf(CancellationException.class);
+            assertThat(rendering.render(html)).isNotEmpty();
+        } finally {
+            rendering.shutdown();
+            imageCache.shutdown();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.megagastro.poster.render;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PosterHtmlRendererTest {
+
+    private final PosterHtmlRenderer renderer = new PosterHtmlRenderer();
+
+    @Test
+    void platformThreadReusesItsBuffer() {
+        assertThat(renderer.buffer()).isSameAs(renderer.buffer());
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void virtualThreadGetsFreshBufferEveryCall() throws Exception {
+        VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor("render-test-");
+
+        boolean shared = executor.submit(() -> renderer.buffer() == renderer.buffer()).get(5, TimeUnit.SECONDS);
+
+        assertThat(shared).isFalse();
+    }
+}
@@ -0,0 +1,69 @@
+package com.megagastro.poster.repository;
+
+import com.megagastro.poster.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static com.megagastro.poster.repository.ProductCodecTest.product;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogSnapshotStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopenKeepsPriceVersions() {
+        Path file = dir.resolve("catalog.snap");
+        List<Product> remote = List.of(product("remote-1", 3), product("remote-2", 1));
+        List<Product> custom = List.of(product("custom-1", null));
+
+        new CatalogSnapshotStore(file.toString()).write(remote, custom);
+        CatalogSnapshotStore.StoredCatalog loaded = new CatalogSnapshotStore(file.toString()).initial().orElseThrow();
+
+        assertThat(loaded.remote()).containsExactlyElementsOf(remote);
+        assertThat(loaded.custom()).containsExactlyElementsOf(custom);
+    }
+
+    @Test
+    void versionOneSnapshotStillLoads() throws IOException {
+        Path file = dir.resolve("catalog.snap");
+        Product remote = product("remote-1", null);
+        Files.write(file, versionOneSnapshot(remote));
+
+        CatalogSnapshotStore.StoredCatalog loaded = new CatalogSnapshotStore(file.toString()).initial().orElseThrow();
+
+        assertThat(loaded.remote()).containsExactly(remote);
+        assertThat(loaded.custom()).isEmpty();
+    }
+
+    /**
+     * priceVersion'dan önceki format: aynı başlık, ürünlerde sondaki priceVersion alanı yok.
+     */
+    private static byte[] versionOneSnapshot(Product remote) throws IOException {
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        ProductCodec.write(new DataOutputStream(record), remote);
+        byte[] v1 = record.toByteArray();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x4D474353);
+        out.writeInt(1);
+        out.writeLong(System.currentTimeMillis());
+        out.writeInt(1);
+        out.write(v1, 0, v1.length - 1);
+        out.writeInt(0);
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,164 @@
+package com.megagastro.poster.repository;
+
+import com.megagastro.poster.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static com.megagastro.poster.repository.ProductCodecTest.product;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomProductStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private CustomProductStore store;
+
+    @AfterEach
+    void close() {
+        if (store != null) store.close();
+    }
+
+    @Test
+    void tornTailIsCutOnReopen() throws IOException {
+        store = open();
+        store.append(product("custom-1", null));
+        store.append(product("custom-2", null));
+        store.append(product("custom-3", null));
+        store.close();
+
+        Path segment = segments().get(0);
+        long size = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // Son kaydın ortasında kesilmiş yazma
+            channel.truncate(size - 7);
+        }
+
+        store = open();
+        assertThat(ids(store)).containsExactlyInAnyOrder("custom-1", "custom-2");
+        assertThat(Files.size(segment)).isLessThan(size - 7);
+
+        store.append(product("custom-4", null));
+        store.close();
+        store = open();
+        assertThat(ids(store)).containsExactlyInAnyOrder("custom-1", "custom-2", "custom-4");
+    }
+
+    @Test
+    void compactionKeepsEveryLiveRecord() throws IOException {
+        store = open();
+        for (int i = 1; i <= 5; i++) {
+            store.append(product("custom-" + i, null));
+        }
+        Product updated = product("custom-2", null);
+        updated.setPriceCurrent(99.0);
+        store.append(updated);
+
+        store.compact();
+        assertThat(dir.resolve("products.snap")).exists();
+        assertThat(segments()).hasSize(1);
+        store.append(product("custom-6", null));
+        store.close();
+
+        store = open();
+        assertThat(store.size()).isEqualTo(6);
+        assertThat(store.findById("custom-2")).contains(updated);
+        assertThat(store.findById("custom-6")).isPresent();
+
+        // Kurtarılan segment bir sonraki compaction'da snapshot'a girer
+        store.compact();
+        store.close();
+        store = open();
+        assertThat(store.size()).isEqualTo(6);
+        assertThat(store.findById("custom-2")).contains(updated);
+    }
+
+    @Test
+    void concurrentAppendsShareCommits() throws Exception {
+        store = open();
+        int threads = 16;
+        int perThread = 50;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        store.append(product("custom-" + thread + "-" + i, null));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(store.size()).isEqualTo(threads * perThread);
+        assertThat(store.commitCount()).isLessThan(threads * perThread);
+        store.close();
+
+        store = open();
+        assertThat(store.size()).isEqualTo(threads * perThread);
+    }
+
+    @Test
+    void versionOneSegmentReplays() throws IOException {
+        // Başlıksız segment, priceVersion'sız kayıtlar
+        Product legacy = product("custom-1", null);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ProductCodec.write(new DataOutputStream(body), legacy);
+        byte[] v1 = body.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(v1, 0, v1.length - 1);
+        ByteBuffer record = ByteBuffer.allocate(8 + v1.length - 1)
+                .putInt(v1.length - 1)
+                .putInt((int) crc.getValue())
+                .put(v1, 0, v1.length - 1);
+        Files.write(dir.resolve("wal-0000000000.wal"), record.array());
+
+        store = open();
+        assertThat(store.findById("custom-1")).contains(legacy);
+
+        store.append(product("custom-2", null));
+        store.close();
+        store = open();
+        assertThat(ids(store)).containsExactlyInAnyOrder("custom-1", "custom-2");
+    }
+
+    private CustomProductStore open() {
+        return new CustomProductStore(dir.toString());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".wal")).sorted().toList();
+        }
+    }
+
+    private static List<String> ids(CustomProductStore store) {
+        return store.findAll().stream().map(Product::getId).toList();
+    }
+}
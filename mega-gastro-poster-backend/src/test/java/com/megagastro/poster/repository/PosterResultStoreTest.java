@@ -0,0 +1,77 @@
+package com.megagastro.poster.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PosterResultStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sizeEvictionSpillsToDiskWithPutTime() throws Exception {
+        PosterResultStore store = new PosterResultStore(dir.toString(), Duration.ofHours(1), DataSize.ofBytes(1000));
+        Instant beforePut = Instant.now().minusSeconds(1);
+        store.put("job-1", pdf(1, 600));
+        Thread.sleep(50);
+        store.put("job-2", pdf(2, 600));
+        store.put("job-3", pdf(3, 600));
+        // Caffeine tahliyeyi bakım adımında yapar; cleanup() bunu senkron çalıştırır
+        store.cleanup();
+
+        Path[] spilled = spilledFiles();
+        assertThat(spilled).isNotEmpty();
+        for (Path file : spilled) {
+            String id = file.getFileName().toString().replace(".pdf", "");
+            Resource result = store.find(id).orElseThrow();
+            assertThat(result).isInstanceOf(FileSystemResource.class);
+            assertThat(result.getContentAsByteArray()).isEqualTo(pdf(id.charAt(id.length() - 1) - '0', 600));
+            assertThat(Files.getLastModifiedTime(file).toInstant()).isBetween(beforePut, Instant.now());
+        }
+        for (String id : new String[]{"job-1", "job-2", "job-3"}) {
+            assertThat(store.find(id)).isPresent();
+        }
+    }
+
+    @Test
+    void expiredSpillFileIsNotServed() throws Exception {
+        PosterResultStore store = new PosterResultStore(dir.toString(), Duration.ofMinutes(10), DataSize.ofBytes(1000));
+        store.put("job-1", pdf(1, 600));
+        store.put("job-2", pdf(2, 600));
+        store.cleanup();
+        Path[] spilled = spilledFiles();
+        assertThat(spilled).hasSize(1);
+        String id = spilled[0].getFileName().toString().replace(".pdf", "");
+
+        Files.setLastModifiedTime(spilled[0], FileTime.from(Instant.now().minus(Duration.ofMinutes(11))));
+        assertThat(store.find(id)).isEmpty();
+        store.cleanup();
+        assertThat(spilled[0]).doesNotExist();
+    }
+
+    private Path[] spilledFiles() throws IOException {
+        try (var files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".pdf")
+                    && !p.getFileName().toString().startsWith(".tmp-")).toArray(Path[]::new);
+        }
+    }
+
+    private static byte[] pdf(int fill, int size) {
+        byte[] bytes = new byte[size];
+        Arrays.fill(bytes, (byte) fill);
+        return bytes;
+    }
+}
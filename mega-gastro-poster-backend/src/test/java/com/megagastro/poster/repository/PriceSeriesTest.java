@@ -0,0 +1,63 @@
+package com.megagastro.poster.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceSeriesTest {
+
+    private final long[] out = new long[5];
+
+    @Test
+    void emptyWindowHasNoPrice() {
+        PriceSeries series = new PriceSeries();
+        assertThat(series.window(0, 1_000, out)).isFalse();
+
+        series.append(500, 12_990, 15_990);
+        // Pencere ilk noktadan önce biter
+        assertThat(series.window(0, 499, out)).isFalse();
+        assertThat(out[4]).isZero();
+    }
+
+    @Test
+    void singlePointIsBothMinAndEnd() {
+        PriceSeries series = new PriceSeries();
+        series.append(100, 12_990, 15_990);
+
+        // Pencereden önce görülen nokta, pencere başında geçerli fiyattır
+        assertThat(series.window(200, 1_000, out)).isTrue();
+        assertThat(out).containsExactly(12_990, 12_990, 12_990, 12_990, 1);
+    }
+
+    @Test
+    void tiedLowIsStillLowest() {
+        PriceSeries series = new PriceSeries();
+        series.append(100, 9_990, 12_990);
+        series.append(200, 12_990, 12_990);
+        series.append(300, 9_990, 12_990);
+        // Aynı fiyat tekrar gelirse nokta eklenmez
+        assertThat(series.append(400, 9_990, 12_990)).isFalse();
+
+        assertThat(series.window(100, 1_000, out)).isTrue();
+        assertThat(out[0]).isEqualTo(9_990);
+        assertThat(out[1]).isEqualTo(12_990);
+        assertThat(out[3]).isEqualTo(out[0]);
+        assertThat(out[4]).isEqualTo(3);
+    }
+
+    @Test
+    void windowAcrossCheckpointsMatchesFullScan() {
+        PriceSeries series = new PriceSeries();
+        for (int i = 0; i < PriceSeries.CHECKPOINT_INTERVAL * 3; i++) {
+            series.append(i * 10L, 10_000 + (i % 7) * 100, 20_000);
+        }
+
+        assertThat(series.window(405, 900, out)).isTrue();
+        // 405 anında geçerli olan nokta 400 (i = 40) ve 410..900 arası 50 nokta
+        assertThat(out[2]).isEqualTo(10_000 + (40 % 7) * 100);
+        assertThat(out[3]).isEqualTo(10_000 + (90 % 7) * 100);
+        assertThat(out[4]).isEqualTo(51);
+        assertThat(out[0]).isEqualTo(10_000);
+        assertThat(out[1]).isEqualTo(10_600);
+    }
+}
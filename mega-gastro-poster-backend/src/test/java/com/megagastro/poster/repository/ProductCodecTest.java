@@ -0,0 +1,81 @@
+package com.megagastro.poster.repository;
+
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.model.ProductSource;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCodecTest {
+
+    @Test
+    void roundTripKeepsPriceVersion() throws IOException {
+        Product remote = product("remote-1", 7);
+        Product custom = product("custom-1", null);
+        ByteBuffer in = ByteBuffer.wrap(encode(remote, custom));
+
+        assertThat(ProductCodec.read(in, new HashMap<>())).isEqualTo(remote);
+        assertThat(ProductCodec.read(in, new HashMap<>())).isEqualTo(custom);
+        assertThat(in.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void versionOneRecordsStillDecode() throws IOException {
+        // Sürüm 1 = sürüm 2 eksi sondaki priceVersion alanı (null için tek "var mı" baytı)
+        byte[] current = encode(product("remote-1", null));
+        byte[] v1 = Arrays.copyOf(current, current.length - 1);
+        ByteBuffer in = ByteBuffer.wrap(concat(v1, v1));
+
+        Product first = ProductCodec.read(in, new HashMap<>(), 1);
+        Product second = ProductCodec.read(in, new HashMap<>(), 1);
+
+        assertThat(first).isEqualTo(product("remote-1", null));
+        assertThat(second).isEqualTo(first);
+        assertThat(in.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void unknownVersionIsRejected() throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(encode(product("remote-1", 1)));
+        assertThatThrownBy(() -> ProductCodec.read(in, new HashMap<>(), ProductCodec.FORMAT_VERSION + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    static Product product(String id, Integer priceVersion) {
+        return Product.builder()
+                .id(id)
+                .name("Kühlschrank " + id)
+                .url("https://shop.example/p/" + id)
+                .imageUrl(null)
+                .priceCurrent(129.9)
+                .priceOriginal(159.9)
+                .discountPct(19)
+                .source(priceVersion != null ? ProductSource.REMOTE : ProductSource.CUSTOM)
+                .category("Kühlschränke")
+                .priceVersion(priceVersion)
+                .build();
+    }
+
+    private static byte[] encode(Product... products) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (Product p : products) {
+            ProductCodec.write(out, p);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+package com.megagastro.poster.search;
+
+import com.megagastro.poster.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    @Test
+    void renamedProductDropsOldTokens() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.add(product("custom-1", "Kühlschrank Alpha"));
+        index.add(product("custom-1", "Gasherd Beta"));
+
+        assertThat(index.search("alpha", 10)).isEmpty();
+        assertThat(index.search("kühlschrank", 10)).isEmpty();
+        assertThat(names(index.search("gasherd", 10))).containsExactly("Gasherd Beta");
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.deletedCount()).isZero();
+    }
+
+    @Test
+    void repeatedSavesDoNotLeaveStaleMatches() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        for (int i = 0; i < 1000; i++) {
+            index.add(product("custom-1", "Spülmaschine Modell " + i));
+        }
+
+        assertThat(names(index.search("spülmaschine", 10))).containsExactly("Spülmaschine Modell 999");
+        assertThat(index.search("modell 998", 10)).isEmpty();
+    }
+
+    @Test
+    void removedDocumentIsReusedByNextProduct() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.add(product("custom-1", "Kaffeemaschine"));
+        index.remove("custom-1");
+        assertThat(index.deletedCount()).isEqualTo(1);
+        assertThat(index.search("kaffee", 10)).isEmpty();
+
+        index.add(product("custom-2", "Kaffeemühle"));
+        assertThat(index.deletedCount()).isZero();
+        assertThat(names(index.search("kaffee", 10))).containsExactly("Kaffeemühle");
+    }
+
+    @Test
+    void mergeOrderKeepsShortNameTiebreak() {
+        ProductSearchIndex remote = ProductSearchIndex.of(List.of(product("remote-1", "Herd Profi Edelstahl")));
+        ProductSearchIndex custom = ProductSearchIndex.of(List.of(product("custom-1", "Herd")));
+
+        List<ProductSearchIndex.Hit> hits = new ArrayList<>();
+        hits.addAll(remote.search("herd", 10));
+        hits.addAll(custom.search("herd", 10));
+        hits.sort(ProductSearchIndex.Hit.BEST_FIRST);
+
+        assertThat(names(hits)).containsExactly("Herd", "Herd Profi Edelstahl");
+    }
+
+    @Test
+    void copyIsUpdatedWithoutTouchingOriginal() {
+        ProductSearchIndex original = ProductSearchIndex.of(List.of(
+                product("remote-1", "Kühlschrank Alpha"), product("remote-2", "Gasherd Beta")));
+
+        ProductSearchIndex copy = original.copy();
+        copy.add(product("remote-1", "Kühlschrank Gamma"));
+        copy.remove("remote-2");
+        copy.add(product("remote-3", "Gasherd Delta"));
+
+        assertThat(names(original.search("alpha", 10))).containsExactly("Kühlschrank Alpha");
+        assertThat(names(original.search("gasherd", 10))).containsExactly("Gasherd Beta");
+        assertThat(original.size()).isEqualTo(2);
+        assertThat(original.deletedCount()).isZero();
+
+        assertThat(copy.search("alpha", 10)).isEmpty();
+        assertThat(names(copy.search("gasherd", 10))).containsExactly("Gasherd Delta");
+        assertThat(names(copy.search("kühlschrank", 10))).containsExactly("Kühlschrank Gamma");
+    }
+
+    private static List<String> names(List<ProductSearchIndex.Hit> hits) {
+        return hits.stream().map(h -> h.product().getName()).toList();
+    }
+
+    private static Product product(String id, String name) {
+        return Product.builder().id(id).name(name).url("").build();
+    }
+}
@@ -0,0 +1,144 @@
+package com.megagastro.poster.service;
+
+import com.megagastro.poster.render.PdfRenderEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BatchPosterServiceTest {
+
+    private static final byte[] PDF = "%PDF-1.4 test".getBytes(StandardCharsets.US_ASCII);
+
+    private final PosterService posterService = mock(PosterService.class);
+    private final PdfRenderEngine renderEngine = mock(PdfRenderEngine.class);
+
+    @BeforeEach
+    void twoWorkers() {
+        when(renderEngine.poolSize()).thenReturn(2);
+    }
+
+    @Test
+    void failedPosterIsListedAndArchiveIsComplete() throws IOException {
+        givenRender("ok", CompletableFuture.completedFuture(PDF));
+        givenRender("broken", CompletableFuture.failedFuture(new RuntimeException("Failed to render PDF")));
+
+        Map<String, String> entries = unzip(write(service(Duration.ofSeconds(5), Duration.ofSeconds(30)),
+                poster("ok"), poster("broken")));
+
+        assertThat(entries).containsOnlyKeys("ok.pdf", "errors.txt");
+        assertThat(entries.get("errors.txt")).isEqualTo("broken.pdf: Failed to render PDF");
+    }
+
+    @Test
+    void entriesAreStoredUncompressed() throws IOException {
+        givenRender("ok", CompletableFuture.completedFuture(PDF));
+
+        byte[] zip = write(service(Duration.ofSeconds(5), Duration.ofSeconds(30)), poster("ok"));
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip), StandardCharsets.UTF_8)) {
+            ZipEntry entry = in.getNextEntry();
+            assertThat(entry.getMethod()).isEqualTo(ZipEntry.STORED);
+            assertThat(entry.getSize()).isEqualTo(PDF.length);
+            assertThat(in.readAllBytes()).isEqualTo(PDF);
+        }
+    }
+
+    @Test
+    void hungRenderIsCancelledAndArchiveIsComplete() throws IOException {
+        CompletableFuture<byte[]> hung = new CompletableFuture<>();
+        givenRender("ok", CompletableFuture.completedFuture(PDF));
+        givenRender("hung", hung);
+
+        Map<String, String> entries = unzip(write(service(Duration.ofMillis(200), Duration.ofSeconds(30)),
+                poster("ok"), poster("hung")));
+
+        assertThat(entries).containsOnlyKeys("ok.pdf", "errors.txt");
+        assertThat(entries.get("errors.txt")).isEqualTo("hung.pdf: PDF render timed out");
+        assertThat(hung).isCancelled();
+    }
+
+    @Test
+    void archiveIsClosedBeforeRequestTimeout() throws IOException {
+        CompletableFuture<byte[]> slow = new CompletableFuture<>();
+        givenRender("slow", slow);
+        givenRender("queued", CompletableFuture.completedFuture(PDF));
+        when(renderEngine.poolSize()).thenReturn(1);
+
+        long start = System.nanoTime();
+        // 2.5s istek süresi - 2s kapanış payı
+        Map<String, String> entries = unzip(write(service(Duration.ofSeconds(60), Duration.ofMillis(2500)),
+                poster("slow"), poster("queued")));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(entries).containsOnlyKeys("errors.txt");
+        assertThat(entries.get("errors.txt"))
+                .isEqualTo("slow.pdf: Batch request timed out\nqueued.pdf: Batch request timed out");
+        assertThat(slow).isCancelled();
+    }
+
+    @Test
+    void clientDisconnectCancelsRunningRenders() {
+        CompletableFuture<byte[]> other = new CompletableFuture<>();
+        givenRender("ok", CompletableFuture.completedFuture(PDF));
+        givenRender("other", other);
+        OutputStream gone = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        BatchPosterService service = service(Duration.ofSeconds(5), Duration.ofSeconds(30));
+        assertThatThrownBy(() -> service.writeZip(List.of(poster("ok"), poster("other")), gone))
+                .isInstanceOf(IOException.class);
+        assertThat(other).isCancelled();
+    }
+
+    private BatchPosterService service(Duration renderWait, Duration requestTimeout) {
+        return new BatchPosterService(posterService, null, null, renderEngine, 200, renderWait, requestTimeout);
+    }
+
+    private void givenRender(String title, CompletableFuture<byte[]> result) {
+        when(posterService.renderPosterAsync(eq(title), any(), anyInt(), any())).thenReturn(result);
+    }
+
+    private static BatchPosterService.PreparedPoster poster(String name) {
+        return new BatchPosterService.PreparedPoster(name + ".pdf", name, 9, null, List.of());
+    }
+
+    private static byte[] write(BatchPosterService service, BatchPosterService.PreparedPoster... posters)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeZip(List.of(posters), out);
+        return out.toByteArray();
+    }
+
+    private static Map<String, String> unzip(byte[] zip) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip), StandardCharsets.UTF_8)) {
+            for (ZipEntry entry; (entry = in.getNextEntry()) != null; ) {
+                entries.put(entry.getName(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,138 @@
+package com.megagastro.poster.service;
+
+import com.megagastro.poster.dto.DealSelectionRequest;
+import com.megagastro.poster.model.CatalogSnapshot;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.model.ProductSource;
+import com.megagastro.poster.model.ProductTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DealSelectionServiceTest {
+
+    private final ProductService productService = mock(ProductService.class);
+    private final DealSelectionService service = new DealSelectionService(productService, mock(PosterService.class));
+
+    @Test
+    void quotaPicksBestAllowedDealsInPosterOrder() {
+        List<Product> catalog = new ArrayList<>();
+        // Kühlung en iyi fırsatların çoğunu tutar; eşit indirim/fiyatlar kategoriler arasında da var
+        for (int i = 0; i < 8; i++) catalog.add(product("k" + i, "Kühlung", 100.0 + i % 2 * 10, 60 - i * 5));
+        for (int i = 0; i < 5; i++) catalog.add(product("h" + i, "Herde", 100.0, 50 - i * 10));
+        for (int i = 0; i < 5; i++) catalog.add(product("s" + i, "Spülen", 90.0 + i, 40));
+        givenCatalog(catalog);
+
+        DealSelectionRequest request = request(6);
+        request.setMaxPerCategory(2);
+        List<Product> picks = service.select(request);
+
+        assertThat(ids(picks)).isEqualTo(ids(reference(catalog, 6, 2)));
+        assertThat(ids(picks)).containsExactly("k0", "k1", "h0", "s0", "s1", "h1");
+        assertThat(picks.stream().filter(p -> p.getCategory().equals("Kühlung"))).hasSize(2);
+    }
+
+    @Test
+    void mergeFollowsPosterOrderAcrossCategories() {
+        List<Product> catalog = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            catalog.add(product("p" + i, "Kategorie " + (i % 4), 10.0 + (i * 7) % 5, (i * 11) % 6 * 10));
+        }
+        givenCatalog(catalog);
+
+        for (int quota : new int[]{1, 2, 3}) {
+            DealSelectionRequest request = request(9);
+            request.setMaxPerCategory(quota);
+            List<Product> picks = service.select(request);
+
+            assertThat(ids(picks)).as("maxPerCategory %d", quota).isEqualTo(ids(reference(catalog, 9, quota)));
+            ProductTable table = ProductTable.of(picks);
+            for (int r = 1; r < picks.size(); r++) {
+                assertThat(ProductTable.POSTER_ORDER.compare(table, r - 1, r)).isNegative();
+            }
+        }
+    }
+
+    @Test
+    void quotaLargerThanCountIsCappedAtCount() {
+        List<Product> catalog = new ArrayList<>();
+        for (int i = 0; i < 6; i++) catalog.add(product("k" + i, "Kühlung", 100.0, 60 - i));
+        catalog.add(product("h0", "Herde", 100.0, 10));
+        givenCatalog(catalog);
+
+        DealSelectionRequest request = request(3);
+        request.setMaxPerCategory(50);
+        assertThat(ids(service.select(request))).containsExactly("k0", "k1", "k2");
+
+        // Kota verilmezse sınır sadece count
+        assertThat(ids(service.select(request(3)))).containsExactly("k0", "k1", "k2");
+        assertThat(service.select(request(9))).hasSize(7);
+    }
+
+    @Test
+    void categoryFilterMatchesNamesAndSlugs() {
+        givenCatalog(List.of(
+                product("k0", "Kühlung", 100.0, 60), product("h0", "Herde", 100.0, 10),
+                product("h1", "Herde", 50.0, 10), product("s0", "Spülen", 100.0, 90),
+                product("x0", "Herde", null, 99)));
+
+        DealSelectionRequest request = request(9);
+        request.setCategories(List.of("herde", "Kühlung"));
+        request.setMaxPerCategory(1);
+
+        assertThat(ids(service.select(request))).containsExactly("k0", "h1");
+    }
+
+    private void givenCatalog(List<Product> products) {
+        when(productService.snapshot()).thenReturn(CatalogSnapshot.build(1, products, 0, List.of()));
+    }
+
+    /**
+     * Beklenen sonuç: tüm katalog POSTER_ORDER ile sıralanır, kategori kotası dolmamış ilk count ürün alınır.
+     */
+    private static List<Product> reference(List<Product> catalog, int count, int perCategory) {
+        ProductTable table = ProductTable.of(catalog);
+        Map<String, Integer> taken = new HashMap<>();
+        List<Product> picks = new ArrayList<>();
+        IntStream.range(0, table.size()).boxed()
+                .filter(r -> table.priceCurrent(r) > 0)
+                .sorted((a, b) -> ProductTable.POSTER_ORDER.compare(table, a, b))
+                .forEach(r -> {
+                    Product p = table.row(r);
+                    if (picks.size() < count && taken.merge(p.getCategory(), 1, Integer::sum) <= perCategory) {
+                        picks.add(p);
+                    }
+                });
+        return picks;
+    }
+
+    private static DealSelectionRequest request(int count) {
+        DealSelectionRequest request = new DealSelectionRequest();
+        request.setCount(count);
+        return request;
+    }
+
+    private static List<String> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+
+    private static Product product(String id, String category, Double price, Integer discount) {
+        return Product.builder()
+                .id(id)
+                .name("Produkt " + id)
+                .url("https://shop.example/p/" + id)
+                .priceCurrent(price)
+                .discountPct(discount)
+                .source(ProductSource.REMOTE)
+                .category(category)
+                .build();
+    }
+}
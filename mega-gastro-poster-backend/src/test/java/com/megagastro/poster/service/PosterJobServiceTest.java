@@ -0,0 +1,77 @@
+package com.megagastro.poster.service;
+
+import com.megagastro.poster.dto.PosterRequest;
+import com.megagastro.poster.model.PosterJob;
+import com.megagastro.poster.model.PosterJobStatus;
+import com.megagastro.poster.repository.PosterResultStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PosterJobServiceTest {
+
+    private static final Duration RESULT_TTL = Duration.ofMillis(800);
+    private static final byte[] PDF = "%PDF-1.4 test".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path dir;
+
+    private final PosterService posterService = mock(PosterService.class);
+    private final ProductService productService = mock(ProductService.class);
+    private PosterJobService service;
+
+    @AfterEach
+    void shutdown() {
+        if (service != null) service.shutdown();
+    }
+
+    @Test
+    void slowJobStatusLivesAsLongAsItsResult() throws Exception {
+        when(productService.findAllById(anyList())).thenReturn(List.of());
+        when(posterService.renderPoster(any(PosterRequest.class), anyList())).thenAnswer(invocation -> {
+            // Render, gönderimden sayılan TTL'in büyük kısmını harcar
+            Thread.sleep(600);
+            return PDF;
+        });
+        PosterResultStore resultStore = new PosterResultStore(dir.toString(), RESULT_TTL, DataSize.ofMegabytes(1));
+        service = new PosterJobService(posterService, productService, resultStore, 1, 10, RESULT_TTL, Duration.ofSeconds(5));
+
+        PosterJob job = service.submit(request());
+        awaitFinished(job);
+        // Gönderimden TTL'den uzun, bitişten TTL'den kısa süre geçti
+        Thread.sleep(400);
+
+        assertThat(service.find(job.getId())).map(PosterJob::getStatus).contains(PosterJobStatus.DONE);
+        assertThat(service.findResult(job.getId())).isPresent();
+
+        Thread.sleep(RESULT_TTL.toMillis());
+        assertThat(service.find(job.getId())).isEmpty();
+        assertThat(service.findResult(job.getId())).isEmpty();
+    }
+
+    private static void awaitFinished(PosterJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (job.getFinishedAt() == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(job.getStatus()).isEqualTo(PosterJobStatus.DONE);
+    }
+
+    private static PosterRequest request() {
+        PosterRequest request = new PosterRequest();
+        request.setProductIds(List.of("remote-1"));
+        return request;
+    }
+}
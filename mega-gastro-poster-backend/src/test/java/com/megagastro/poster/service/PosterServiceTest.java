@@ -0,0 +1,62 @@
+package com.megagastro.poster.service;
+
+import com.megagastro.poster.model.CatalogSnapshot;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.model.ProductSource;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PosterServiceTest {
+
+    private final CatalogService catalogService = mock(CatalogService.class);
+    private final PosterService service = new PosterService(null, null, null, null, null, catalogService);
+
+    @Test
+    void snapshotProductsUseSnapshotTableAndKeepListOrderOnTies() {
+        List<Product> catalog = List.of(
+                product("a", 10.0, 20), product("b", 10.0, 20), product("c", 5.0, 30),
+                product("d", null, 50), product("e", 8.0, null));
+        CatalogSnapshot snapshot = CatalogSnapshot.build(1, catalog, 0, List.of());
+        when(catalogService.lastSnapshot()).thenReturn(snapshot);
+
+        // b ile a eşit; istekteki sıra (b önce) korunmalı, fiyatsız d elenmeli
+        List<Product> candidates = List.of(catalog.get(4), catalog.get(1), catalog.get(3), catalog.get(0), catalog.get(2));
+
+        assertThat(ids(service.selectPosterProducts(candidates, 9))).containsExactly("c", "b", "a", "e");
+        assertThat(ids(service.selectPosterProducts(candidates, 2))).containsExactly("c", "b");
+        assertThat(snapshot.table()).isSameAs(snapshot.table());
+    }
+
+    @Test
+    void productsOutsideSnapshotAreSelectedTheSameWay() {
+        List<Product> catalog = List.of(product("a", 10.0, 20), product("b", 10.0, 20));
+        when(catalogService.lastSnapshot()).thenReturn(CatalogSnapshot.build(1, catalog, 0, List.of()));
+
+        // Aynı ID'li ama farklı örnek (eski katalog versiyonu) ve katalogda olmayan ürün
+        List<Product> candidates = new ArrayList<>(List.of(product("b", 10.0, 20), catalog.get(0),
+                product("x", 1.0, 20)));
+
+        assertThat(ids(service.selectPosterProducts(candidates, 9))).containsExactly("x", "b", "a");
+    }
+
+    private static List<String> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+
+    private static Product product(String id, Double price, Integer discount) {
+        return Product.builder()
+                .id(id)
+                .name("Produkt " + id)
+                .priceCurrent(price)
+                .discountPct(discount)
+                .source(ProductSource.REMOTE)
+                .category("Kühlung")
+                .build();
+    }
+}
@@ -0,0 +1,173 @@
+package com.megagastro.poster.service;
+
+import com.megagastro.poster.dto.ProductListQuery;
+import com.megagastro.poster.dto.ProductPage;
+import com.megagastro.poster.model.CatalogSnapshot;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.model.ProductSource;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductListingServiceTest {
+
+    private final ProductListingService service = new ProductListingService();
+
+    @Test
+    void cursorPagesThroughFilteredCatalog() {
+        List<Product> catalog = catalog(10);
+        CatalogSnapshot snapshot = CatalogSnapshot.build(1, catalog, 0, List.of());
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ProductPage page = service.list(snapshot, query(List.of("Herde"), cursor, 2));
+            seen.addAll(ids(page));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Herde: çift indeksli ürünler
+        assertThat(seen).containsExactly("p0", "p2", "p4", "p6", "p8");
+        assertThat(pages).isEqualTo(3);
+        assertThat(decode(service.list(snapshot, query(List.of("Herde"), null, 2)).nextCursor()))
+                .isEqualTo("1:4:p2");
+    }
+
+    @Test
+    void exactlyFullPageHasNoNextCursor() {
+        CatalogSnapshot snapshot = CatalogSnapshot.build(1, catalog(4), 0, List.of());
+
+        // limit + 1 satır okunur: eşleşme sayısı limit kadarsa sonraki sayfa yok
+        ProductPage full = service.list(snapshot, query(null, null, 4));
+        assertThat(ids(full)).containsExactly("p0", "p1", "p2", "p3");
+        assertThat(full.nextCursor()).isNull();
+
+        ProductPage first = service.list(snapshot, query(null, null, 3));
+        assertThat(first.nextCursor()).isNotNull();
+        ProductPage last = service.list(snapshot, query(null, first.nextCursor(), 1));
+        assertThat(ids(last)).containsExactly("p3");
+        assertThat(last.nextCursor()).isNull();
+
+        // Limit verilmezse tek sayfa
+        assertThat(service.list(snapshot, query(null, null, null)).items()).hasSize(4);
+    }
+
+    @Test
+    void resumesAfterLastSeenProductWhenCatalogChanges() {
+        List<Product> catalog = catalog(6);
+        ProductPage first = service.list(CatalogSnapshot.build(1, catalog, 0, List.of()), query(null, null, 3));
+        assertThat(ids(first)).containsExactly("p0", "p1", "p2");
+
+        // Yeni versiyonda sayfanın önüne iki ürün eklendi; satır numarası kaydı
+        List<Product> changed = new ArrayList<>();
+        changed.add(product("n0", "Herde", 10));
+        changed.add(product("n1", "Spülen", 10));
+        changed.addAll(catalog);
+        ProductPage second = service.list(CatalogSnapshot.build(2, changed, 0, List.of()),
+                query(null, first.nextCursor(), 3));
+
+        assertThat(ids(second)).containsExactly("p3", "p4", "p5");
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void resumesAtSameRowWhenLastSeenProductIsDeleted() {
+        List<Product> catalog = catalog(6);
+        ProductPage first = service.list(CatalogSnapshot.build(1, catalog, 0, List.of()), query(null, null, 3));
+
+        // Sayfanın son ürünü (p2) yeni versiyonda yok: kayıtlı satırdan devam edilir
+        List<Product> changed = new ArrayList<>(catalog);
+        changed.remove(2);
+        ProductPage second = service.list(CatalogSnapshot.build(2, changed, 0, List.of()),
+                query(null, first.nextCursor(), 3));
+        assertThat(ids(second)).containsExactly("p4", "p5");
+
+        // Katalog imleçteki satırdan kısaya düştüyse boş son sayfa döner
+        ProductPage shrunk = service.list(CatalogSnapshot.build(3, catalog.subList(0, 2), 0, List.of()),
+                query(null, first.nextCursor(), 3));
+        assertThat(shrunk.items()).isEmpty();
+        assertThat(shrunk.nextCursor()).isNull();
+    }
+
+    @Test
+    void projectsRequestedFieldsInOrder() {
+        CatalogSnapshot snapshot = CatalogSnapshot.build(1, catalog(2), 0, List.of());
+
+        ProductPage page = service.list(snapshot, new ProductListQuery(
+                null, null, null, List.of("name", " id ", "name", ""), null, 1));
+
+        assertThat(page.items()).hasSize(1);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> item = (Map<String, Object>) page.items().get(0);
+        assertThat(item).containsOnlyKeys("name", "id");
+        assertThat(item.keySet()).containsExactly("name", "id");
+        assertThat(item).containsEntry("id", "p0");
+    }
+
+    @Test
+    void rejectsUnknownFieldsAndInvalidCursors() {
+        CatalogSnapshot snapshot = CatalogSnapshot.build(1, catalog(2), 0, List.of());
+
+        assertThatThrownBy(() -> service.list(snapshot,
+                new ProductListQuery(null, null, null, List.of("id", "secret"), null, null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown field: secret");
+        assertThatThrownBy(() -> service.stream(snapshot,
+                new ProductListQuery(null, null, null, List.of("priceHistory"), null, null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown field: priceHistory");
+
+        for (String cursor : List.of("%%%", encode("1"), encode("x:1:p0"), encode("1:-1:p0"))) {
+            assertThatThrownBy(() -> service.list(snapshot, query(null, cursor, 1)))
+                    .as(cursor)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Invalid cursor");
+        }
+    }
+
+    private static ProductListQuery query(List<String> categories, String cursor, Integer limit) {
+        return new ProductListQuery(categories, null, null, null, cursor, limit);
+    }
+
+    private static List<String> ids(ProductPage page) {
+        return page.items().stream().map(item -> ((Product) item).getId()).toList();
+    }
+
+    private static String decode(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Çift indeksliler Herde, tekler Spülen
+    private static List<Product> catalog(int size) {
+        List<Product> catalog = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            catalog.add(product("p" + i, i % 2 == 0 ? "Herde" : "Spülen", 10 + i));
+        }
+        return catalog;
+    }
+
+    private static Product product(String id, String category, Integer discount) {
+        return Product.builder()
+                .id(id)
+                .name("Produkt " + id)
+                .url("https://shop.example/p/" + id)
+                .priceCurrent(100.0)
+                .discountPct(discount)
+                .source(ProductSource.REMOTE)
+                .category(category)
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.megagastro.poster.service;
+
+import com.megagastro.poster.model.CatalogSnapshot;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.repository.CustomProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchServiceTest {
+
+    private final CustomProductRepository customProducts = mock(CustomProductRepository.class);
+
+    @Test
+    void olderSnapshotDoesNotRewindIndex() {
+        when(customProducts.findAll()).thenReturn(List.of());
+        ProductSearchService service = new ProductSearchService(mock(CatalogService.class), customProducts);
+        CatalogSnapshot v1 = snapshot(1, product("remote-1", "Kühlschrank Alpha", 100.0),
+                product("remote-2", "Kühlschrank Beta", 200.0));
+        CatalogSnapshot v2 = snapshot(2, product("remote-1", "Kühlschrank Alpha", 90.0),
+                product("remote-3", "Kühlschrank Gamma", 300.0));
+
+        assertThat(prices(service.search(v1, "kühlschrank", 10))).containsExactlyInAnyOrder(100.0, 200.0);
+        List<Product> fresh = service.search(v2, "kühlschrank", 10);
+        assertThat(prices(fresh)).containsExactlyInAnyOrder(90.0, 300.0);
+
+        // v1'i yenilemeden önce almış bir istek güncel index'te arar
+        assertThat(service.search(v1, "kühlschrank", 10)).isEqualTo(fresh);
+        assertThat(service.search(v2, "beta", 10)).isEmpty();
+    }
+
+    @Test
+    void catalogUpdateKeepsEarlierResultsIntact() {
+        when(customProducts.findAll()).thenReturn(List.of());
+        ProductSearchService service = new ProductSearchService(mock(CatalogService.class), customProducts);
+        CatalogSnapshot v1 = snapshot(1, product("remote-1", "Gasherd Alpha", 100.0));
+
+        List<Product> before = service.search(v1, "gasherd", 10);
+        service.search(snapshot(2, product("remote-1", "Gasherd Alpha", 80.0)), "gasherd", 10);
+
+        assertThat(prices(before)).containsExactly(100.0);
+        assertThat(prices(service.search(snapshot(3, product("remote-1", "Gasherd Alpha", 80.0),
+                product("remote-2", "Gasherd Beta", 50.0)), "gasherd", 10))).containsExactlyInAnyOrder(80.0, 50.0);
+    }
+
+    private static CatalogSnapshot snapshot(long version, Product... remote) {
+        return CatalogSnapshot.build(version, List.of(remote), 0, List.of());
+    }
+
+    private static Product product(String id, String name, double price) {
+        return Product.builder().id(id).name(name).url("").priceCurrent(price).build();
+    }
+
+    private static List<Double> prices(List<Product> products) {
+        return products.stream().map(Product::getPriceCurrent).toList();
+    }
+}
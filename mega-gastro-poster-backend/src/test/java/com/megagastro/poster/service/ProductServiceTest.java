@@ -0,0 +1,75 @@
+package com.megagastro.poster.service;
+
+import com.megagastro.poster.client.CrawlerUnavailableException;
+import com.megagastro.poster.dto.RemoteCategoryDto;
+import com.megagastro.poster.model.CatalogSnapshot;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.model.ProductSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductServiceTest {
+
+    private final CatalogService catalogService = mock(CatalogService.class);
+    private final RemoteProductService remoteProductService = mock(RemoteProductService.class);
+    private final ProductService service = new ProductService(catalogService, remoteProductService, null, null, null);
+
+    private final Product cachedFridge = product("remote-1", "Kühlung", ProductSource.REMOTE);
+    private final Product customFridge = product("custom-1", "Kühlung", ProductSource.CUSTOM);
+    private final Product houseBrand = product("custom-2", "Hausmarke", ProductSource.CUSTOM);
+
+    @BeforeEach
+    void catalog() {
+        when(catalogService.snapshot()).thenReturn(CatalogSnapshot.build(1, List.of(cachedFridge), 0,
+                List.of(customFridge, houseBrand)));
+        when(remoteProductService.fetchRemoteCategories()).thenReturn(List.of(
+                new RemoteCategoryDto("kuehlung", "Kühlung", "/kuehlung"),
+                new RemoteCategoryDto("herde", "Herde", "/herde")));
+    }
+
+    @Test
+    void crawlerCategoriesAreFetchedPerCategoryAndMergedWithSnapshot() {
+        Product freshFridge = product("remote-1", "Kühlung", ProductSource.REMOTE);
+        freshFridge.setPriceCurrent(99.0);
+        Product stove = product("remote-2", "Herde", ProductSource.REMOTE);
+        when(remoteProductService.fetchRemoteProducts("kuehlung,herde")).thenReturn(List.of(freshFridge, stove));
+
+        List<Product> products = service.findByCategories(List.of("Kühlung", "herde", "Hausmarke"));
+
+        // Crawler'ın kategori listesi önce, snapshot'taki aynı ürün yerine taze olanı; custom'lar snapshot'tan
+        assertThat(products).containsExactly(freshFridge, stove, customFridge, houseBrand);
+    }
+
+    @Test
+    void categoriesUnknownToCrawlerComeOnlyFromSnapshot() {
+        assertThat(service.findByCategories(List.of("Hausmarke"))).containsExactly(houseBrand);
+        verify(remoteProductService, never()).fetchRemoteProducts(anyString());
+    }
+
+    @Test
+    void unavailableCategoryListFallsBackToSnapshot() {
+        when(remoteProductService.fetchRemoteCategories()).thenThrow(new CrawlerUnavailableException("Crawler circuit is open"));
+
+        assertThat(service.findByCategories(List.of("Kühlung"))).containsExactly(cachedFridge, customFridge);
+        verify(remoteProductService, never()).fetchRemoteProducts(anyString());
+    }
+
+    private static Product product(String id, String category, ProductSource source) {
+        return Product.builder()
+                .id(id)
+                .name("Produkt " + id)
+                .priceCurrent(10.0)
+                .source(source)
+                .category(category)
+                .build();
+    }
+}
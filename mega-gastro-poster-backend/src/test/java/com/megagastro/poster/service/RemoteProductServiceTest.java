@@ -0,0 +1,174 @@
+package com.megagastro.poster.service;
+
+import com.megagastro.poster.client.CrawlerGuard;
+import com.megagastro.poster.config.CacheConfig;
+import com.megagastro.poster.metrics.PosterMetrics;
+import com.megagastro.poster.model.Product;
+import com.megagastro.poster.repository.CatalogSnapshotStore;
+import com.megagastro.poster.repository.CustomProductRepository;
+import com.megagastro.poster.repository.PriceHistoryStore;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RemoteProductServiceTest {
+
+    private static final Duration CATEGORY_TIMEOUT = Duration.ofSeconds(1);
+
+    private enum Mode { OK, SLOW, FAIL }
+
+    // Kategori başına crawler davranışı ve ürün adlarına yazılan sürüm
+    private final Map<String, Mode> modes = new ConcurrentHashMap<>();
+    private final Map<String, Double> prices = new ConcurrentHashMap<>();
+    private volatile int generation = 1;
+
+    private HttpServer server;
+    private ExecutorService loadExecutor;
+    private CaffeineCacheManager cacheManager;
+    private RemoteProductService service;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/products", this::products);
+        server.start();
+
+        cacheManager = new CaffeineCacheManager(CacheConfig.REMOTE_PRODUCTS);
+        cacheManager.setAsyncCacheMode(true);
+        loadExecutor = Executors.newFixedThreadPool(4);
+        service = newService();
+        // İlk WebClient isteği Netty'yi başlatır; kategori zaman aşımına sayılmasın
+        service.loadProducts("warmup");
+    }
+
+    private RemoteProductService newService() {
+        return new RemoteProductService(
+                WebClient.create("http://127.0.0.1:" + server.getAddress().getPort()),
+                new CrawlerGuard(4, Duration.ofSeconds(1), 5, Duration.ofSeconds(30)),
+                new PriceHistoryStore(""), new PosterMetrics(new SimpleMeterRegistry()),
+                loadExecutor, cacheManager, CATEGORY_TIMEOUT, Duration.ZERO);
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+        loadExecutor.shutdownNow();
+    }
+
+    @Test
+    void slowAndFailingCategoriesFallBackToLastGoodList() {
+        assertThat(names(service.fetchRemoteProducts("kuehlung,herde,spuelen")))
+                .containsExactly("kuehlung v1", "herde v1", "spuelen v1");
+
+        // Cache girdileri gitti; bu sefer crawler yeni sürümü sunuyor ama iki kategoride sorunlu
+        cacheManager.getCache(CacheConfig.REMOTE_PRODUCTS).clear();
+        generation = 2;
+        modes.put("herde", Mode.SLOW);
+        modes.put("spuelen", Mode.FAIL);
+
+        long start = System.nanoTime();
+        List<Product> products = service.fetchRemoteProducts("kuehlung, herde ,spuelen");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(3));
+        assertThat(names(products)).containsExactly("kuehlung v2", "herde v1", "spuelen v1");
+    }
+
+    @Test
+    void categoryWithoutLastGoodListIsEmptyWhileOthersSucceed() {
+        modes.put("herde", Mode.FAIL);
+
+        assertThat(names(service.fetchRemoteProducts("herde,kuehlung"))).containsExactly("kuehlung v1");
+    }
+
+    @Test
+    void seededCatalogKeepsPriceVersionsAcrossRestart(@TempDir Path dir) {
+        List<Product> first = service.loadProducts(null);
+        assertThat(first).extracting(Product::getPriceVersion).containsExactly(1, 1);
+        // Diske yazılmış katalog: sürümler önceki çalışmalarda ilerlemiş
+        first.get(0).setPriceVersion(7);
+        first.get(1).setPriceVersion(3);
+        String snapshotFile = dir.resolve("catalog.snap").toString();
+        new CatalogSnapshotStore(snapshotFile).write(first, List.of());
+
+        RemoteProductService restarted = newService();
+        CustomProductRepository customProducts = mock(CustomProductRepository.class);
+        when(customProducts.findAll()).thenReturn(List.of());
+        new CatalogService(restarted, customProducts, new CatalogSnapshotStore(snapshotFile), cacheManager);
+        prices.put("herde", 12.0);
+
+        // Filtreli liste ilk senkronizasyondan önce de kayıtlı sürümü taşır
+        assertThat(restarted.loadProducts("kuehlung")).extracting(Product::getPriceVersion).containsExactly(7);
+        List<Product> synced = restarted.loadProducts(null);
+        assertThat(synced).extracting(Product::getName).containsExactly("kuehlung v1", "herde v1");
+        assertThat(synced).extracting(Product::getPriceVersion).containsExactly(7, 4);
+        assertThat(synced.get(1).getPriceCurrent()).isEqualTo(12.0);
+    }
+
+    private void products(HttpExchange exchange) throws IOException {
+        if (exchange.getRequestURI().getPath().equals("/products/changes")) {
+            // Delta endpoint'i olmayan crawler: tam listeye düşülür
+            respond(exchange, 404, "{\"error\":\"Not found\"}");
+            return;
+        }
+        String query = exchange.getRequestURI().getQuery();
+        String category = query != null && query.startsWith("categories=") ? query.substring("categories=".length()) : "";
+        switch (modes.getOrDefault(category, Mode.OK)) {
+            case SLOW -> {
+                try {
+                    Thread.sleep(CATEGORY_TIMEOUT.toMillis() * 5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                respond(exchange, 200, product(category));
+            }
+            case FAIL -> respond(exchange, 500, "{\"error\":\"Failed to scrape products\"}");
+            default -> respond(exchange, 200, product(category));
+        }
+    }
+
+    private String product(String category) {
+        if (category.isEmpty()) return "[" + entry("kuehlung") + "," + entry("herde") + "]";
+        return "[" + entry(category) + "]";
+    }
+
+    private String entry(String category) {
+        return "{\"name\":\"" + category + " v" + generation + "\",\"url\":\"https://shop.example/" + category
+                + "/1\",\"price_current\":" + prices.getOrDefault(category, 10.0) + ",\"category\":\"" + category + "\"}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static List<String> names(List<Product> products) {
+        return products.stream().map(Product::getName).toList();
+    }
+}
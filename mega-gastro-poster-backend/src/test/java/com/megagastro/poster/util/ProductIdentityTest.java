@@ -0,0 +1,45 @@
+package com.megagastro.poster.util;
+
+import com.megagastro.poster.client.RemoteProductReader;
+import com.megagastro.poster.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductIdentityTest {
+
+    @Test
+    void crawlerKeyMatchesServerProductKey() {
+        // server.js: p.url || `${p.name || ""}-${p.image_url || ""}`
+        assertThat(ProductIdentity.crawlerKey("https://shop.example/p/1", "Spüle", null))
+                .isEqualTo("https://shop.example/p/1");
+        assertThat(ProductIdentity.crawlerKey("", "Spüle", null)).isEqualTo("Spüle-");
+        assertThat(ProductIdentity.crawlerKey(null, "Spüle", "")).isEqualTo("Spüle-");
+        assertThat(ProductIdentity.crawlerKey("", null, "https://img.example/1.jpg"))
+                .isEqualTo("-https://img.example/1.jpg");
+    }
+
+    @Test
+    void removedKeyForNullImageUrlMatchesUpsert() throws IOException {
+        String body = """
+                {"etag": "\\"e-2\\"", "full": false,
+                 "upserts": [{"name": "Spüle", "url": "", "image_url": null, "price_current": 10}],
+                 "removed": ["Spüle-"]}
+                """;
+        List<Product> upserts = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        new RemoteProductReader().readChanges(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                upserts::add, removed::add);
+
+        Product p = upserts.get(0);
+        assertThat(p.getImageUrl()).isNull();
+        assertThat(ProductIdentity.crawlerKey(p.getUrl(), p.getName(), p.getImageUrl())).isEqualTo(removed.get(0));
+        assertThat(p.getId()).isEqualTo(ProductIdentity.remoteId("", "Spüle", ""));
+    }
+}